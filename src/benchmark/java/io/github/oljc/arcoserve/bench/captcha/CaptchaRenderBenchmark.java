@@ -0,0 +1,121 @@
+package io.github.oljc.arcoserve.bench.captcha;
+
+import cn.hutool.captcha.AbstractCaptcha;
+import cn.hutool.captcha.CaptchaUtil;
+import cn.hutool.captcha.generator.MathGenerator;
+import cn.hutool.captcha.generator.RandomGenerator;
+import io.github.oljc.arcoserve.modules.auth.CaptchaRenderer;
+import io.github.oljc.arcoserve.modules.auth.CaptchaService.CaptchaType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 验证码渲染基准：对比 Hutool 逐张渲染与图集渲染器的单核吞吐与图片体积
+ * <p>
+ * 单线程测量，结果即每核每秒张数。参数（均可选）：
+ * <pre>
+ * --iterations=5000     每种类型的测量次数，预热为其 1/5
+ * --width=120 --height=60 --code-count=5 --interfere-count=6
+ * --png-level=1         图集渲染器的 Deflate 压缩级别
+ * </pre>
+ */
+public final class CaptchaRenderBenchmark {
+
+    private static long sink;
+
+    public record Result(String renderer, CaptchaType type, double imagesPerSecond, double avgBytes) {}
+
+    private CaptchaRenderBenchmark() {}
+
+    public static void main(String[] args) {
+        Map<String, String> options = parse(args);
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "5000"));
+        int width = Integer.parseInt(options.getOrDefault("width", "120"));
+        int height = Integer.parseInt(options.getOrDefault("height", "60"));
+        int codeCount = Integer.parseInt(options.getOrDefault("code-count", "5"));
+        int interfereCount = Integer.parseInt(options.getOrDefault("interfere-count", "6"));
+        int pngLevel = Integer.parseInt(options.getOrDefault("png-level", "1"));
+
+        var renderer = new CaptchaRenderer(width, height, codeCount, interfereCount, "SansSerif", pngLevel);
+        Function<CaptchaType, byte[]> atlas = type -> renderer.render(type).png();
+        Function<CaptchaType, byte[]> hutool = type -> hutool(type, width, height, codeCount, interfereCount).getImageBytes();
+
+        var results = new ArrayList<Result>();
+        for (CaptchaType type : CaptchaType.values()) {
+            results.add(measure("hutool", type, hutool, iterations));
+            results.add(measure("atlas", type, atlas, iterations));
+        }
+        print(results);
+    }
+
+    /**
+     * 测量单个渲染器在单个类型上的吞吐与平均体积
+     */
+    public static Result measure(String name, CaptchaType type, Function<CaptchaType, byte[]> render, int iterations) {
+        int warmup = Math.max(iterations / 5, 1);
+        for (int i = 0; i < warmup; i++) {
+            sink += render.apply(type).length;
+        }
+
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            bytes += render.apply(type).length;
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += bytes;
+        return new Result(name, type, iterations * 1e9 / elapsed, (double) bytes / iterations);
+    }
+
+    /**
+     * 原 CaptchaService 的 Hutool 渲染方式，作为基线
+     */
+    private static AbstractCaptcha hutool(CaptchaType type, int width, int height, int codeCount, int interfereCount) {
+        return switch (type) {
+            case LINE -> CaptchaUtil.createLineCaptcha(width, height, codeCount, interfereCount);
+            case CIRCLE -> CaptchaUtil.createCircleCaptcha(width, height, codeCount, interfereCount);
+            case SHEAR -> CaptchaUtil.createShearCaptcha(width, height, codeCount, 4);
+            case MATH -> {
+                var captcha = CaptchaUtil.createLineCaptcha(width, height);
+                captcha.setGenerator(new MathGenerator(1));
+                yield captcha;
+            }
+            case NUMBER -> {
+                var captcha = CaptchaUtil.createLineCaptcha(width, height, codeCount, interfereCount);
+                captcha.setGenerator(new RandomGenerator("0123456789", codeCount));
+                yield captcha;
+            }
+        };
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        var options = new HashMap<String, String>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) continue;
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else {
+                options.put(arg.substring(2), "true");
+            }
+        }
+        return options;
+    }
+
+    private static void print(List<Result> results) {
+        System.out.printf(Locale.ROOT, "%-8s %-8s %14s %10s %9s%n",
+            "type", "renderer", "images/s/core", "bytes", "speedup");
+        Map<CaptchaType, Double> baseline = new HashMap<>();
+        for (Result r : results) {
+            double base = baseline.computeIfAbsent(r.type(), k -> r.imagesPerSecond());
+            System.out.printf(Locale.ROOT, "%-8s %-8s %14.0f %10.0f %8.1fx%n",
+                r.type(), r.renderer(), r.imagesPerSecond(), r.avgBytes(), r.imagesPerSecond() / base);
+        }
+        if (sink == 42) System.out.println();
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.oljc.arcoserve.bench.codec;
+
+import io.github.oljc.arcoserve.modules.user.User;
+import io.github.oljc.arcoserve.modules.user.UserDTO;
+import io.github.oljc.arcoserve.shared.cache.CompactRedisSerializer;
+import io.github.oljc.arcoserve.shared.response.PageData;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * 缓存值编码基准：对比 JSON、Smile、Smile+Deflate 在典型负载上的体积与编解码耗时
+ * <p>
+ * 参数（均可选）：
+ * <pre>
+ * --iterations=100000   每项测量次数，预热为其 1/5
+ * --threshold=256       Smile+Deflate 的压缩阈值（字节）
+ * </pre>
+ */
+public final class CacheCodecBenchmark {
+
+    private static long sink;
+
+    public record Result(String payload, String codec, int bytes, double encodeNanos, double decodeNanos) {}
+
+    private CacheCodecBenchmark() {}
+
+    public static void main(String[] args) {
+        Map<String, String> options = parse(args);
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "100000"));
+        int threshold = Integer.parseInt(options.getOrDefault("threshold", "256"));
+
+        Map<String, RedisSerializer<Object>> codecs = new LinkedHashMap<>();
+        // 与线上 JSON 写入路径一致（含 JavaTimeModule，负载中的 LocalDateTime 才能编码）
+        codecs.put("json", new CompactRedisSerializer(CompactRedisSerializer.Codec.JSON, 0));
+        codecs.put("smile", new CompactRedisSerializer(CompactRedisSerializer.Codec.SMILE, 0));
+        codecs.put("smile+deflate", new CompactRedisSerializer(CompactRedisSerializer.Codec.SMILE, threshold));
+
+        var random = new Random(42);
+        Map<String, Object> payloads = new LinkedHashMap<>();
+        payloads.put("user", user(random, 0));
+        payloads.put("page-20", page(random, 20));
+        payloads.put("page-200", page(random, 200));
+
+        var results = new ArrayList<Result>();
+        payloads.forEach((payloadName, payload) -> codecs.forEach((codecName, codec) ->
+            results.add(measure(payloadName, codecName, codec, payload, iterations))));
+        print(results);
+    }
+
+    /**
+     * 测量单个负载在单个编码下的体积与平均耗时
+     */
+    public static Result measure(String payloadName, String codecName, RedisSerializer<Object> codec,
+                                 Object payload, int iterations) {
+        byte[] encoded = codec.serialize(payload);
+        Object decoded = codec.deserialize(encoded);
+        if (!payload.equals(decoded)) {
+            throw new IllegalStateException(codecName + " 解码结果与原值不一致: " + payloadName);
+        }
+
+        int warmup = Math.max(iterations / 5, 1);
+        for (int i = 0; i < warmup; i++) {
+            sink += codec.serialize(payload).length;
+            sink += codec.deserialize(encoded).hashCode();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += codec.serialize(payload).length;
+        }
+        long encodeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += codec.deserialize(encoded).hashCode();
+        }
+        long decodeNanos = System.nanoTime() - start;
+
+        return new Result(payloadName, codecName, encoded.length,
+            (double) encodeNanos / iterations, (double) decodeNanos / iterations);
+    }
+
+    private static UserDTO.Response user(Random random, int index) {
+        var createdAt = LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(random.nextInt(500_000));
+        return new UserDTO.Response(
+            new UUID(random.nextLong(), random.nextLong()),
+            1_000_000_000L + random.nextInt(1_000_000_000),
+            "user_" + index + "_" + Integer.toString(random.nextInt(1 << 20), 36),
+            "user" + index + "@example.com",
+            User.UserStatus.values()[random.nextInt(User.UserStatus.values().length)],
+            User.UserType.values()[random.nextInt(User.UserType.values().length)],
+            random.nextBoolean(),
+            createdAt,
+            createdAt.plusDays(random.nextInt(30))
+        );
+    }
+
+    private static PageData<UserDTO.Response> page(Random random, int size) {
+        // 可变列表，保证带类型信息的反序列化可以还原
+        List<UserDTO.Response> records = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            records.add(user(random, i));
+        }
+        return PageData.of(records, 1, size, size * 10L);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        var options = new HashMap<String, String>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) continue;
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else {
+                options.put(arg.substring(2), "true");
+            }
+        }
+        return options;
+    }
+
+    private static void print(List<Result> results) {
+        System.out.printf(Locale.ROOT, "%-10s %-14s %9s %8s %12s %12s%n",
+            "payload", "codec", "bytes", "ratio", "encode ns", "decode ns");
+        Map<String, Integer> baseline = new HashMap<>();
+        for (Result r : results) {
+            int base = baseline.computeIfAbsent(r.payload(), k -> r.bytes());
+            System.out.printf(Locale.ROOT, "%-10s %-14s %9d %7.1f%% %12.0f %12.0f%n",
+                r.payload(), r.codec(), r.bytes(), 100.0 * r.bytes() / base, r.encodeNanos(), r.decodeNanos());
+        }
+        if (sink == 42) System.out.println();
+    }
+}
@@ -0,0 +1,33 @@
+package io.github.oljc.arcoserve.bench.ratelimit;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 理想限流器：精确滑动日志，任意 window 窗口内放行数不超过 limit，作为准确率基准
+ */
+final class IdealLimiter {
+
+    private final long windowMillis;
+    private final int limit;
+    private final Map<String, ArrayDeque<Long>> admitted = new HashMap<>();
+
+    IdealLimiter(int windowSeconds, int limit) {
+        this.windowMillis = windowSeconds * 1000L;
+        this.limit = limit;
+    }
+
+    boolean decide(String key, long nowMillis) {
+        var log = admitted.computeIfAbsent(key, k -> new ArrayDeque<>());
+        long clearBefore = nowMillis - windowMillis;
+        while (!log.isEmpty() && log.peekFirst() <= clearBefore) {
+            log.pollFirst();
+        }
+        if (log.size() < limit) {
+            log.addLast(nowMillis);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.oljc.arcoserve.bench.ratelimit;
+
+import io.github.oljc.arcoserve.shared.util.RedisUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * 内存替身：逐行复刻 RedisUtils 中限流 Lua 脚本的语义，无需 Redis 即可回放
+ * <p>
+ * 滑动窗口脚本以毫秒时间戳作为 ZSET 成员，同一毫秒内的多次放行会被合并为一个成员，这里保持一致。
+ * 键的过期同样按脚本规则在虚拟时间上计算：滑动窗口仅放行时续期 window + 1 秒，令牌桶每次续期 capacity / rate + 10 秒。
+ */
+final class InMemoryLimiterBackend implements LimiterBackend {
+
+    private final Algorithm algorithm;
+    private final int windowSeconds;
+    private final int limit;
+
+    private final Map<String, TreeSet<Long>> windows = new HashMap<>();
+    private final Map<String, double[]> buckets = new HashMap<>();
+    private final VirtualExpiry expiry = new VirtualExpiry();
+
+    InMemoryLimiterBackend(Algorithm algorithm, int windowSeconds, int limit) {
+        this.algorithm = algorithm;
+        this.windowSeconds = windowSeconds;
+        this.limit = limit;
+    }
+
+    @Override
+    public RedisUtils.RateLimitResult decide(String key, long nowMillis) {
+        return algorithm == Algorithm.SLIDING_WINDOW
+            ? slidingWindow(key, nowMillis)
+            : tokenBucket(key, nowMillis);
+    }
+
+    @Override
+    public void advance(long nowMillis) {
+        for (String key : expiry.expire(nowMillis)) {
+            windows.remove(key);
+            buckets.remove(key);
+        }
+    }
+
+    private RedisUtils.RateLimitResult slidingWindow(String key, long now) {
+        var zset = windows.computeIfAbsent(key, k -> new TreeSet<>());
+        zset.headSet(now - windowSeconds * 1000L, true).clear();
+
+        int current = zset.size();
+        boolean allowed = false;
+        if (current < limit) {
+            zset.add(now);
+            expiry.expireAt(key, now + (windowSeconds + 1) * 1000L);
+            current++;
+            allowed = true;
+        }
+
+        long reset = zset.isEmpty() ? windowSeconds * 1000L : zset.first() + windowSeconds * 1000L - now;
+        return new RedisUtils.RateLimitResult(allowed, Math.max(0, limit - current), Math.max(0, reset));
+    }
+
+    private RedisUtils.RateLimitResult tokenBucket(String key, long now) {
+        double rate = (double) limit / windowSeconds;
+        double[] bucket = buckets.get(key);
+        double tokens = bucket != null ? bucket[0] : limit;
+        double lastRefill = bucket != null ? bucket[1] : now;
+
+        double elapsed = Math.max(0, now - lastRefill);
+        tokens = Math.min(limit, tokens + elapsed * rate / 1000);
+
+        boolean allowed = tokens >= 1;
+        if (allowed) {
+            tokens -= 1;
+        }
+        buckets.put(key, new double[]{tokens, now});
+        expiry.expireAt(key, now + ((long) Math.ceil(limit / rate) + 10) * 1000);
+
+        long reset = allowed
+            ? (long) Math.ceil((limit - tokens) * 1000 / rate)
+            : (long) Math.ceil((1 - tokens) * 1000 / rate);
+        return new RedisUtils.RateLimitResult(allowed, allowed ? (long) Math.floor(tokens) : 0, reset);
+    }
+
+    @Override
+    public double bytesPerKey() {
+        return -1;
+    }
+
+    @Override
+    public double elementsPerKey() {
+        if (algorithm == Algorithm.TOKEN_BUCKET) {
+            return buckets.isEmpty() ? 0 : 2;
+        }
+        return windows.values().stream().mapToInt(TreeSet::size).average().orElse(0);
+    }
+}
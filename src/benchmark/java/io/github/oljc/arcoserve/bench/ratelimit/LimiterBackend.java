@@ -0,0 +1,34 @@
+package io.github.oljc.arcoserve.bench.ratelimit;
+
+import io.github.oljc.arcoserve.shared.util.RedisUtils;
+
+/**
+ * 仿真中的限流实现
+ */
+public interface LimiterBackend extends AutoCloseable {
+
+    /**
+     * 限流算法
+     */
+    enum Algorithm { SLIDING_WINDOW, TOKEN_BUCKET }
+
+    RedisUtils.RateLimitResult decide(String key, long nowMillis);
+
+    /**
+     * 在两次决策之间推进虚拟时钟，删除按虚拟时间已过期的键；不计入决策耗时
+     */
+    default void advance(long nowMillis) {}
+
+    /**
+     * 平均每个限流键占用的内存（字节），无法测量时返回 -1
+     */
+    double bytesPerKey();
+
+    /**
+     * 平均每个限流键保存的元素数
+     */
+    double elementsPerKey();
+
+    @Override
+    default void close() {}
+}
@@ -0,0 +1,174 @@
+package io.github.oljc.arcoserve.bench.ratelimit;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 限流仿真：在虚拟时钟下回放流量轨迹，对比理想限流器统计误放行/误拒绝、每键内存与吞吐
+ * <p>
+ * 参数（均可选）：
+ * <pre>
+ * --backend=memory|redis          默认 memory
+ * --algorithm=sliding-window|token-bucket|all
+ * --trace=bursty|diurnal|many-keys|all|file:/path/to/trace.csv
+ * --limit=10 --window=60 --duration=600000 --seed=42
+ * --redis-host=localhost --redis-port=6379 --redis-password=
+ * </pre>
+ */
+public final class RateLimitSimulation {
+
+    private static final long EPOCH_MILLIS = 1_700_000_000_000L;
+
+    public record Report(
+        String trace,
+        String backend,
+        LimiterBackend.Algorithm algorithm,
+        int events,
+        int keys,
+        long admitted,
+        long idealAdmitted,
+        long falseAdmits,
+        long falseRejects,
+        double bytesPerKey,
+        double elementsPerKey,
+        double decisionsPerSecond
+    ) {
+        double falseAdmitRate() {
+            return events == 0 ? 0 : (double) falseAdmits / events;
+        }
+
+        double falseRejectRate() {
+            return events == 0 ? 0 : (double) falseRejects / events;
+        }
+    }
+
+    private RateLimitSimulation() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String backend = options.getOrDefault("backend", "memory");
+        int limit = Integer.parseInt(options.getOrDefault("limit", "10"));
+        int window = Integer.parseInt(options.getOrDefault("window", "60"));
+        long duration = Long.parseLong(options.getOrDefault("duration", "600000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        List<TrafficTrace> traces = traces(options.getOrDefault("trace", "all"), duration, seed);
+        List<LimiterBackend.Algorithm> algorithms = algorithms(options.getOrDefault("algorithm", "all"));
+
+        var reports = new ArrayList<Report>();
+        for (TrafficTrace trace : traces) {
+            for (LimiterBackend.Algorithm algorithm : algorithms) {
+                try (LimiterBackend limiter = create(backend, algorithm, window, limit, options)) {
+                    reports.add(run(trace, backend, algorithm, limiter, window, limit));
+                }
+            }
+        }
+        print(reports);
+    }
+
+    /**
+     * 回放单条轨迹
+     */
+    public static Report run(TrafficTrace trace, String backendName, LimiterBackend.Algorithm algorithm,
+                             LimiterBackend backend, int windowSeconds, int limit) {
+        var clock = new VirtualClock(EPOCH_MILLIS);
+        var ideal = new IdealLimiter(windowSeconds, limit);
+        var keys = new HashSet<String>();
+
+        long admitted = 0, idealAdmitted = 0, falseAdmits = 0, falseRejects = 0, decisionNanos = 0;
+        for (TrafficTrace.Event event : trace.events()) {
+            clock.advanceTo(event.offsetMillis());
+            backend.advance(clock.now());
+            keys.add(event.key());
+
+            long start = System.nanoTime();
+            boolean actual = backend.decide(event.key(), clock.now()).allowed();
+            decisionNanos += System.nanoTime() - start;
+
+            boolean expected = ideal.decide(event.key(), clock.now());
+            if (actual) admitted++;
+            if (expected) idealAdmitted++;
+            if (actual && !expected) falseAdmits++;
+            if (!actual && expected) falseRejects++;
+        }
+
+        double throughput = decisionNanos == 0 ? 0 : trace.events().size() * 1e9 / decisionNanos;
+        return new Report(trace.name(), backendName, algorithm, trace.events().size(), keys.size(),
+            admitted, idealAdmitted, falseAdmits, falseRejects,
+            backend.bytesPerKey(), backend.elementsPerKey(), throughput);
+    }
+
+    private static LimiterBackend create(String backend, LimiterBackend.Algorithm algorithm,
+                                         int window, int limit, Map<String, String> options) {
+        return switch (backend) {
+            case "memory" -> new InMemoryLimiterBackend(algorithm, window, limit);
+            case "redis" -> new RedisLimiterBackend(algorithm, window, limit,
+                options.getOrDefault("redis-host", "localhost"),
+                Integer.parseInt(options.getOrDefault("redis-port", "6379")),
+                options.getOrDefault("redis-password", ""),
+                Long.toHexString(System.nanoTime()));
+            default -> throw new IllegalArgumentException("未知后端: " + backend);
+        };
+    }
+
+    private static List<TrafficTrace> traces(String spec, long duration, long seed) throws Exception {
+        if (spec.startsWith("file:")) {
+            return List.of(TrafficTrace.fromCsv(Path.of(spec.substring("file:".length()))));
+        }
+        var traces = new ArrayList<TrafficTrace>();
+        if (spec.equals("all") || spec.equals("bursty")) {
+            traces.add(TrafficTrace.bursty(20, duration, 2, 2000, 60_000, 2_000, seed));
+        }
+        if (spec.equals("all") || spec.equals("diurnal")) {
+            traces.add(TrafficTrace.diurnal(50, duration, 20, duration / 2, seed));
+        }
+        if (spec.equals("all") || spec.equals("many-keys")) {
+            traces.add(TrafficTrace.manyKeys(100_000, duration, 500, 1.1, seed));
+        }
+        if (traces.isEmpty()) {
+            throw new IllegalArgumentException("未知轨迹: " + spec);
+        }
+        return traces;
+    }
+
+    private static List<LimiterBackend.Algorithm> algorithms(String spec) {
+        return switch (spec) {
+            case "sliding-window" -> List.of(LimiterBackend.Algorithm.SLIDING_WINDOW);
+            case "token-bucket" -> List.of(LimiterBackend.Algorithm.TOKEN_BUCKET);
+            case "all" -> List.of(LimiterBackend.Algorithm.values());
+            default -> throw new IllegalArgumentException("未知算法: " + spec);
+        };
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        var options = new HashMap<String, String>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) continue;
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else {
+                options.put(arg.substring(2), "true");
+            }
+        }
+        return options;
+    }
+
+    private static void print(List<Report> reports) {
+        System.out.printf(Locale.ROOT, "%-12s %-7s %-15s %9s %7s %9s %9s %11s %11s %10s %8s %12s%n",
+            "trace", "backend", "algorithm", "events", "keys", "admitted", "ideal",
+            "falseAdmit", "falseReject", "bytes/key", "elem/key", "decisions/s");
+        for (Report r : reports) {
+            System.out.printf(Locale.ROOT, "%-12s %-7s %-15s %9d %7d %9d %9d %10.4f%% %10.4f%% %10s %8.1f %12.0f%n",
+                r.trace(), r.backend(), r.algorithm(), r.events(), r.keys(), r.admitted(), r.idealAdmitted(),
+                r.falseAdmitRate() * 100, r.falseRejectRate() * 100,
+                r.bytesPerKey() < 0 ? "n/a" : String.format(Locale.ROOT, "%.0f", r.bytesPerKey()),
+                r.elementsPerKey(), r.decisionsPerSecond());
+        }
+    }
+}
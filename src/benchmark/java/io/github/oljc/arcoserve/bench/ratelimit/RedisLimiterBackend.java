@@ -0,0 +1,154 @@
+package io.github.oljc.arcoserve.bench.ratelimit;
+
+import io.github.oljc.arcoserve.shared.util.HotKeyDetector;
+import io.github.oljc.arcoserve.shared.util.RedisReadRouter;
+import io.github.oljc.arcoserve.shared.util.RedisUtils;
+import io.github.oljc.arcoserve.shared.util.TrackingNearCache;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 真实 Redis 后端：通过 RedisUtils 执行生产环境使用的同一份 Lua 脚本
+ * <p>
+ * 脚本里的 EXPIRE 按墙钟计时，与虚拟时钟无关，因此每次决策后立即 PERSIST 去掉墙钟 TTL，
+ * 改由 {@link VirtualExpiry} 按脚本的续期规则在虚拟时间上删除过期键，内存与准确率统计只反映虚拟时间下仍存活的键。
+ */
+final class RedisLimiterBackend implements LimiterBackend {
+
+    private static final int MEMORY_SAMPLE_KEYS = 1000;
+
+    private final Algorithm algorithm;
+    private final int windowSeconds;
+    private final int limit;
+    private final String prefix;
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final StringRedisTemplate redis;
+    private final RedisUtils redisUtils;
+    private final Set<String> touchedKeys = new LinkedHashSet<>();
+    private final VirtualExpiry expiry = new VirtualExpiry();
+    private final List<String> decided = new ArrayList<>();
+
+    RedisLimiterBackend(Algorithm algorithm, int windowSeconds, int limit,
+                        String host, int port, String password, String runId) {
+        this.algorithm = algorithm;
+        this.windowSeconds = windowSeconds;
+        this.limit = limit;
+        this.prefix = "sim:" + runId + ":rl:";
+
+        var config = new RedisStandaloneConfiguration(host, port);
+        if (password != null && !password.isEmpty()) {
+            config.setPassword(password);
+        }
+        this.connectionFactory = new LettuceConnectionFactory(config);
+        this.connectionFactory.afterPropertiesSet();
+        this.connectionFactory.start();
+        this.redis = new StringRedisTemplate(connectionFactory);
+        this.redisUtils = new RedisUtils(redis, HotKeyDetector.disabled(), TrackingNearCache.disabled(),
+            RedisReadRouter.disabled(redis));
+    }
+
+    @Override
+    public RedisUtils.RateLimitResult decide(String key, long nowMillis) {
+        String redisKey = prefix + key;
+        touchedKeys.add(redisKey);
+        decided.add(redisKey);
+        if (algorithm == Algorithm.SLIDING_WINDOW) {
+            var result = redisUtils.slidingWindowLimit(redisKey, windowSeconds, limit, nowMillis);
+            // 脚本仅在放行时续期
+            if (result.allowed()) {
+                expiry.expireAt(redisKey, nowMillis + (windowSeconds + 1) * 1000L);
+            }
+            return result;
+        }
+        double rate = (double) limit / windowSeconds;
+        expiry.expireAt(redisKey, nowMillis + ((long) Math.ceil(limit / rate) + 10) * 1000);
+        return redisUtils.tokenBucketLimit(redisKey, rate, limit, nowMillis);
+    }
+
+    /**
+     * 一次管道：去掉上一轮决策写入的墙钟 TTL，删除按虚拟时间已过期的键
+     */
+    @Override
+    public void advance(long nowMillis) {
+        List<String> expired = expiry.expire(nowMillis);
+        if (decided.isEmpty() && expired.isEmpty()) return;
+
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : decided) {
+                connection.keyCommands().persist(bytes(key));
+            }
+            for (String key : expired) {
+                connection.keyCommands().del(bytes(key));
+            }
+            return null;
+        });
+        decided.clear();
+    }
+
+    @Override
+    public double bytesPerKey() {
+        List<String> sample = sample();
+        if (sample.isEmpty()) return 0;
+
+        long total = 0;
+        for (String key : sample) {
+            Long bytes = redis.execute((RedisCallback<Long>) connection -> (Long) connection.execute("MEMORY",
+                bytes("USAGE"), bytes(key)));
+            total += bytes != null ? bytes : 0;
+        }
+        return (double) total / sample.size();
+    }
+
+    @Override
+    public double elementsPerKey() {
+        List<String> sample = sample();
+        if (sample.isEmpty()) return 0;
+
+        long total = 0;
+        for (String key : sample) {
+            total += algorithm == Algorithm.SLIDING_WINDOW ? redisUtils.zcard(key) : redis.opsForHash().size(key);
+        }
+        return (double) total / sample.size();
+    }
+
+    /**
+     * 只采样虚拟时间下仍存活的键
+     */
+    private List<String> sample() {
+        var sample = new ArrayList<String>(Math.min(expiry.live().size(), MEMORY_SAMPLE_KEYS));
+        for (String key : expiry.live()) {
+            if (sample.size() >= MEMORY_SAMPLE_KEYS) break;
+            sample.add(key);
+        }
+        return sample;
+    }
+
+    @Override
+    public void close() {
+        var batch = new ArrayList<String>(1000);
+        for (String key : touchedKeys) {
+            batch.add(key);
+            if (batch.size() == 1000) {
+                redisUtils.delete(batch.toArray(String[]::new));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            redisUtils.delete(batch.toArray(String[]::new));
+        }
+        connectionFactory.destroy();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
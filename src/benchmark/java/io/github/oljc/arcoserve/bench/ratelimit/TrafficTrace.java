@@ -0,0 +1,114 @@
+package io.github.oljc.arcoserve.bench.ratelimit;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 流量轨迹：按时间排序的请求序列，时间为相对轨迹起点的毫秒数
+ */
+public record TrafficTrace(String name, List<Event> events) {
+
+    public record Event(long offsetMillis, String key) {}
+
+    /**
+     * 突发流量：平稳基线上周期性叠加高强度突发，突发内大量请求落在同一毫秒
+     */
+    public static TrafficTrace bursty(int keys, long durationMillis, double baseRatePerSecond,
+                                      double burstRatePerSecond, long burstEveryMillis, long burstMillis, long seed) {
+        var random = new SplittableRandom(seed);
+        var events = new ArrayList<Event>();
+        double t = 0;
+        while (t < durationMillis) {
+            boolean inBurst = (long) t % burstEveryMillis < burstMillis;
+            double rate = inBurst ? burstRatePerSecond : baseRatePerSecond;
+            t += exponential(random, rate);
+            events.add(new Event((long) t, "k" + random.nextInt(keys)));
+        }
+        return new TrafficTrace("bursty", trim(events, durationMillis));
+    }
+
+    /**
+     * 昼夜流量：正弦调制的非齐次泊松过程（thinning 采样），dayMillis 为压缩后的一天长度
+     */
+    public static TrafficTrace diurnal(int keys, long durationMillis, double peakRatePerSecond,
+                                       long dayMillis, long seed) {
+        var random = new SplittableRandom(seed);
+        var events = new ArrayList<Event>();
+        double t = 0;
+        while (t < durationMillis) {
+            t += exponential(random, peakRatePerSecond);
+            double rate = 0.55 + 0.45 * Math.sin(2 * Math.PI * t / dayMillis);
+            if (random.nextDouble() < rate) {
+                events.add(new Event((long) t, "k" + random.nextInt(keys)));
+            }
+        }
+        return new TrafficTrace("diurnal", trim(events, durationMillis));
+    }
+
+    /**
+     * 海量键：Zipf 分布选择键，模拟按 IP/设备限流时的长尾
+     */
+    public static TrafficTrace manyKeys(int keys, long durationMillis, double ratePerSecond,
+                                        double zipfExponent, long seed) {
+        var random = new SplittableRandom(seed);
+        double[] cdf = new double[keys];
+        double sum = 0;
+        for (int i = 0; i < keys; i++) {
+            sum += 1.0 / Math.pow(i + 1, zipfExponent);
+            cdf[i] = sum;
+        }
+
+        var events = new ArrayList<Event>();
+        double t = 0;
+        while (t < durationMillis) {
+            t += exponential(random, ratePerSecond);
+            int idx = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            events.add(new Event((long) t, "k" + (idx < 0 ? -idx - 1 : idx)));
+        }
+        return new TrafficTrace("many-keys", trim(events, durationMillis));
+    }
+
+    /**
+     * 从录制文件加载，每行格式：timestampMillis,key；# 开头为注释
+     */
+    public static TrafficTrace fromCsv(Path path) throws IOException {
+        var events = new ArrayList<Event>();
+        for (String line : Files.readAllLines(path)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            int comma = line.indexOf(',');
+            if (comma <= 0) {
+                throw new IllegalArgumentException("轨迹格式错误: " + line);
+            }
+            long ts = Long.parseLong(line.substring(0, comma).trim());
+            events.add(new Event(ts, line.substring(comma + 1).trim()));
+        }
+        events.sort(Comparator.comparingLong(Event::offsetMillis));
+
+        long origin = events.isEmpty() ? 0 : events.get(0).offsetMillis();
+        var rebased = events.stream()
+            .map(e -> new Event(e.offsetMillis() - origin, e.key()))
+            .toList();
+        return new TrafficTrace(path.getFileName().toString(), rebased);
+    }
+
+    public long durationMillis() {
+        return events.isEmpty() ? 0 : events.get(events.size() - 1).offsetMillis();
+    }
+
+    private static double exponential(SplittableRandom random, double ratePerSecond) {
+        return -Math.log(1 - random.nextDouble()) * 1000.0 / ratePerSecond;
+    }
+
+    private static List<Event> trim(List<Event> events, long durationMillis) {
+        events.removeIf(e -> e.offsetMillis() >= durationMillis);
+        return events;
+    }
+}
@@ -0,0 +1,25 @@
+package io.github.oljc.arcoserve.bench.ratelimit;
+
+/**
+ * 虚拟时钟：回放时由轨迹驱动，不依赖墙钟
+ */
+public final class VirtualClock {
+
+    private final long epochMillis;
+    private long offsetMillis;
+
+    public VirtualClock(long epochMillis) {
+        this.epochMillis = epochMillis;
+    }
+
+    public long now() {
+        return epochMillis + offsetMillis;
+    }
+
+    public void advanceTo(long offsetMillis) {
+        if (offsetMillis < this.offsetMillis) {
+            throw new IllegalArgumentException("虚拟时钟不能回拨");
+        }
+        this.offsetMillis = offsetMillis;
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.oljc.arcoserve.bench.ratelimit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * 虚拟时钟下的键过期表
+ * <p>
+ * 限流脚本用 EXPIRE 设置的是墙钟 TTL，回放却跑在虚拟时钟上：回放快于真实时间时键在虚拟时间里“永不过期”，
+ * 回放慢时键又会在虚拟窗口内被 Redis 提前删除。后端按脚本的续期规则把过期时间记在这里，
+ * 由仿真在每个事件前推进，统一按虚拟时间删除已过期的键。
+ */
+final class VirtualExpiry {
+
+    private record Deadline(long at, String key) {}
+
+    private final Map<String, Long> deadlines = new HashMap<>();
+    private final PriorityQueue<Deadline> queue = new PriorityQueue<>((a, b) -> Long.compare(a.at(), b.at()));
+
+    /**
+     * 记录键的过期时间，对应脚本中的一次 EXPIRE
+     */
+    void expireAt(String key, long deadlineMillis) {
+        deadlines.put(key, deadlineMillis);
+        queue.add(new Deadline(deadlineMillis, key));
+    }
+
+    /**
+     * 取出在 nowMillis 之前（含）过期的键，之后不再视为存活
+     */
+    List<String> expire(long nowMillis) {
+        var expired = new ArrayList<String>();
+        while (!queue.isEmpty() && queue.peek().at() <= nowMillis) {
+            Deadline head = queue.poll();
+            // 续期后旧的登记作废
+            if (deadlines.remove(head.key(), head.at())) {
+                expired.add(head.key());
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * 当前存活的键
+     */
+    Set<String> live() {
+        return deadlines.keySet();
+    }
+}
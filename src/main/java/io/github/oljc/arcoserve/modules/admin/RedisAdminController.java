@@ -0,0 +1,59 @@
+package io.github.oljc.arcoserve.modules.admin;
+
+import io.github.oljc.arcoserve.shared.annotation.Signature;
+import io.github.oljc.arcoserve.shared.response.ApiResponse;
+import io.github.oljc.arcoserve.shared.store.ConditionalOnRedisStore;
+import io.github.oljc.arcoserve.shared.util.HotKeyDetector;
+import io.github.oljc.arcoserve.shared.util.RedisMemorySampler;
+import io.github.oljc.arcoserve.shared.util.TrackingNearCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Redis 运维控制器
+ */
+@RestController
+@ConditionalOnRedisStore
+@RequestMapping("/api/admin/redis")
+@RequiredArgsConstructor
+@Signature
+public class RedisAdminController {
+
+    private final HotKeyDetector hotKeyDetector;
+    private final TrackingNearCache trackingNearCache;
+    private final RedisMemorySampler redisMemorySampler;
+
+    /**
+     * 当前热点键
+     *
+     * @return 按估算 QPS 降序的热点键列表
+     */
+    @GetMapping("/hot-keys")
+    public ApiResponse<List<HotKeyDetector.HotKey>> hotKeys() {
+        return ApiResponse.success(hotKeyDetector.hotKeys());
+    }
+
+    /**
+     * 客户端跟踪本地缓存统计
+     *
+     * @return 跟踪状态、命中与失效计数
+     */
+    @GetMapping("/near-cache")
+    public ApiResponse<TrackingNearCache.Stats> nearCache() {
+        return ApiResponse.success(trackingNearCache.stats());
+    }
+
+    /**
+     * 按键前缀的内存占用
+     *
+     * @return 最近一轮扫描的外推结果，尚未完成首轮时为 null
+     */
+    @GetMapping("/memory")
+    public ApiResponse<RedisMemorySampler.Report> memory() {
+        return ApiResponse.success(redisMemorySampler.report());
+    }
+}
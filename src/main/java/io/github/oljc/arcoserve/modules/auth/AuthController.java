@@ -2,9 +2,15 @@ package io.github.oljc.arcoserve.modules.auth;
 
 import io.github.oljc.arcoserve.shared.annotation.RateLimit;
 import io.github.oljc.arcoserve.shared.response.ApiResponse;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
+
 /**
  * 认证控制器
  */
@@ -13,6 +19,9 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class AuthController {
 
+    static final String CAPTCHA_ID_HEADER = "X-Captcha-Id";
+    static final String CAPTCHA_TTL_HEADER = "X-Captcha-Ttl";
+
     private final CaptchaService captchaService;
 
     /**
@@ -25,6 +34,30 @@ public class AuthController {
         return ApiResponse.success(captcha, "获取验证码成功");
     }
 
+    /**
+     * 获取图形验证码（PNG），验证码 ID 与有效期通过响应头返回
+     */
+    @GetMapping("/captcha/image")
+    @RateLimit(limit = 10, window = 60, message = "验证码获取过于频繁，请稍后再试")
+    public void getCaptchaImage(HttpServletResponse response) throws IOException {
+        CaptchaService.Image image = captchaService.randomImage();
+        response.setContentType(MediaType.IMAGE_PNG_VALUE);
+        response.setContentLength(image.png().remaining());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        response.setHeader(CAPTCHA_ID_HEADER, image.id());
+        response.setHeader(CAPTCHA_TTL_HEADER, String.valueOf(image.ttl()));
+        Channels.newChannel(response.getOutputStream()).write(image.png());
+    }
+
+    /**
+     * 获取工作量证明挑战，客户端在后台求解后以挑战为验证码 ID、解答为验证码提交
+     */
+    @GetMapping("/captcha/pow")
+    @RateLimit(limit = 30, window = 60, message = "验证码获取过于频繁，请稍后再试")
+    public ApiResponse<CaptchaService.Pow> getPowChallenge() {
+        return ApiResponse.success(captchaService.pow(), "获取挑战成功");
+    }
+
     /**
      * 临时 Post 接口，用于测试
      */
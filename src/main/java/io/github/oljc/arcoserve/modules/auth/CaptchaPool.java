@@ -0,0 +1,312 @@
+package io.github.oljc.arcoserve.modules.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 预渲染验证码池
+ * <p>
+ * 有界无锁环形缓冲（多生产者多消费者，每格带序号），入队出队与深度查询均为 O(1)。
+ * 深度降到低水位时由固定大小的工作线程并行渲染补充到目标深度；渲染是纯 CPU 任务，线程数不超过核数即可。
+ * 池空时由调用方同步渲染。
+ * <p>
+ * 目标深度按需求自适应：每个周期统计取用速率，取快、慢两条 EWMA 的较大值作为需求（快线先于慢线感知突增），
+ * 目标深度 = 需求 × horizon × max(1, 需求 / 渲染吞吐)，即覆盖 horizon 时长的消耗，需求超过渲染能力时按超出比例放大。
+ * 结果限制在 [min, max] 内；空闲时目标回落到下限，库存超过目标两倍时丢弃到目标深度以释放堆内存。
+ */
+@Slf4j
+final class CaptchaPool<T> {
+
+    private static final double FAST_ALPHA = 0.5;
+    private static final double SLOW_ALPHA = 0.05;
+
+    /**
+     * 容量配置
+     *
+     * @param initial       启动时的目标深度
+     * @param min           目标深度下限
+     * @param max           目标深度上限，即环形缓冲容量，决定内存上界
+     * @param lowRatio      低水位占目标深度的比例
+     * @param horizon       目标深度需覆盖的需求时长
+     * @param adaptInterval 调整周期
+     */
+    record Sizing(int initial, int min, int max, double lowRatio, Duration horizon, Duration adaptInterval) {}
+
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    private final Sizing sizing;
+    private final int workers;
+    private final Supplier<T> renderer;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService adapter;
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+
+    private volatile int target;
+    private volatile int lowWatermark;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder renderNanos = new LongAdder();
+    private final LongAdder renderCount = new LongAdder();
+    private long lastRequests;
+    private long lastRenderNanos;
+    private long lastRenderCount;
+    private double fastRate;
+    private double slowRate;
+    private double avgRenderNanos;
+    private volatile double demand;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter rendered;
+    private final Timer renderTime;
+
+    CaptchaPool(Sizing sizing, int workers, Supplier<T> renderer, MeterRegistry meterRegistry) {
+        int capacity = Math.max(2, Integer.highestOneBit(Math.max(1, sizing.max() - 1)) << 1);
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+        this.sizing = sizing;
+        this.workers = Math.max(1, workers);
+        this.renderer = renderer;
+        setTarget(sizing.initial());
+
+        var seq = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.workers, r -> {
+            Thread t = new Thread(r, "captcha-refill-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.adapter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "captcha-pool-adapt");
+            t.setDaemon(true);
+            return t;
+        });
+
+        Gauge.builder("captcha.pool.depth", this, CaptchaPool::size)
+            .description("验证码池当前深度")
+            .register(meterRegistry);
+        Gauge.builder("captcha.pool.target", this, p -> p.target)
+            .description("验证码池目标深度")
+            .register(meterRegistry);
+        Gauge.builder("captcha.pool.demand", this, p -> p.demand)
+            .description("验证码取用速率估计（次/秒）")
+            .register(meterRegistry);
+        this.hits = Counter.builder("captcha.pool.requests").tag("result", "hit")
+            .description("验证码池取用").register(meterRegistry);
+        this.misses = Counter.builder("captcha.pool.requests").tag("result", "miss")
+            .description("验证码池取用").register(meterRegistry);
+        this.rendered = Counter.builder("captcha.pool.rendered")
+            .description("后台渲染的验证码数").register(meterRegistry);
+        this.renderTime = Timer.builder("captcha.render")
+            .description("单个验证码渲染耗时").register(meterRegistry);
+
+        // 慢线以初始目标对应的速率起步，启动后逐步回落，而不是立刻丢弃首轮预渲染的库存
+        this.slowRate = sizing.initial() / (sizing.horizon().toNanos() / 1e9);
+        long period = sizing.adaptInterval().toMillis();
+        adapter.scheduleAtFixedRate(this::adapt, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 取出一个，池空返回 null；深度低于低水位时触发补充
+     */
+    T poll() {
+        requests.increment();
+        T item = dequeue();
+        if (item != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        if (size() < lowWatermark) {
+            refill();
+        }
+        return item;
+    }
+
+    /**
+     * 同步渲染一个，用于池空时的兜底
+     */
+    T render() {
+        long start = System.nanoTime();
+        T item = renderer.get();
+        long elapsed = System.nanoTime() - start;
+        renderTime.record(elapsed, TimeUnit.NANOSECONDS);
+        renderNanos.add(elapsed);
+        renderCount.increment();
+        return item;
+    }
+
+    int size() {
+        long depth = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(depth, slots.length()));
+    }
+
+    int target() {
+        return target;
+    }
+
+    /**
+     * 没有补充任务在运行时，启动全部工作线程填充到目标深度；停机后任务被拒绝，扣回未提交的计数
+     */
+    void refill() {
+        if (!activeWorkers.compareAndSet(0, workers)) return;
+        for (int i = 0; i < workers; i++) {
+            try {
+                executor.execute(this::fill);
+            } catch (RejectedExecutionException e) {
+                activeWorkers.addAndGet(i - workers);
+                return;
+            }
+        }
+    }
+
+    void shutdown() {
+        adapter.shutdownNow();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 按上一周期的取用速率与渲染耗时重新计算目标深度，仅在调整线程中执行
+     */
+    void adapt() {
+        try {
+            double seconds = sizing.adaptInterval().toNanos() / 1e9;
+            long totalRequests = requests.sum();
+            double rate = (totalRequests - lastRequests) / seconds;
+            lastRequests = totalRequests;
+            fastRate += FAST_ALPHA * (rate - fastRate);
+            slowRate += SLOW_ALPHA * (rate - slowRate);
+            demand = Math.max(fastRate, slowRate);
+
+            long totalNanos = renderNanos.sum();
+            long totalCount = renderCount.sum();
+            if (totalCount > lastRenderCount) {
+                double perItem = (double) (totalNanos - lastRenderNanos) / (totalCount - lastRenderCount);
+                avgRenderNanos = avgRenderNanos == 0 ? perItem : avgRenderNanos + SLOW_ALPHA * (perItem - avgRenderNanos);
+                lastRenderNanos = totalNanos;
+                lastRenderCount = totalCount;
+            }
+
+            // 渲染吞吐（个/秒），尚无样本时不放大
+            double throughput = avgRenderNanos > 0 ? workers * 1e9 / avgRenderNanos : Double.MAX_VALUE;
+            double needed = demand * sizing.horizon().toNanos() / 1e9 * Math.max(1, demand / throughput);
+            int previous = target;
+            setTarget((int) Math.ceil(needed));
+            if (target != previous) {
+                log.debug("验证码池目标深度调整: {} -> {}, demand={}/s, throughput={}/s",
+                    previous, target, String.format("%.1f", demand), String.format("%.0f", throughput));
+            }
+
+            int depth = size();
+            if (depth < lowWatermark) {
+                refill();
+            } else if (depth > target * 2) {
+                // 超过目标两倍时丢弃到目标深度，释放图片占用的堆内存；两倍的余量避免目标小幅回落时反复丢弃
+                int excess = depth - target;
+                while (excess-- > 0) {
+                    if (dequeue() == null) break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("验证码池容量调整失败: {}", e.getMessage());
+        }
+    }
+
+    private void setTarget(int value) {
+        int bounded = Math.max(sizing.min(), Math.min(sizing.max(), value));
+        target = bounded;
+        lowWatermark = Math.max(1, (int) (bounded * sizing.lowRatio()));
+    }
+
+    private void fill() {
+        try {
+            while (size() < target && !Thread.currentThread().isInterrupted()) {
+                if (!enqueue(render())) break;
+                rendered.increment();
+            }
+        } catch (RuntimeException e) {
+            log.warn("验证码预渲染失败: {}", e.getMessage());
+        } finally {
+            activeWorkers.decrementAndGet();
+        }
+    }
+
+    /**
+     * 入队，池满返回 false
+     */
+    boolean enqueue(T item) {
+        long pos = tail.get();
+        for (;;) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.set(index, item);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                // 该格尚未被消费，池已满
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * 出队，池空返回 null
+     */
+    T dequeue() {
+        long pos = head.get();
+        for (;;) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    T item = slots.getAndSet(index, null);
+                    sequences.set(index, pos + mask + 1);
+                    return item;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                // 该格尚未写入，池为空
+                return null;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+}
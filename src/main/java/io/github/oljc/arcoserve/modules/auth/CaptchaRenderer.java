@@ -0,0 +1,444 @@
+package io.github.oljc.arcoserve.modules.auth;
+
+import io.github.oljc.arcoserve.modules.auth.CaptchaService.CaptchaType;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * 验证码渲染器
+ * <p>
+ * 构造时用 Java2D 把字符集按配置字体栅格化成灰度字形图集，之后每张图只做整数运算：
+ * 在 RGB 画布（即 PNG 扫描行布局，每行首字节为过滤类型 0）上铺背景、干扰线/圈，
+ * 按覆盖度混合字形并做逐字倾斜与抖动，再直接 Deflate 输出 PNG，不经过 BufferedImage/Graphics2D/ImageIO。
+ * <p>
+ * 线程安全。画布连同其 Deflater 的本地内存从有界池中借出，池容量为 CPU 核数：渲染是纯 CPU 任务，
+ * 同时渲染的线程多于核数时多出的画布归还失败，立即释放 Deflater，不会按请求线程数常驻；{@link #close()} 释放池中全部画布。
+ */
+public final class CaptchaRenderer implements AutoCloseable {
+
+    private static final char[] CHARS = "abcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+    private static final char[] DIGITS = "0123456789".toCharArray();
+    private static final char[] MATH_OPERATORS = {'+', '-', '*'};
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private final int width;
+    private final int height;
+    private final int codeCount;
+    private final int interfereCount;
+    private final int compressionLevel;
+    private final int stride;
+    private final Glyph[] atlas = new Glyph[128];
+    private final BlockingQueue<Canvas> canvases;
+
+    /**
+     * 渲染结果
+     *
+     * @param answer 校验用的答案，算术题为计算结果
+     * @param png    PNG 编码的图片
+     */
+    public record Rendered(String answer, byte[] png) {}
+
+    /**
+     * 预栅格化的字形
+     *
+     * @param top      字形包围盒顶部相对基线的偏移（负数在基线上方）
+     * @param coverage 包围盒内逐像素覆盖度 0-255
+     */
+    private record Glyph(int width, int height, int top, byte[] coverage) {}
+
+    /**
+     * 渲染缓冲，同一时刻只被一个线程使用
+     */
+    private final class Canvas {
+        final byte[] raw = new byte[height * stride];
+        final byte[] scratch = new byte[stride];
+        final Deflater deflater = new Deflater(compressionLevel);
+        final CRC32 crc = new CRC32();
+        byte[] deflated = new byte[raw.length / 2];
+        byte[] out = new byte[raw.length / 2];
+        int size;
+    }
+
+    public CaptchaRenderer(int width, int height, int codeCount, int interfereCount,
+                           String fontName, int compressionLevel) {
+        this.width = width;
+        this.height = height;
+        this.codeCount = codeCount;
+        this.interfereCount = interfereCount;
+        this.compressionLevel = compressionLevel;
+        this.stride = 1 + width * 3;
+        this.canvases = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+        var font = new Font(fontName, Font.PLAIN, (int) (height * 0.75));
+        for (char c : CHARS) {
+            atlas[c] = rasterize(font, c);
+        }
+        for (char c : "+-*=".toCharArray()) {
+            atlas[c] = rasterize(font, c);
+        }
+    }
+
+    /**
+     * 渲染一张指定类型的验证码
+     */
+    public Rendered render(CaptchaType type) {
+        Canvas canvas = canvases.poll();
+        if (canvas == null) {
+            canvas = new Canvas();
+        }
+        try {
+            return render(type, canvas);
+        } finally {
+            if (!canvases.offer(canvas)) {
+                canvas.deflater.end();
+            }
+        }
+    }
+
+    /**
+     * 释放池中画布的 Deflater，停机时在补充线程结束后调用
+     */
+    @Override
+    public void close() {
+        Canvas canvas;
+        while ((canvas = canvases.poll()) != null) {
+            canvas.deflater.end();
+        }
+    }
+
+    private Rendered render(CaptchaType type, Canvas canvas) {
+        var random = ThreadLocalRandom.current();
+        byte[] raw = canvas.raw;
+        Arrays.fill(raw, (byte) 0xFF);
+        for (int y = 0; y < height; y++) {
+            raw[y * stride] = 0;
+        }
+
+        String text;
+        String answer;
+        switch (type) {
+            case MATH -> {
+                int a = random.nextInt(10);
+                int b = random.nextInt(10);
+                char op = MATH_OPERATORS[random.nextInt(MATH_OPERATORS.length)];
+                if (op == '-' && a < b) {
+                    int t = a;
+                    a = b;
+                    b = t;
+                }
+                text = "" + a + op + b + '=';
+                answer = String.valueOf(switch (op) {
+                    case '+' -> a + b;
+                    case '-' -> a - b;
+                    default -> a * b;
+                });
+            }
+            case NUMBER -> answer = text = randomText(DIGITS);
+            default -> answer = text = randomText(CHARS);
+        }
+
+        // 扭曲类型只有一条粗干扰线，在错位后绘制
+        if (type == CaptchaType.CIRCLE) {
+            for (int i = 0; i < interfereCount; i++) {
+                circle(raw, random.nextInt(width), random.nextInt(height),
+                    random.nextInt(height >> 3, (height >> 1) + 1), randomColor(random, 120, 230));
+            }
+        } else if (type != CaptchaType.SHEAR) {
+            for (int i = 0; i < interfereCount; i++) {
+                line(raw, random.nextInt(width), random.nextInt(height), random.nextInt(width),
+                    random.nextInt(height), 1, randomColor(random, 120, 230));
+            }
+        }
+
+        drawText(raw, text, random);
+        speckle(raw, width * height / 50, random);
+
+        if (type == CaptchaType.SHEAR) {
+            shear(canvas, random);
+            line(raw, 0, random.nextInt(height), width - 1, random.nextInt(height), 4, randomColor(random, 0, 160));
+        }
+        return new Rendered(answer, encode(canvas));
+    }
+
+    private String randomText(char[] alphabet) {
+        var random = ThreadLocalRandom.current();
+        char[] chars = new char[codeCount];
+        for (int i = 0; i < codeCount; i++) {
+            chars[i] = alphabet[random.nextInt(alphabet.length)];
+        }
+        return new String(chars);
+    }
+
+    // ===== 合成 =====
+
+    /**
+     * 逐字混合：均分宽度，字符随机上下抖动并做 ±0.3 的水平倾斜
+     */
+    private void drawText(byte[] raw, String text, ThreadLocalRandom random) {
+        int slot = width / text.length();
+        int baseline = height - height / 5;
+        int jitter = Math.max(1, height / 10);
+        for (int i = 0; i < text.length(); i++) {
+            Glyph glyph = atlas[text.charAt(i)];
+            int color = randomColor(random, 0, 160);
+            int r = color >>> 16, g = (color >>> 8) & 0xFF, b = color & 0xFF;
+            int x0 = i * slot + (slot - glyph.width()) / 2 + random.nextInt(-2, 3);
+            int y0 = baseline + glyph.top() + random.nextInt(-jitter, jitter + 1);
+            double skew = random.nextDouble(-0.3, 0.3);
+            int mid = glyph.height() / 2;
+
+            for (int gy = 0; gy < glyph.height(); gy++) {
+                int y = y0 + gy;
+                if (y < 0 || y >= height) continue;
+                int shift = (int) ((mid - gy) * skew);
+                int row = y * stride + 1;
+                int src = gy * glyph.width();
+                for (int gx = 0; gx < glyph.width(); gx++) {
+                    int alpha = glyph.coverage()[src + gx] & 0xFF;
+                    if (alpha == 0) continue;
+                    int x = x0 + gx + shift;
+                    if (x < 0 || x >= width) continue;
+                    int p = row + x * 3;
+                    raw[p] = blend(raw[p], r, alpha);
+                    raw[p + 1] = blend(raw[p + 1], g, alpha);
+                    raw[p + 2] = blend(raw[p + 2], b, alpha);
+                }
+            }
+        }
+    }
+
+    private static byte blend(byte dst, int src, int alpha) {
+        int d = dst & 0xFF;
+        return (byte) (d + ((src - d) * alpha + 127) / 255);
+    }
+
+    private void speckle(byte[] raw, int count, ThreadLocalRandom random) {
+        for (int i = 0; i < count; i++) {
+            plot(raw, random.nextInt(width), random.nextInt(height), randomColor(random, 0, 255));
+        }
+    }
+
+    /**
+     * Bresenham 直线，thickness 为纵向像素宽度
+     */
+    private void line(byte[] raw, int x0, int y0, int x1, int y1, int thickness, int color) {
+        int dx = Math.abs(x1 - x0), sx = x0 < x1 ? 1 : -1;
+        int dy = -Math.abs(y1 - y0), sy = y0 < y1 ? 1 : -1;
+        int err = dx + dy;
+        while (true) {
+            for (int t = 0; t < thickness; t++) {
+                plot(raw, x0, y0 + t - thickness / 2, color);
+            }
+            if (x0 == x1 && y0 == y1) break;
+            int e2 = 2 * err;
+            if (e2 >= dy) {
+                err += dy;
+                x0 += sx;
+            }
+            if (e2 <= dx) {
+                err += dx;
+                y0 += sy;
+            }
+        }
+    }
+
+    /**
+     * 中点画圆，只画轮廓
+     */
+    private void circle(byte[] raw, int cx, int cy, int radius, int color) {
+        int x = radius, y = 0, err = 1 - radius;
+        while (x >= y) {
+            plot(raw, cx + x, cy + y, color);
+            plot(raw, cx + y, cy + x, color);
+            plot(raw, cx - y, cy + x, color);
+            plot(raw, cx - x, cy + y, color);
+            plot(raw, cx - x, cy - y, color);
+            plot(raw, cx - y, cy - x, color);
+            plot(raw, cx + y, cy - x, color);
+            plot(raw, cx + x, cy - y, color);
+            y++;
+            if (err < 0) {
+                err += 2 * y + 1;
+            } else {
+                x--;
+                err += 2 * (y - x) + 1;
+            }
+        }
+    }
+
+    private void plot(byte[] raw, int x, int y, int color) {
+        if (x < 0 || x >= width || y < 0 || y >= height) return;
+        int p = y * stride + 1 + x * 3;
+        raw[p] = (byte) (color >>> 16);
+        raw[p + 1] = (byte) (color >>> 8);
+        raw[p + 2] = (byte) color;
+    }
+
+    /**
+     * 整图按正弦逐行水平错位，再逐列垂直错位，空出部分填白
+     */
+    private void shear(Canvas canvas, ThreadLocalRandom random) {
+        byte[] raw = canvas.raw;
+        byte[] scratch = canvas.scratch;
+        double phase = random.nextDouble(Math.PI * 2);
+        double amplitude = random.nextInt(2, 6);
+        double period = random.nextInt(height / 2 + 1, height * 2);
+        for (int y = 0; y < height; y++) {
+            int shift = (int) (amplitude * Math.sin(phase + y * Math.PI * 2 / period));
+            if (shift == 0) continue;
+            int row = y * stride + 1;
+            System.arraycopy(raw, row, scratch, 0, width * 3);
+            Arrays.fill(raw, row, row + width * 3, (byte) 0xFF);
+            int from = Math.max(0, -shift), to = Math.min(width, width - shift);
+            System.arraycopy(scratch, from * 3, raw, row + (from + shift) * 3, (to - from) * 3);
+        }
+
+        phase = random.nextDouble(Math.PI * 2);
+        amplitude = random.nextInt(1, 4);
+        period = random.nextInt(width / 2 + 1, width * 2);
+        for (int x = 0; x < width; x++) {
+            int shift = (int) (amplitude * Math.sin(phase + x * Math.PI * 2 / period));
+            if (shift == 0) continue;
+            int column = 1 + x * 3;
+            if (shift > 0) {
+                for (int y = height - 1; y >= 0; y--) {
+                    copyPixel(raw, y - shift, y, column);
+                }
+            } else {
+                for (int y = 0; y < height; y++) {
+                    copyPixel(raw, y - shift, y, column);
+                }
+            }
+        }
+    }
+
+    private void copyPixel(byte[] raw, int fromY, int toY, int column) {
+        int dst = toY * stride + column;
+        if (fromY < 0 || fromY >= height) {
+            raw[dst] = raw[dst + 1] = raw[dst + 2] = (byte) 0xFF;
+        } else {
+            System.arraycopy(raw, fromY * stride + column, raw, dst, 3);
+        }
+    }
+
+    private static int randomColor(ThreadLocalRandom random, int min, int max) {
+        return random.nextInt(min, max + 1) << 16 | random.nextInt(min, max + 1) << 8 | random.nextInt(min, max + 1);
+    }
+
+    // ===== PNG 编码 =====
+
+    /**
+     * 8 位 RGB、无隔行，扫描行已带过滤类型字节，直接 Deflate 写入单个 IDAT
+     */
+    private byte[] encode(Canvas canvas) {
+        Deflater deflater = canvas.deflater;
+        deflater.reset();
+        deflater.setInput(canvas.raw);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == canvas.deflated.length) {
+                canvas.deflated = Arrays.copyOf(canvas.deflated, length * 2);
+            }
+            length += deflater.deflate(canvas.deflated, length, canvas.deflated.length - length);
+        }
+
+        canvas.size = 0;
+        ensure(canvas, PNG_SIGNATURE.length + 25 + 12 + length + 12);
+        System.arraycopy(PNG_SIGNATURE, 0, canvas.out, 0, PNG_SIGNATURE.length);
+        canvas.size = PNG_SIGNATURE.length;
+
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8;
+        header[9] = 2;
+        chunk(canvas, "IHDR", header, header.length);
+        chunk(canvas, "IDAT", canvas.deflated, length);
+        chunk(canvas, "IEND", header, 0);
+        return Arrays.copyOf(canvas.out, canvas.size);
+    }
+
+    private static void chunk(Canvas canvas, String type, byte[] data, int length) {
+        byte[] out = canvas.out;
+        int start = canvas.size;
+        putInt(out, start, length);
+        for (int i = 0; i < 4; i++) {
+            out[start + 4 + i] = (byte) type.charAt(i);
+        }
+        System.arraycopy(data, 0, out, start + 8, length);
+        CRC32 crc = canvas.crc;
+        crc.reset();
+        crc.update(out, start + 4, length + 4);
+        putInt(out, start + 8 + length, (int) crc.getValue());
+        canvas.size = start + 12 + length;
+    }
+
+    private static void ensure(Canvas canvas, int capacity) {
+        if (canvas.out.length < capacity) {
+            canvas.out = Arrays.copyOf(canvas.out, Math.max(capacity, canvas.out.length * 2));
+        }
+    }
+
+    private static void putInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+
+    // ===== 字形图集 =====
+
+    private static Glyph rasterize(Font font, char c) {
+        int size = font.getSize() * 2;
+        var image = new BufferedImage(size, size, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setFont(font);
+            g.setColor(Color.WHITE);
+            FontMetrics metrics = g.getFontMetrics();
+            int originX = size / 4;
+            int baseline = size / 4 + metrics.getAscent();
+            g.drawString(String.valueOf(c), originX, baseline);
+
+            byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            int minX = size, minY = size, maxX = -1, maxY = -1;
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    if (pixels[y * size + x] != 0) {
+                        minX = Math.min(minX, x);
+                        maxX = Math.max(maxX, x);
+                        minY = Math.min(minY, y);
+                        maxY = Math.max(maxY, y);
+                    }
+                }
+            }
+            if (maxX < 0) {
+                return new Glyph(0, 0, 0, new byte[0]);
+            }
+
+            int w = maxX - minX + 1, h = maxY - minY + 1;
+            byte[] coverage = new byte[w * h];
+            for (int y = 0; y < h; y++) {
+                System.arraycopy(pixels, (minY + y) * size + minX, coverage, y * w, w);
+            }
+            return new Glyph(w, h, minY - baseline, coverage);
+        } finally {
+            g.dispose();
+        }
+    }
+}
@@ -1,37 +1,42 @@
 package io.github.oljc.arcoserve.modules.auth;
 
-import cn.hutool.captcha.*;
-import cn.hutool.captcha.generator.MathGenerator;
-import cn.hutool.captcha.generator.RandomGenerator;
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.StrUtil;
-import io.github.oljc.arcoserve.shared.util.RedisUtils;
+import io.github.oljc.arcoserve.shared.store.KeyValueStore;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.random.RandomGeneratorFactory;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 验证码服务
+ * <p>
+ * 默认每个验证码在存储中保存答案，校验时读取即删除。开启 {@code app.captcha.stateless} 后，
+ * 验证码 ID 即加密令牌（见 {@link CaptchaTokens}），签发不访问存储；
+ * 校验在本地解密比对，仅把令牌标识写入按过期时间分桶的已用集合，保证每个令牌只能校验一次。
+ * <p>
+ * {@link #pow()} 签发工作量证明挑战作为图片验证码的替代，{@link #verify} 按 ID 前缀识别，
+ * 以解答作为验证码提交；挑战同样经已用集合保证一次性。
  */
 @Service
 @RequiredArgsConstructor
 public final class CaptchaService implements InitializingBean, DisposableBean {
 
     private static final String PREFIX = "captcha:";
-    private static final String NUMBERS = "0123456789";
-
-    private static final java.util.random.RandomGenerator RANDOM =
-        RandomGeneratorFactory.of("Xoshiro256PlusPlus").create();
+    private static final String USED_PREFIX = "captcha:used:";
+    private static final String DATA_URI_PREFIX = "data:image/png;base64,";
 
     private static final CaptchaType[] TYPES = CaptchaType.values();
 
-    private final RedisUtils redisUtils;
+    private final KeyValueStore store;
+    private final MeterRegistry meterRegistry;
 
     @Value("${app.captcha.width:120}")
     private int width;
@@ -41,22 +46,52 @@ public final class CaptchaService implements InitializingBean, DisposableBean {
     private int codeCount;
     @Value("${app.captcha.interfere-count:6}")
     private int interfereCount;
+    @Value("${app.captcha.font:SansSerif}")
+    private String font;
+    @Value("${app.captcha.png-level:1}")
+    private int pngLevel;
     @Value("${app.captcha.expiration-seconds:60}")
     private int expire;
+    @Value("${app.captcha.stateless:false}")
+    private boolean stateless;
+    @Value("${app.captcha.secret:${app.jwt.secret}}")
+    private String secret;
+    @Value("${app.captcha.used-bucket-seconds:60}")
+    private int usedBucketSeconds;
+    @Value("${app.captcha.pow.min-difficulty:16}")
+    private int powMinDifficulty;
+    @Value("${app.captcha.pow.max-difficulty:24}")
+    private int powMaxDifficulty;
+    @Value("${app.captcha.pow.step-rate:5}")
+    private double powStepRate;
+    @Value("${app.captcha.pow.adjust-interval:10s}")
+    private Duration powAdjustInterval;
+    @Value("${app.captcha.pow.expiration-seconds:120}")
+    private int powExpire;
     @Value("${app.captcha.pool-size:512}")
     private int poolSize;
+    @Value("${app.captcha.pool-min-size:32}")
+    private int poolMinSize;
+    @Value("${app.captcha.pool-max-size:4096}")
+    private int poolMaxSize;
+    @Value("${app.captcha.pool-horizon:10s}")
+    private Duration poolHorizon;
+    @Value("${app.captcha.pool-adapt-interval:1s}")
+    private Duration poolAdaptInterval;
+    @Value("${app.captcha.pool-low-watermark:0.25}")
+    private double poolLowWatermark;
+    @Value("${app.captcha.refill-workers:2}")
+    private int refillWorkers;
+
+    private CaptchaRenderer renderer;
+    private CaptchaTokens tokens;
+    private ProofOfWork proofOfWork;
+    private CaptchaPool<PreGeneratedCaptcha> captchaPool;
 
-    private final ConcurrentLinkedQueue<PreGeneratedCaptcha> captchaPool = new ConcurrentLinkedQueue<>();
-    private final ExecutorService refillExecutor = Executors.newSingleThreadExecutor(
-        r -> {
-            Thread t = new Thread(r, "captcha-refill");
-            t.setDaemon(true);
-            return t;
-        }
-    );
-    private final AtomicBoolean isRefilling = new AtomicBoolean(false);
-
-    public record PreGeneratedCaptcha(String code, String imageBase64) {}
+    /**
+     * 预渲染的验证码，png 为包装渲染结果数组的只读堆缓冲，随池中对象一起回收
+     */
+    public record PreGeneratedCaptcha(String code, ByteBuffer png) {}
 
     public enum CaptchaType {
         LINE, CIRCLE, SHEAR, MATH, NUMBER
@@ -64,6 +99,16 @@ public final class CaptchaService implements InitializingBean, DisposableBean {
 
     public record Response(String id, String captcha, long ttl) {}
 
+    /**
+     * 二进制验证码，png 为只读视图
+     */
+    public record Image(String id, ByteBuffer png, long ttl) {}
+
+    /**
+     * 工作量证明挑战：求 solution 使 SHA-256(challenge + ":" + solution) 的前 difficulty 位为 0
+     */
+    public record Pow(String challenge, int difficulty, String algorithm, long ttl) {}
+
     public sealed interface Result permits Result.Success, Result.Failure {
         record Success(String message) implements Result {
             public Success() { this("验证成功"); }
@@ -76,95 +121,132 @@ public final class CaptchaService implements InitializingBean, DisposableBean {
 
     @Override
     public void afterPropertiesSet() {
-        refillPool();
+        if (stateless) {
+            tokens = new CaptchaTokens(secret);
+        }
+        proofOfWork = new ProofOfWork(secret, meterRegistry, powMinDifficulty, powMaxDifficulty,
+            powStepRate, powAdjustInterval.toMillis());
+        renderer = new CaptchaRenderer(width, height, codeCount, interfereCount, font, pngLevel);
+        int workers = Math.min(refillWorkers, Runtime.getRuntime().availableProcessors());
+        var sizing = new CaptchaPool.Sizing(poolSize, poolMinSize, poolMaxSize, poolLowWatermark,
+            poolHorizon, poolAdaptInterval);
+        captchaPool = new CaptchaPool<>(sizing, workers, this::preGenerate, meterRegistry);
+        captchaPool.refill();
     }
 
     @Override
     public void destroy() {
-        refillExecutor.shutdown();
-        try {
-            if (!refillExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-                refillExecutor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            refillExecutor.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
+        captchaPool.shutdown();
+        renderer.close();
     }
 
     /**
      * 生成验证码
      */
     public Response random() {
-        PreGeneratedCaptcha preGenerated = captchaPool.poll();
-        if (preGenerated != null) {
-            return buildResponse(preGenerated.code(), preGenerated.imageBase64());
-        }
+        PreGeneratedCaptcha captcha = take();
+        ByteBuffer png = captcha.png().duplicate();
+        byte[] bytes = new byte[png.remaining()];
+        png.get(bytes);
+        return new Response(issue(captcha.code()), DATA_URI_PREFIX + Base64.getEncoder().encodeToString(bytes), expire);
+    }
 
-        if (isRefilling.compareAndSet(false, true)) {
-            refillExecutor.submit(this::refillPool);
-        }
+    /**
+     * 生成验证码，返回原始 PNG，省去 Base64 与 JSON 转义
+     */
+    public Image randomImage() {
+        PreGeneratedCaptcha captcha = take();
+        return new Image(issue(captcha.code()), captcha.png().duplicate(), expire);
+    }
 
-        var captcha = createRandomCaptcha();
-        return buildResponse(captcha.getCode(), captcha.getImageBase64Data());
+    /**
+     * 签发工作量证明挑战，难度随限流拒绝速率升高
+     */
+    public Pow pow() {
+        var challenge = proofOfWork.issue(System.currentTimeMillis() / 1000 + powExpire);
+        return new Pow(challenge.challenge(), challenge.difficulty(), "SHA-256", powExpire);
     }
 
     /**
-     * 验证验证码
+     * 验证验证码，工作量证明挑战以解答作为验证码
      */
     public Result verify(String captchaId, String captchaCode) {
         if (StrUtil.hasBlank(captchaId, captchaCode)) {
             return Result.fail("参数不能为空");
         }
+        if (ProofOfWork.isChallenge(captchaId)) {
+            return verifyPow(captchaId, captchaCode.trim());
+        }
+        if (stateless) {
+            return verifyToken(captchaId, captchaCode);
+        }
 
-        var key = PREFIX + captchaId;
-        var storedCode = redisUtils.get(key);
+        // 读取即删除，同一验证码只能校验一次
+        var storedCode = store.getAndDelete(PREFIX + captchaId);
 
         if (storedCode == null) {
             return Result.fail("验证码不存在或已过期");
         }
 
-        redisUtils.delete(key);
-
         return storedCode.equalsIgnoreCase(captchaCode.trim())
             ? Result.ok()
             : Result.fail("验证码错误");
     }
 
-    private Response buildResponse(String code, String imageBase64) {
-        var captchaId = IdUtil.fastSimpleUUID();
-        redisUtils.set(PREFIX + captchaId, code, expire);
-        return new Response(captchaId, imageBase64, expire);
+    /**
+     * 无状态校验：答案错误同样消耗令牌，与存储模式的读取即删除一致，避免对同一令牌穷举答案
+     */
+    private Result verifyToken(String token, String captchaCode) {
+        var opened = tokens.open(token, captchaCode);
+        if (opened == null || !markUsed(opened.id(), opened.expiresAt())) {
+            return Result.fail("验证码不存在或已过期");
+        }
+        return opened.answerMatches() ? Result.ok() : Result.fail("验证码错误");
+    }
+
+    /**
+     * 工作量证明校验：一次 HMAC 确认挑战，一次 SHA-256 确认工作量，仅解答正确时消耗挑战
+     */
+    private Result verifyPow(String challenge, String solution) {
+        var checked = proofOfWork.check(challenge, solution);
+        if (checked == null || checked.expiresAt() < System.currentTimeMillis() / 1000) {
+            return Result.fail("验证码不存在或已过期");
+        }
+        if (!checked.solved()) {
+            return Result.fail("验证码错误");
+        }
+        return markUsed(checked.id(), checked.expiresAt()) ? Result.ok() : Result.fail("验证码不存在或已过期");
     }
 
-    private void refillPool() {
-        try {
-            while (captchaPool.size() < poolSize) {
-                var captcha = createRandomCaptcha();
-                var preGenerated = new PreGeneratedCaptcha(captcha.getCode(), captcha.getImageBase64Data());
-                captchaPool.offer(preGenerated);
-            }
-        } finally {
-            isRefilling.set(false);
+    /**
+     * 记录已用标识，已存在或已过期返回 false；按过期时间分桶，桶内最晚的标识过期后整个集合随之过期
+     */
+    private boolean markUsed(String id, long expiresAt) {
+        long now = System.currentTimeMillis() / 1000;
+        if (expiresAt < now) return false;
+
+        long bucket = expiresAt / usedBucketSeconds;
+        String usedKey = USED_PREFIX + bucket;
+        return store.saddExpire(usedKey, (bucket + 1) * usedBucketSeconds - now + 1, id) > 0;
+    }
+
+    private PreGeneratedCaptcha take() {
+        PreGeneratedCaptcha captcha = captchaPool.poll();
+        return captcha != null ? captcha : captchaPool.render();
+    }
+
+    private String issue(String code) {
+        if (stateless) {
+            return tokens.issue(code, System.currentTimeMillis() / 1000 + expire);
         }
+        var captchaId = IdUtil.fastSimpleUUID();
+        store.set(PREFIX + captchaId, code, expire);
+        return captchaId;
     }
 
-    private AbstractCaptcha createRandomCaptcha() {
-        var type = TYPES[RANDOM.nextInt(TYPES.length)];
-        return switch (type) {
-            case LINE -> CaptchaUtil.createLineCaptcha(width, height, codeCount, interfereCount);
-            case CIRCLE -> CaptchaUtil.createCircleCaptcha(width, height, codeCount, interfereCount);
-            case SHEAR -> CaptchaUtil.createShearCaptcha(width, height, codeCount, 4);
-            case MATH -> {
-                var captcha = CaptchaUtil.createLineCaptcha(width, height);
-                captcha.setGenerator(new MathGenerator(1));
-                yield captcha;
-            }
-            case NUMBER -> {
-                var captcha = CaptchaUtil.createLineCaptcha(width, height, codeCount, interfereCount);
-                captcha.setGenerator(new RandomGenerator(NUMBERS, codeCount));
-                yield captcha;
-            }
-        };
+    private PreGeneratedCaptcha preGenerate() {
+        var captcha = renderer.render(TYPES[ThreadLocalRandom.current().nextInt(TYPES.length)]);
+        // 每张图单独申请直接内存要等 GC 触发 Cleaner 才释放，池深变化时堆外占用不可控；渲染结果本身已是独立数组，直接包装
+        return new PreGeneratedCaptcha(captcha.answer(), ByteBuffer.wrap(captcha.png()).asReadOnlyBuffer());
     }
 }
@@ -0,0 +1,121 @@
+package io.github.oljc.arcoserve.modules.auth;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * 无状态验证码令牌
+ * <p>
+ * 令牌 = Base64URL(nonce[12] || AES-256-GCM(expiry[8] || SHA-256(nonce || 答案)[16]) || tag[16])。
+ * 答案哈希以 nonce 为盐，只存在于密文中；GCM 标签保证令牌未被篡改，校验全程本地完成。
+ * nonce 同时作为令牌的唯一标识，供调用方做一次性使用控制。
+ */
+final class CaptchaTokens {
+
+    private static final int NONCE_LENGTH = 12;
+    private static final int HASH_LENGTH = 16;
+    private static final int TAG_BITS = 128;
+    private static final int TOKEN_LENGTH = NONCE_LENGTH + 8 + HASH_LENGTH + TAG_BITS / 8;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * 解开的令牌
+     *
+     * @param id            令牌唯一标识（nonce）
+     * @param expiresAt     过期时间，epoch 秒
+     * @param answerMatches 答案是否正确
+     */
+    record Opened(String id, long expiresAt, boolean answerMatches) {}
+
+    /**
+     * @param secret 共享密钥，经 SHA-256 派生出 AES 密钥，各节点配置一致即可互相校验
+     */
+    CaptchaTokens(String secret) {
+        this.key = new SecretKeySpec(sha256(("captcha-token:" + secret).getBytes(StandardCharsets.UTF_8)), "AES");
+    }
+
+    /**
+     * 签发令牌
+     */
+    String issue(String answer, long expiresAt) {
+        byte[] nonce = new byte[NONCE_LENGTH];
+        random.nextBytes(nonce);
+
+        byte[] plain = ByteBuffer.allocate(8 + HASH_LENGTH)
+            .putLong(expiresAt)
+            .put(answerHash(nonce, answer))
+            .array();
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, nonce));
+            byte[] token = Arrays.copyOf(nonce, TOKEN_LENGTH);
+            cipher.doFinal(plain, 0, plain.length, token, NONCE_LENGTH);
+            return ENCODER.encodeToString(token);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("验证码令牌加密失败", e);
+        }
+    }
+
+    /**
+     * 解开并校验答案，令牌格式错误或被篡改时返回 null
+     */
+    Opened open(String token, String answer) {
+        byte[] raw;
+        try {
+            raw = DECODER.decode(token);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (raw.length != TOKEN_LENGTH) return null;
+
+        byte[] plain;
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, raw, 0, NONCE_LENGTH));
+            plain = cipher.doFinal(raw, NONCE_LENGTH, raw.length - NONCE_LENGTH);
+        } catch (GeneralSecurityException e) {
+            return null;
+        }
+
+        byte[] nonce = Arrays.copyOf(raw, NONCE_LENGTH);
+        var buffer = ByteBuffer.wrap(plain);
+        long expiresAt = buffer.getLong();
+        byte[] expected = new byte[HASH_LENGTH];
+        buffer.get(expected);
+        boolean matches = MessageDigest.isEqual(expected, answerHash(nonce, answer));
+        return new Opened(ENCODER.encodeToString(nonce), expiresAt, matches);
+    }
+
+    /**
+     * 答案忽略大小写与首尾空白
+     */
+    private static byte[] answerHash(byte[] nonce, String answer) {
+        byte[] normalized = answer.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        byte[] input = Arrays.copyOf(nonce, nonce.length + normalized.length);
+        System.arraycopy(normalized, 0, input, nonce.length, normalized.length);
+        return Arrays.copyOf(sha256(input), HASH_LENGTH);
+    }
+
+    private static byte[] sha256(byte[] input) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(input);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package io.github.oljc.arcoserve.modules.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 工作量证明挑战（hashcash）
+ * <p>
+ * 挑战 = {@code pow.} + Base64URL(nonce[12] || expiry[8] || difficulty[1]) + {@code .} + Base64URL(HMAC-SHA256[16])，
+ * 客户端在后台寻找 solution，使 SHA-256(挑战 + ":" + solution) 的前 difficulty 位为 0。
+ * 服务端先用 HMAC 确认挑战出自本服务且未被改动难度，再做一次 SHA-256 校验工作量，不访问存储；
+ * 一次性使用由调用方以 nonce 控制。
+ * <p>
+ * 难度随滥用程度调整：周期性读取 {@code ratelimit.decisions{outcome=rejected}} 的增量，
+ * 拒绝速率（EWMA）每达到 stepRate 的一倍，难度加 1 位（期望计算量翻倍），限制在 [min, max] 内。
+ */
+final class ProofOfWork {
+
+    static final String PREFIX = "pow.";
+    private static final int NONCE_LENGTH = 12;
+    private static final int PAYLOAD_LENGTH = NONCE_LENGTH + 8 + 1;
+    private static final int MAC_LENGTH = 16;
+    private static final int MAX_SOLUTION_LENGTH = 64;
+    private static final double ALPHA = 0.3;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+    private final MeterRegistry meterRegistry;
+    private final int minDifficulty;
+    private final int maxDifficulty;
+    private final double stepRate;
+    private final long intervalMillis;
+
+    private final AtomicLong lastUpdate = new AtomicLong(System.currentTimeMillis());
+    private double lastRejections;
+    private double rejectionRate;
+    private volatile int difficulty;
+
+    private final Counter solved;
+    private final Counter failed;
+
+    /**
+     * 挑战
+     *
+     * @param challenge  挑战串
+     * @param difficulty 要求的前导零位数
+     * @param expiresAt  过期时间，epoch 秒
+     */
+    record Challenge(String challenge, int difficulty, long expiresAt) {}
+
+    /**
+     * 校验结果
+     *
+     * @param id        挑战唯一标识（nonce）
+     * @param expiresAt 过期时间，epoch 秒
+     * @param solved    工作量是否满足
+     */
+    record Checked(String id, long expiresAt, boolean solved) {}
+
+    ProofOfWork(String secret, MeterRegistry meterRegistry, int minDifficulty, int maxDifficulty,
+                double stepRate, long intervalMillis) {
+        this.key = new SecretKeySpec(sha256(("captcha-pow:" + secret).getBytes(StandardCharsets.UTF_8)), "HmacSHA256");
+        this.meterRegistry = meterRegistry;
+        this.minDifficulty = minDifficulty;
+        this.maxDifficulty = Math.max(minDifficulty, maxDifficulty);
+        this.stepRate = stepRate;
+        this.intervalMillis = intervalMillis;
+        this.difficulty = minDifficulty;
+        this.lastRejections = rejections();
+
+        Gauge.builder("captcha.pow.difficulty", this, p -> p.difficulty)
+            .description("工作量证明当前难度（前导零位数）")
+            .register(meterRegistry);
+        this.solved = Counter.builder("captcha.pow.verifications").tag("result", "solved")
+            .description("工作量证明校验").register(meterRegistry);
+        this.failed = Counter.builder("captcha.pow.verifications").tag("result", "failed")
+            .description("工作量证明校验").register(meterRegistry);
+    }
+
+    static boolean isChallenge(String id) {
+        return id.startsWith(PREFIX);
+    }
+
+    /**
+     * 按当前难度签发挑战
+     */
+    Challenge issue(long expiresAt) {
+        adjust();
+        int bits = difficulty;
+        byte[] payload = new byte[PAYLOAD_LENGTH];
+        random.nextBytes(payload);
+        ByteBuffer.wrap(payload, NONCE_LENGTH, 9).putLong(expiresAt).put((byte) bits);
+        String challenge = PREFIX + ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(mac(payload));
+        return new Challenge(challenge, bits, expiresAt);
+    }
+
+    /**
+     * 校验挑战与解答，挑战被篡改或格式错误时返回 null
+     */
+    Checked check(String challenge, String solution) {
+        if (!isChallenge(challenge) || solution.length() > MAX_SOLUTION_LENGTH) return null;
+        int dot = challenge.indexOf('.', PREFIX.length());
+        if (dot < 0) return null;
+
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(challenge.substring(PREFIX.length(), dot));
+            signature = DECODER.decode(challenge.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (payload.length != PAYLOAD_LENGTH || !MessageDigest.isEqual(signature, mac(payload))) return null;
+
+        var buffer = ByteBuffer.wrap(payload, NONCE_LENGTH, 9);
+        long expiresAt = buffer.getLong();
+        int bits = buffer.get();
+        byte[] digest = sha256((challenge + ":" + solution).getBytes(StandardCharsets.UTF_8));
+        boolean ok = leadingZeroBits(digest) >= bits;
+        (ok ? solved : failed).increment();
+        return new Checked(ENCODER.encodeToString(Arrays.copyOf(payload, NONCE_LENGTH)), expiresAt, ok);
+    }
+
+    /**
+     * 每个周期由首个请求按限流拒绝速率重算难度
+     */
+    private void adjust() {
+        long now = System.currentTimeMillis();
+        long last = lastUpdate.get();
+        if (now - last < intervalMillis || !lastUpdate.compareAndSet(last, now)) return;
+
+        synchronized (this) {
+            double total = rejections();
+            double rate = Math.max(0, total - lastRejections) * 1000 / (now - last);
+            lastRejections = total;
+            rejectionRate += ALPHA * (rate - rejectionRate);
+
+            int extra = rejectionRate < stepRate ? 0 : 1 + (int) (Math.log(rejectionRate / stepRate) / Math.log(2));
+            difficulty = Math.min(maxDifficulty, minDifficulty + extra);
+        }
+    }
+
+    private double rejections() {
+        return meterRegistry.find("ratelimit.decisions")
+            .tag("outcome", "rejected")
+            .counters()
+            .stream()
+            .mapToDouble(Counter::count)
+            .sum();
+    }
+
+    private byte[] mac(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return Arrays.copyOf(mac.doFinal(payload), MAC_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("工作量证明签名失败", e);
+        }
+    }
+
+    static int leadingZeroBits(byte[] digest) {
+        int bits = 0;
+        for (byte b : digest) {
+            if (b == 0) {
+                bits += 8;
+                continue;
+            }
+            return bits + Integer.numberOfLeadingZeros(b & 0xFF) - 24;
+        }
+        return bits;
+    }
+
+    private static byte[] sha256(byte[] input) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(input);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -15,24 +15,33 @@ import java.util.UUID;
  * 用户实体类
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.USER_ID_UNIQUE, columnNames = "user_id"),
+        @UniqueConstraint(name = User.USERNAME_UNIQUE, columnNames = "username"),
+        @UniqueConstraint(name = User.EMAIL_UNIQUE, columnNames = "email")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
 
+    // 唯一约束名与 db/schema/user.sql 中 PostgreSQL 自动生成的名称一致
+    public static final String USER_ID_UNIQUE = "users_user_id_key";
+    public static final String USERNAME_UNIQUE = "users_username_key";
+    public static final String EMAIL_UNIQUE = "users_email_key";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @Column(name = "user_id", nullable = false, unique = true)
+    @Column(name = "user_id", nullable = false)
     private Long userId;
 
-    @Column(name = "username", nullable = false, unique = true, length = 32)
+    @Column(name = "username", nullable = false, length = 32)
     private String username;
 
-    @Column(name = "email", nullable = false, unique = true)
+    @Column(name = "email", nullable = false)
     private String email;
 
     @Column(name = "password_hash", nullable = false)
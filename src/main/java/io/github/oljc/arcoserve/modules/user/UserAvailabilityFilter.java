@@ -0,0 +1,290 @@
+package io.github.oljc.arcoserve.modules.user;
+
+import io.github.oljc.arcoserve.shared.exception.BusinessException;
+import io.github.oljc.arcoserve.shared.exception.Code;
+import io.github.oljc.arcoserve.shared.store.BloomFilter;
+import io.github.oljc.arcoserve.shared.store.KeyValueStore;
+import io.github.oljc.arcoserve.shared.util.RedisKeyLayoutProvider;
+import io.github.oljc.arcoserve.shared.util.RedisKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 用户名/邮箱占用布隆过滤器
+ * <p>
+ * 过滤器位图存放在 {@link KeyValueStore} 中（Redis 后端时供集群共享），本地保留镜像。判定“一定不存在”时无需访问数据库；
+ * 判定“可能存在”或过滤器不可用时回退数据库查询。布隆过滤器不支持删除，删除与改名留下的旧值只会造成误判回退，不影响正确性。
+ * 未能在启动时就绪的节点按 recheckInterval 重新检查，直到其他节点重建完成或由本节点接手重建。
+ */
+@Slf4j
+@Component
+public class UserAvailabilityFilter implements RedisKeyLayoutProvider, InitializingBean, DisposableBean {
+
+    // 同一哈希标签，临时键 RENAME 覆盖正式键在集群下同样可用
+    private static final String USERNAME_KEY = RedisKeys.userBloom("username");
+    private static final String EMAIL_KEY = RedisKeys.userBloom("email");
+    private static final String REBUILD_LOCK_KEY = RedisKeys.userBloom("rebuild");
+    private static final int REBUILD_CHUNK = 5000;
+
+    private final KeyValueStore store;
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double fpp;
+    private final Duration recheckInterval;
+    private final Duration catchUpDelay;
+
+    private final BloomFilter usernames;
+    private final BloomFilter emails;
+
+    private volatile boolean ready;
+    private ScheduledExecutorService scheduler;
+
+    public UserAvailabilityFilter(
+            KeyValueStore store,
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.user.bloom.enabled:true}") boolean enabled,
+            @Value("${app.user.bloom.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${app.user.bloom.fpp:0.001}") double fpp,
+            @Value("${app.user.bloom.recheck-interval:10s}") Duration recheckInterval,
+            @Value("${app.user.bloom.catch-up-delay:1m}") Duration catchUpDelay
+    ) {
+        this.store = store;
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.recheckInterval = recheckInterval;
+        this.catchUpDelay = catchUpDelay;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.usernames = BloomFilter.create(store, USERNAME_KEY, expectedInsertions, fpp, true);
+        this.emails = BloomFilter.create(store, EMAIL_KEY, expectedInsertions, fpp, true);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) return;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "user-bloom-rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 启动后重建过滤器
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (!enabled) return;
+
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("用户布隆过滤器重建失败，回退数据库查询: {}", e.getMessage());
+        }
+        if (!ready) {
+            schedule(this::recheck, recheckInterval);
+        }
+    }
+
+    /**
+     * 用户名是否可能已被占用
+     *
+     * @return false 表示一定未被占用
+     */
+    public boolean mightContainUsername(String username) {
+        return mightContain(usernames, username);
+    }
+
+    /**
+     * 邮箱是否可能已被占用
+     *
+     * @return false 表示一定未被占用
+     */
+    public boolean mightContainEmail(String email) {
+        return mightContain(emails, email);
+    }
+
+    /**
+     * 记录新占用的用户名和邮箱，用于创建与改名，需在写库的事务内调用。
+     * 写入失败时抛出异常使事务回滚：只在本地停用无法阻止其他节点把数据库中已有的值判为一定不存在
+     */
+    public void put(String username, String email) {
+        if (!enabled) return;
+
+        try {
+            if (username != null) usernames.add(username);
+            if (email != null) emails.add(email);
+        } catch (Exception e) {
+            log.warn("用户布隆过滤器写入失败，回滚本次写入: {}", e.getMessage());
+            throw new BusinessException(Code.SYSTEM_ERROR, e);
+        }
+    }
+
+    /**
+     * 从数据库全量重建：流式扫描写入临时键后原子替换，期间的新增通过二次补扫补齐。
+     * 替换前写入旧键、替换后才提交的事务不在第一次补扫结果中，释放锁后延迟 catchUpDelay 再补扫一次。
+     * 集群内同一时间只有一个节点重建，其他节点直接使用已有位图，尚无位图时等待重新检查。
+     */
+    public void rebuild() {
+        // 容器内各实例的 PID 可能相同，使用随机标识
+        var owner = UUID.randomUUID().toString();
+        if (!store.setNx(REBUILD_LOCK_KEY, owner, 600)) {
+            ready = store.exists(USERNAME_KEY) && store.exists(EMAIL_KEY);
+            log.info("用户布隆过滤器正由其他节点重建，使用现有位图: ready={}", ready);
+            return;
+        }
+
+        var startedAt = LocalDateTime.now();
+        try {
+            var tmpUsernames = BloomFilter.create(store, rebuildKey(USERNAME_KEY), expectedInsertions, fpp, false);
+            var tmpEmails = BloomFilter.create(store, rebuildKey(EMAIL_KEY), expectedInsertions, fpp, false);
+            store.delete(tmpUsernames.key(), tmpEmails.key());
+
+            long count = scan(userRepository::streamActiveIdentities, tmpUsernames, tmpEmails);
+            if (count == 0) {
+                // 空表时位图不存在，写入一个占位元素以便 RENAME
+                tmpUsernames.add("");
+                tmpEmails.add("");
+            }
+            store.rename(tmpUsernames.key(), USERNAME_KEY);
+            store.rename(tmpEmails.key(), EMAIL_KEY);
+            usernames.clearLocal();
+            emails.clearLocal();
+
+            // 补扫重建期间的新增与改名
+            scan(() -> userRepository.streamIdentitiesUpdatedSince(startedAt.minusMinutes(1)), usernames, emails);
+            ready = true;
+            log.info("用户布隆过滤器重建完成: users={}, bits={}, hashes={}",
+                    count, usernames.bitSize(), usernames.hashCount());
+        } finally {
+            store.deleteIfEquals(REBUILD_LOCK_KEY, owner);
+        }
+        schedule(() -> catchUp(startedAt), catchUpDelay);
+    }
+
+    /**
+     * 未就绪时重新检查：位图已存在即可使用；锁已释放而位图仍不存在，说明重建节点失败，由本节点接手
+     */
+    private void recheck() {
+        try {
+            if (store.exists(USERNAME_KEY) && store.exists(EMAIL_KEY)) {
+                ready = true;
+                log.info("用户布隆过滤器已由其他节点重建，开始使用");
+            } else if (!store.exists(REBUILD_LOCK_KEY)) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.warn("用户布隆过滤器检查失败，回退数据库查询: {}", e.getMessage());
+        }
+        if (!ready) {
+            schedule(this::recheck, recheckInterval);
+        }
+    }
+
+    /**
+     * 延迟补扫，与重建内的补扫范围相同
+     */
+    private void catchUp(LocalDateTime startedAt) {
+        try {
+            scan(() -> userRepository.streamIdentitiesUpdatedSince(startedAt.minusMinutes(1)), usernames, emails);
+        } catch (Exception e) {
+            log.warn("用户布隆过滤器补扫失败: {}", e.getMessage());
+        }
+    }
+
+    private void schedule(Runnable task, Duration delay) {
+        if (scheduler == null || scheduler.isShutdown()) return;
+        scheduler.schedule(task, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 重建的临时键，RENAME 覆盖正式键
+     */
+    private static String rebuildKey(String key) {
+        return RedisKeys.sibling(key, "rebuild");
+    }
+
+    @Override
+    public Map<String, List<String>> keyLayouts(String name) {
+        // 键固定，与示例名称无关
+        return Map.of(
+                "userBloom.renameUsername", List.of(rebuildKey(USERNAME_KEY), USERNAME_KEY),
+                "userBloom.renameEmail", List.of(rebuildKey(EMAIL_KEY), EMAIL_KEY));
+    }
+
+    private long scan(Supplier<Stream<UserRepository.Identity>> query,
+                      BloomFilter usernameFilter, BloomFilter emailFilter) {
+        Long total = readOnlyTx.execute(status -> {
+            var names = new ArrayList<String>(REBUILD_CHUNK);
+            var mails = new ArrayList<String>(REBUILD_CHUNK);
+            long count = 0;
+
+            try (Stream<UserRepository.Identity> stream = query.get()) {
+                var it = stream.iterator();
+                while (it.hasNext()) {
+                    var identity = it.next();
+                    names.add(identity.getUsername());
+                    if (identity.getEmail() != null) mails.add(identity.getEmail());
+                    count++;
+                    if (names.size() >= REBUILD_CHUNK) {
+                        flush(names, usernameFilter);
+                        flush(mails, emailFilter);
+                    }
+                }
+            }
+            flush(names, usernameFilter);
+            flush(mails, emailFilter);
+            return count;
+        });
+        return total != null ? total : 0;
+    }
+
+    private static void flush(List<String> values, BloomFilter filter) {
+        if (values.isEmpty()) return;
+        filter.addAll(values);
+        values.clear();
+    }
+
+    private boolean mightContain(BloomFilter filter, String value) {
+        if (!enabled || !ready || value == null) return true;
+
+        try {
+            return filter.mightContain(value);
+        } catch (Exception e) {
+            log.warn("用户布隆过滤器查询失败，回退数据库查询: {}", e.getMessage());
+            return true;
+        }
+    }
+}
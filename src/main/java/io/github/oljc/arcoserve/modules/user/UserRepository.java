@@ -1,14 +1,19 @@
 package io.github.oljc.arcoserve.modules.user;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
@@ -96,4 +101,39 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      */
     @Query("SELECT u FROM User u WHERE u.emailVerified = :emailVerified AND u.deletedAt IS NULL")
     Page<User> findByEmailVerifiedAndNotDeleted(@Param("emailVerified") Boolean emailVerified, Pageable pageable);
+
+    /**
+     * 流式读取所有未删除用户的用户名和邮箱，需在事务内消费
+     *
+     * @return 用户名与邮箱
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.username AS username, u.email AS email FROM User u WHERE u.deletedAt IS NULL")
+    Stream<Identity> streamActiveIdentities();
+
+    /**
+     * 流式读取指定时间之后变更过的未删除用户的用户名和邮箱，需在事务内消费
+     *
+     * @param since 起始时间
+     * @return 用户名与邮箱
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.username AS username, u.email AS email FROM User u "
+            + "WHERE u.updatedAt >= :since AND u.deletedAt IS NULL")
+    Stream<Identity> streamIdentitiesUpdatedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * 用户名与邮箱投影
+     */
+    interface Identity {
+        String getUsername();
+
+        String getEmail();
+    }
 }
@@ -4,6 +4,8 @@ import io.github.oljc.arcoserve.shared.exception.BusinessException;
 import io.github.oljc.arcoserve.shared.exception.Code;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -12,6 +14,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 import java.util.UUID;
@@ -26,9 +30,16 @@ import java.util.UUID;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final UserAvailabilityFilter availabilityFilter;
     private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(12);
     private final Random random = new Random();
 
+    private static final Map<String, Code> UNIQUE_CONSTRAINTS = Map.of(
+            User.USERNAME_UNIQUE, Code.USER_NAME_EXISTS,
+            User.EMAIL_UNIQUE, Code.USER_EMAIL_EXISTS,
+            User.USER_ID_UNIQUE, Code.DATA_EXISTS
+    );
+
     /**
      * 创建新用户
      *
@@ -39,11 +50,11 @@ public class UserService {
         log.info("Creating user with username: {}", createRequest.username());
 
         // 验证用户名和邮箱是否已存在
-        if (userRepository.existsByUsernameAndNotDeleted(createRequest.username())) {
+        if (existsByUsername(createRequest.username())) {
             throw new BusinessException(Code.USER_NAME_EXISTS);
         }
 
-        if (userRepository.existsByEmailAndNotDeleted(createRequest.email())) {
+        if (existsByEmail(createRequest.email())) {
             throw new BusinessException(Code.USER_EMAIL_EXISTS);
         }
 
@@ -61,7 +72,15 @@ public class UserService {
                 .emailVerified(false)
                 .build();
 
-        User savedUser = userRepository.save(user);
+        // 过滤器跳过了数据库预检时，并发注册由唯一约束兜底
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e);
+        }
+        // 过滤器写入失败时抛出异常回滚事务
+        availabilityFilter.put(savedUser.getUsername(), savedUser.getEmail());
         log.info("User created successfully with ID: {}", savedUser.getId());
 
         return savedUser;
@@ -131,7 +150,7 @@ public class UserService {
 
         // 更新用户名
         if (updateRequest.username() != null && !updateRequest.username().equals(user.getUsername())) {
-            if (userRepository.existsByUsernameAndNotDeleted(updateRequest.username())) {
+            if (existsByUsername(updateRequest.username())) {
                 throw new BusinessException(Code.USER_NAME_EXISTS);
             }
             user.setUsername(updateRequest.username());
@@ -139,7 +158,7 @@ public class UserService {
 
         // 更新邮箱
         if (updateRequest.email() != null && !updateRequest.email().equals(user.getEmail())) {
-            if (userRepository.existsByEmailAndNotDeleted(updateRequest.email())) {
+            if (existsByEmail(updateRequest.email())) {
                 throw new BusinessException(Code.USER_EMAIL_EXISTS);
             }
             user.setEmail(updateRequest.email());
@@ -161,7 +180,13 @@ public class UserService {
             user.setEmailVerified(updateRequest.emailVerified());
         }
 
-        User updatedUser = userRepository.save(user);
+        User updatedUser;
+        try {
+            updatedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e);
+        }
+        availabilityFilter.put(updateRequest.username(), updateRequest.email());
         log.info("User updated successfully with ID: {}", updatedUser.getId());
 
         return updatedUser;
@@ -318,25 +343,27 @@ public class UserService {
     }
 
     /**
-     * 检查用户名是否存在
+     * 检查用户名是否存在，布隆过滤器判定一定不存在时不查询数据库
      *
      * @param username 用户名
      * @return 是否存在
      */
     @Transactional(readOnly = true)
     public boolean existsByUsername(String username) {
-        return userRepository.existsByUsernameAndNotDeleted(username);
+        return availabilityFilter.mightContainUsername(username)
+                && userRepository.existsByUsernameAndNotDeleted(username);
     }
 
     /**
-     * 检查邮箱是否存在
+     * 检查邮箱是否存在，布隆过滤器判定一定不存在时不查询数据库
      *
      * @param email 邮箱地址
      * @return 是否存在
      */
     @Transactional(readOnly = true)
     public boolean existsByEmail(String email) {
-        return userRepository.existsByEmailAndNotDeleted(email);
+        return availabilityFilter.mightContainEmail(email)
+                && userRepository.existsByEmailAndNotDeleted(email);
     }
 
     /**
@@ -364,4 +391,20 @@ public class UserService {
 
         return userId;
     }
+
+    /**
+     * 按唯一约束名转换重复数据错误，其他完整性错误（如格式检查约束）原样抛出
+     *
+     * @param e 数据完整性异常
+     * @return 待抛出的异常
+     */
+    private static RuntimeException translate(DataIntegrityViolationException e) {
+        if (e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+            Code code = UNIQUE_CONSTRAINTS.get(violation.getConstraintName().toLowerCase(Locale.ROOT));
+            if (code != null) {
+                return new BusinessException(code, e);
+            }
+        }
+        return e;
+    }
 }
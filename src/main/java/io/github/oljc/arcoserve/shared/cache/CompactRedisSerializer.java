@@ -0,0 +1,180 @@
+package io.github.oljc.arcoserve.shared.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 缓存值紧凑编码
+ * <p>
+ * 格式：{@code [0xAC][版本][标志][原始长度(4字节, 仅压缩时)][Smile 正文]}。
+ * 正文为带类型信息的 Smile 二进制 JSON，开启共享字符串以复用重复出现的属性名与类名；
+ * 超过阈值且压缩后更小时使用 Deflate。
+ * <p>
+ * 滚动升级：读取时首字节不是 0xAC 的值按旧版 JSON 解析；版本号高于当前实现时视为未命中，
+ * 由调用方重新加载写入。默认以 {@code app.cache.codec=json} 写入，全部节点具备读取能力后再切换为 smile。
+ * JSON 与 Smile 使用相同的映射配置（含 JavaTimeModule），LocalDateTime 等时间类型在两种格式下均可编码。
+ */
+public final class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xAC;
+    static final byte VERSION = 1;
+    static final byte FLAG_DEFLATE = 1;
+
+    private static final int HEADER_SIZE = 3;
+    private static final byte[] EMPTY = new byte[0];
+
+    /**
+     * 写入格式
+     */
+    public enum Codec { SMILE, JSON }
+
+    private final Codec codec;
+    private final int compressThreshold;
+    private final ObjectMapper mapper = createMapper();
+    private final GenericJackson2JsonRedisSerializer legacy = new GenericJackson2JsonRedisSerializer(createJsonMapper());
+
+    /**
+     * @param codec             写入格式，读取始终兼容两种格式
+     * @param compressThreshold 正文超过该字节数时尝试压缩，小于等于 0 表示不压缩
+     */
+    public CompactRedisSerializer(Codec codec, int compressThreshold) {
+        this.codec = codec;
+        this.compressThreshold = compressThreshold;
+    }
+
+    /**
+     * Smile 映射器，类型信息与 GenericJackson2JsonRedisSerializer 一致，记录类同样写入类型
+     */
+    static ObjectMapper createMapper() {
+        return configure(SmileFactory.builder()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+            .build());
+    }
+
+    /**
+     * JSON 映射器，与 Smile 映射器配置相同，输出兼容 GenericJackson2JsonRedisSerializer 的 {@code @class} 格式
+     */
+    static ObjectMapper createJsonMapper() {
+        return configure(new JsonFactory());
+    }
+
+    @SuppressWarnings("deprecation")
+    private static ObjectMapper configure(JsonFactory factory) {
+        var mapper = new ObjectMapper(factory)
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        mapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance,
+            ObjectMapper.DefaultTyping.EVERYTHING, JsonTypeInfo.As.PROPERTY);
+        GenericJackson2JsonRedisSerializer.registerNullValueSerializer(mapper, null);
+        return mapper;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) return EMPTY;
+        if (codec == Codec.JSON) return legacy.serialize(value);
+
+        byte[] body;
+        try {
+            body = mapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new SerializationException("缓存值编码失败: " + e.getMessage(), e);
+        }
+
+        if (compressThreshold > 0 && body.length > compressThreshold) {
+            byte[] compressed = deflate(body);
+            if (compressed.length + 4 < body.length) {
+                byte[] out = new byte[HEADER_SIZE + 4 + compressed.length];
+                writeHeader(out, FLAG_DEFLATE);
+                out[3] = (byte) (body.length >>> 24);
+                out[4] = (byte) (body.length >>> 16);
+                out[5] = (byte) (body.length >>> 8);
+                out[6] = (byte) body.length;
+                System.arraycopy(compressed, 0, out, HEADER_SIZE + 4, compressed.length);
+                return out;
+            }
+        }
+
+        byte[] out = new byte[HEADER_SIZE + body.length];
+        writeHeader(out, (byte) 0);
+        System.arraycopy(body, 0, out, HEADER_SIZE, body.length);
+        return out;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) return null;
+        if (bytes[0] != MAGIC) return legacy.deserialize(bytes);
+        // 新版本节点写入的值，当前节点无法解析，按未命中处理
+        if (bytes.length < HEADER_SIZE || bytes[1] > VERSION) return null;
+
+        try {
+            if ((bytes[2] & FLAG_DEFLATE) != 0) {
+                int length = (bytes[3] & 0xff) << 24 | (bytes[4] & 0xff) << 16 | (bytes[5] & 0xff) << 8 | (bytes[6] & 0xff);
+                byte[] body = inflate(bytes, HEADER_SIZE + 4, length);
+                return mapper.readValue(body, Object.class);
+            }
+            return mapper.readValue(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE, Object.class);
+        } catch (Exception e) {
+            throw new SerializationException("缓存值解码失败: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeHeader(byte[] out, byte flags) {
+        out[0] = MAGIC;
+        out[1] = VERSION;
+        out[2] = flags;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        var deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            var out = new ByteArrayOutputStream(input.length / 2);
+            byte[] buffer = new byte[Math.min(input.length, 8192)];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input, int offset, int length) throws DataFormatException {
+        var inflater = new Inflater(true);
+        try {
+            inflater.setInput(input, offset, input.length - offset);
+            byte[] out = new byte[length];
+            int n = 0;
+            while (n < length && !inflater.finished()) {
+                int read = inflater.inflate(out, n, length - n);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                n += read;
+            }
+            if (n != length) {
+                throw new DataFormatException("解压长度不匹配: " + n + " != " + length);
+            }
+            return out;
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.oljc.arcoserve.shared.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.oljc.arcoserve.shared.store.KeyValueStore;
+import io.github.oljc.arcoserve.shared.util.JsonUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 二级缓存管理器
+ * <p>
+ * 包装远端缓存管理器（通常为 RedisCacheManager），为每个缓存名创建带容量与写入过期的 Caffeine 一级缓存。
+ * 写入与删除经 {@link KeyValueStore#publish} 在 {@code cache:invalidate} 频道广播，其他节点收到后删除本地条目；
+ * 消息丢失时本地条目最迟在 localTtl 后过期，因此 localTtl 即跨节点最大不一致时间。
+ * 指标：cache.layer.gets（标签 cache、layer=l1|l2、result=hit|miss）与 cache.layer.size。
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, InitializingBean, DisposableBean {
+
+    static final String INVALIDATION_CHANNEL = "cache:invalidate";
+
+    private final CacheManager remote;
+    private final KeyValueStore store;
+    private final MeterRegistry meterRegistry;
+    private final TwoLevelCacheProperties properties;
+    private final boolean transactionAware;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, Cache> decorated = new ConcurrentHashMap<>();
+    private final Consumer<String> invalidationListener = this::onInvalidation;
+
+    /**
+     * 失效消息，key 为空表示清空整个缓存
+     */
+    record Invalidation(String node, String cache, String key) {}
+
+    /**
+     * 单个缓存的分层命中统计
+     */
+    public record Stats(long localHits, long localMisses, long localSize, long remoteHits, long remoteMisses) {}
+
+    public TwoLevelCacheManager(CacheManager remote, KeyValueStore store, MeterRegistry meterRegistry,
+                                TwoLevelCacheProperties properties, boolean transactionAware) {
+        this.remote = remote;
+        this.store = store;
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.transactionAware = transactionAware;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (remote instanceof InitializingBean initializing) {
+            initializing.afterPropertiesSet();
+        }
+        store.subscribe(INVALIDATION_CHANNEL, invalidationListener);
+    }
+
+    @Override
+    public void destroy() {
+        store.unsubscribe(INVALIDATION_CHANNEL, invalidationListener);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = decorated.get(name);
+        if (cache != null) return cache;
+
+        return decorated.computeIfAbsent(name, key -> {
+            Cache remoteCache = remote.getCache(key);
+            if (remoteCache == null) return null;
+            TwoLevelCache twoLevel = caches.computeIfAbsent(key, n -> create(n, remoteCache));
+            // 事务内的写入延迟到提交后执行，一级缓存与二级缓存同步生效
+            return transactionAware ? new TransactionAwareCacheDecorator(twoLevel) : twoLevel;
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    /**
+     * 各缓存的分层命中统计
+     */
+    public Map<String, Stats> stats() {
+        var result = new LinkedHashMap<String, Stats>();
+        caches.forEach((name, cache) -> {
+            var local = cache.local().stats();
+            result.put(name, new Stats(local.hitCount(), local.missCount(), cache.local().estimatedSize(),
+                remoteCount(name, "hit"), remoteCount(name, "miss")));
+        });
+        return result;
+    }
+
+    private TwoLevelCache create(String name, Cache remoteCache) {
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+            .maximumSize(properties.localMaxSize(name))
+            .expireAfterWrite(properties.localTtl(name))
+            .recordStats()
+            .build();
+
+        FunctionCounter.builder("cache.layer.gets", local, c -> c.stats().hitCount())
+            .tags("cache", name, "layer", "l1", "result", "hit")
+            .register(meterRegistry);
+        FunctionCounter.builder("cache.layer.gets", local, c -> c.stats().missCount())
+            .tags("cache", name, "layer", "l1", "result", "miss")
+            .register(meterRegistry);
+        Gauge.builder("cache.layer.size", local, c -> c.estimatedSize())
+            .tags("cache", name, "layer", "l1")
+            .register(meterRegistry);
+
+        return new TwoLevelCache(name, remoteCache, local, this::publishInvalidation,
+            remoteCounter(name, "hit"), remoteCounter(name, "miss"));
+    }
+
+    private Counter remoteCounter(String name, String result) {
+        return Counter.builder("cache.layer.gets")
+            .tags("cache", name, "layer", "l2", "result", result)
+            .register(meterRegistry);
+    }
+
+    private long remoteCount(String name, String result) {
+        return (long) remoteCounter(name, result).count();
+    }
+
+    private void publishInvalidation(String cacheName, String key) {
+        try {
+            store.publish(INVALIDATION_CHANNEL, JsonUtils.toJson(new Invalidation(nodeId, cacheName, key)));
+        } catch (Exception e) {
+            // 广播失败时其他节点依赖 localTtl 过期
+            log.warn("缓存失效广播失败: cache={}, error={}", cacheName, e.getMessage());
+        }
+    }
+
+    private void onInvalidation(String message) {
+        try {
+            var invalidation = JsonUtils.fromJson(message, Invalidation.class);
+            if (nodeId.equals(invalidation.node())) return;
+
+            TwoLevelCache cache = caches.get(invalidation.cache());
+            if (cache != null) {
+                cache.invalidateLocal(invalidation.key());
+            }
+        } catch (Exception e) {
+            log.warn("缓存失效消息处理失败: {}", e.getMessage());
+        }
+    }
+}
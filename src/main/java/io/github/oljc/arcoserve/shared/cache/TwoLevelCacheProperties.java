@@ -0,0 +1,54 @@
+package io.github.oljc.arcoserve.shared.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 二级缓存配置
+ * <pre>
+ * app.cache.two-level:
+ *   local-ttl: 60s
+ *   local-max-size: 10000
+ *   caches:
+ *     users: { ttl: 30m, local-ttl: 2m, local-max-size: 50000 }
+ * </pre>
+ *
+ * @param enabled      是否启用本地一级缓存，关闭时退化为纯 Redis 缓存
+ * @param localTtl     一级缓存默认写入后过期时间
+ * @param localMaxSize 一级缓存默认最大条目数
+ * @param caches       按缓存名覆盖，未配置的项沿用默认值
+ */
+@ConfigurationProperties(prefix = "app.cache.two-level")
+public record TwoLevelCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("60s") Duration localTtl,
+        @DefaultValue("10000") long localMaxSize,
+        Map<String, Spec> caches
+) {
+
+    public TwoLevelCacheProperties {
+        caches = caches != null ? Map.copyOf(caches) : Map.of();
+    }
+
+    /**
+     * 单个缓存的配置
+     *
+     * @param ttl          Redis 二级缓存过期时间，为空时沿用 spring.cache.redis.time-to-live
+     * @param localTtl     一级缓存过期时间
+     * @param localMaxSize 一级缓存最大条目数
+     */
+    public record Spec(Duration ttl, Duration localTtl, Long localMaxSize) {}
+
+    public Duration localTtl(String cacheName) {
+        var spec = caches.get(cacheName);
+        return spec != null && spec.localTtl() != null ? spec.localTtl() : localTtl;
+    }
+
+    public long localMaxSize(String cacheName) {
+        var spec = caches.get(cacheName);
+        return spec != null && spec.localMaxSize() != null ? spec.localMaxSize() : localMaxSize;
+    }
+}
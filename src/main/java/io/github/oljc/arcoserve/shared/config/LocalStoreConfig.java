@@ -0,0 +1,50 @@
+package io.github.oljc.arcoserve.shared.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.oljc.arcoserve.shared.cache.TwoLevelCacheProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 单节点部署配置：{@code app.store.backend=memory} 时代替 {@link RedisConfig}
+ * <p>
+ * Spring Cache 只使用进程内 Caffeine 缓存，过期时间沿用 spring.cache.redis.time-to-live 与按缓存名的 ttl，
+ * 容量沿用一级缓存的 localMaxSize。应用代码不再访问 Redis；若连 Redis 连接工厂也不需要，
+ * 可另行排除 RedisAutoConfiguration 或关闭 management.health.redis.enabled。
+ */
+@EnableCaching
+@Configuration
+@ConditionalOnProperty(name = "app.store.backend", havingValue = "memory")
+@EnableConfigurationProperties(TwoLevelCacheProperties.class)
+public class LocalStoreConfig {
+
+    @Value("${spring.cache.redis.time-to-live:10m}")
+    private Duration defaultTtl;
+
+    @Bean
+    public CacheManager cacheManager(TwoLevelCacheProperties twoLevelProperties) {
+        var manager = new CaffeineCacheManager();
+        manager.setAllowNullValues(false);
+        manager.setCaffeine(Caffeine.newBuilder()
+            .maximumSize(twoLevelProperties.localMaxSize())
+            .expireAfterWrite(defaultTtl));
+
+        twoLevelProperties.caches().forEach((name, spec) -> manager.registerCustomCache(name,
+            Caffeine.newBuilder()
+                .maximumSize(twoLevelProperties.localMaxSize(name))
+                .expireAfterWrite(spec.ttl() != null ? spec.ttl() : defaultTtl)
+                .build()));
+
+        // 与 Redis 模式一致，事务内的写入延迟到提交后执行
+        return new TransactionAwareCacheManagerProxy(manager);
+    }
+}
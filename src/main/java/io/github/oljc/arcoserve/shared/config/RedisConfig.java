@@ -1,7 +1,14 @@
 package io.github.oljc.arcoserve.shared.config;
 
+import io.github.oljc.arcoserve.shared.cache.CompactRedisSerializer;
+import io.github.oljc.arcoserve.shared.cache.TwoLevelCacheManager;
+import io.github.oljc.arcoserve.shared.cache.TwoLevelCacheProperties;
+import io.github.oljc.arcoserve.shared.store.ConditionalOnRedisStore;
+import io.github.oljc.arcoserve.shared.store.KeyValueStore;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -9,41 +16,81 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.HashMap;
 
 /**
- * Redis 配置类
+ * Redis 配置类，{@code app.store.backend=memory} 时由 {@link LocalStoreConfig} 代替
  */
 @EnableCaching
 @Configuration
+@ConditionalOnRedisStore
 @ConditionalOnProperty(name = "spring.data.redis.host")
+@EnableConfigurationProperties(TwoLevelCacheProperties.class)
 public class RedisConfig {
 
     @Value("${spring.cache.redis.time-to-live:10m}")
     private Duration defaultTtl;
 
+    // 默认 JSON，旧节点可读；全部节点升级后再切换为 smile
+    @Value("${app.cache.codec:json}")
+    private CompactRedisSerializer.Codec cacheCodec;
+
+    @Value("${app.cache.compress-threshold:1024}")
+    private int compressThreshold;
+
     /**
-     * Spring Cache 缓存管理
+     * Spring Cache 缓存管理：本地一级缓存 + Redis 二级缓存
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     KeyValueStore store,
+                                     MeterRegistry meterRegistry,
+                                     TwoLevelCacheProperties twoLevelProperties) {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
             .entryTtl(defaultTtl)
             .serializeKeysWith(RedisSerializationContext.SerializationPair
                 .fromSerializer(new StringRedisSerializer()))
-            // Value 序列化：JSON（自动处理复杂对象）
+            // Value 序列化：JSON 或 Smile 二进制 + 超阈值压缩，读取兼容两种格式
             .serializeValuesWith(RedisSerializationContext.SerializationPair
-                .fromSerializer(new GenericJackson2JsonRedisSerializer()))
+                .fromSerializer(new CompactRedisSerializer(cacheCodec, compressThreshold)))
             .disableCachingNullValues()
             .prefixCacheNameWith("auto_cache:");
 
-        return RedisCacheManager.builder(connectionFactory)
+        var perCache = new HashMap<String, RedisCacheConfiguration>();
+        twoLevelProperties.caches().forEach((name, spec) -> {
+            if (spec.ttl() != null) {
+                perCache.put(name, config.entryTtl(spec.ttl()));
+            }
+        });
+
+        if (!twoLevelProperties.enabled()) {
+            return RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(config)
+                .withInitialCacheConfigurations(perCache)
+                .transactionAware()
+                .build();
+        }
+
+        // 事务感知由二级缓存管理器统一处理，保证两级在提交后同时写入
+        RedisCacheManager remote = RedisCacheManager.builder(connectionFactory)
             .cacheDefaults(config)
-            .transactionAware()
+            .withInitialCacheConfigurations(perCache)
             .build();
+        return new TwoLevelCacheManager(remote, store, meterRegistry, twoLevelProperties, true);
+    }
+
+    /**
+     * Pub/Sub 订阅容器，各组件共用一条订阅连接
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
     }
 }
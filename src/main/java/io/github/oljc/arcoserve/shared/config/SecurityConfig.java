@@ -36,8 +36,11 @@ public class SecurityConfig {
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers(
                     "/auth/captcha",
+                    "/auth/captcha/image",
+                    "/auth/captcha/pow",
                     "/auth/demo"
                 ).permitAll()
+                .requestMatchers("/api/admin/**").hasAnyRole("SUPER_ADMIN", "ADMIN")
                 .anyRequest().authenticated()
             )
 
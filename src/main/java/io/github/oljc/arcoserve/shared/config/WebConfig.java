@@ -27,6 +27,8 @@ public class WebConfig implements WebMvcConfigurer {
                  .allowedOriginPatterns("*")
                  .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                  .allowedHeaders("*")
+                 .exposedHeaders("X-Captcha-Id", "X-Captcha-Ttl",
+                         "RateLimit-Limit", "RateLimit-Remaining", "RateLimit-Reset", "Retry-After")
                  .allowCredentials(true)
                  .maxAge(3600);
      }
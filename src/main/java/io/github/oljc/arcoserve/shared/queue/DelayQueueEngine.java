@@ -0,0 +1,314 @@
+package io.github.oljc.arcoserve.shared.queue;
+
+import io.github.oljc.arcoserve.shared.store.KeyValueStore;
+import io.github.oljc.arcoserve.shared.store.KeyValueStore.DelayClaim;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 延时队列消费引擎
+ * <p>
+ * 每个队列拆分为多个分片，分片的待执行、处理中、失败次数与死信由 {@link KeyValueStore} 的分片延时队列操作维护
+ * （Redis 后端下为同一哈希标签的四个键）。
+ * <ul>
+ *   <li>领取：把到期任务从待执行移到处理中，同时回收超时未确认的任务重新投递，超过最大次数转入死信</li>
+ *   <li>轮询：每个队列一个轮询线程，一次领取所有分片（Redis 后端为一次管道），按最近到期时间休眠，空闲时最长休眠 maxIdle</li>
+ *   <li>执行：虚拟线程执行，信号量限制并发，领取数量不超过空闲许可</li>
+ *   <li>指标：delayqueue.lag（最早到期未领取任务的滞后毫秒数）、delayqueue.processed、delayqueue.redelivered</li>
+ * </ul>
+ * 同一队列中相同内容的任务会合并为一条。
+ */
+@Slf4j
+@Component
+public class DelayQueueEngine implements InitializingBean, DisposableBean {
+
+    private final KeyValueStore store;
+    private final MeterRegistry meterRegistry;
+    private final int shards;
+    private final int batchSize;
+    private final long visibilityMillis;
+    private final long retryDelayMillis;
+    private final long maxIdleMillis;
+    private final int maxAttempts;
+    private final Semaphore permits;
+
+    private final Map<String, QueueConsumer> consumers = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private ExecutorService workers;
+
+    public DelayQueueEngine(
+            KeyValueStore store,
+            MeterRegistry meterRegistry,
+            @Value("${app.delay-queue.shards:4}") int shards,
+            @Value("${app.delay-queue.batch-size:100}") int batchSize,
+            @Value("${app.delay-queue.concurrency:64}") int concurrency,
+            @Value("${app.delay-queue.visibility-timeout:30s}") Duration visibilityTimeout,
+            @Value("${app.delay-queue.retry-delay:5s}") Duration retryDelay,
+            @Value("${app.delay-queue.max-idle:1s}") Duration maxIdle,
+            @Value("${app.delay-queue.max-attempts:5}") int maxAttempts
+    ) {
+        this.store = store;
+        this.meterRegistry = meterRegistry;
+        this.shards = shards;
+        this.batchSize = batchSize;
+        this.visibilityMillis = visibilityTimeout.toMillis();
+        this.retryDelayMillis = retryDelay.toMillis();
+        this.maxIdleMillis = maxIdle.toMillis();
+        this.maxAttempts = maxAttempts;
+        this.permits = new Semaphore(concurrency);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("delay-queue-worker-", 0).factory());
+        running = true;
+        consumers.values().forEach(QueueConsumer::start);
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        consumers.values().forEach(QueueConsumer::stop);
+        if (workers == null) return;
+
+        // 等待处理中的任务，未完成的在可见性超时后由其他节点重新投递
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 注册队列处理器并开始消费，每个队列只能注册一次
+     */
+    public void register(String queue, DelayQueueHandler handler) {
+        var consumer = new QueueConsumer(queue, handler);
+        if (consumers.putIfAbsent(queue, consumer) != null) {
+            throw new IllegalStateException("延时队列已注册: " + queue);
+        }
+        if (running) {
+            consumer.start();
+        }
+    }
+
+    /**
+     * 投递延时任务，相同内容落在同一分片以便合并
+     */
+    public void publish(String queue, String item, Duration delay) {
+        long dueAt = System.currentTimeMillis() + delay.toMillis();
+        store.delayQueueOffer(queue, shardOf(item), item, dueAt);
+
+        var consumer = consumers.get(queue);
+        if (consumer != null) {
+            consumer.wakeIfEarlier(dueAt);
+        }
+    }
+
+    /**
+     * 死信数量
+     */
+    public long deadLetterCount(String queue) {
+        return store.delayQueueDeadCount(queue, shards);
+    }
+
+    private int shardOf(String item) {
+        return Math.floorMod(item.hashCode(), shards);
+    }
+
+    /**
+     * 单个队列的轮询线程
+     */
+    private final class QueueConsumer {
+        private final String queue;
+        private final DelayQueueHandler handler;
+        private final Counter succeeded;
+        private final Counter failed;
+        private final Counter redelivered;
+
+        private volatile long lagMillis;
+        private volatile long wakeAt = Long.MAX_VALUE;
+        private volatile Thread poller;
+        private int nextShard;
+
+        QueueConsumer(String queue, DelayQueueHandler handler) {
+            this.queue = queue;
+            this.handler = handler;
+            this.succeeded = Counter.builder("delayqueue.processed")
+                .tag("queue", queue).tag("outcome", "success")
+                .register(meterRegistry);
+            this.failed = Counter.builder("delayqueue.processed")
+                .tag("queue", queue).tag("outcome", "failure")
+                .register(meterRegistry);
+            this.redelivered = Counter.builder("delayqueue.redelivered")
+                .tag("queue", queue)
+                .register(meterRegistry);
+            Gauge.builder("delayqueue.lag", this, c -> c.lagMillis)
+                .tag("queue", queue)
+                .baseUnit("milliseconds")
+                .description("最早到期未领取任务的滞后时间")
+                .register(meterRegistry);
+        }
+
+        void start() {
+            var thread = new Thread(this::pollLoop, "delay-queue-" + queue);
+            thread.setDaemon(true);
+            poller = thread;
+            thread.start();
+        }
+
+        void stop() {
+            var thread = poller;
+            if (thread == null) return;
+            thread.interrupt();
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void wakeIfEarlier(long dueAt) {
+            if (dueAt < wakeAt) {
+                wakeAt = dueAt;
+                LockSupport.unpark(poller);
+            }
+        }
+
+        private void pollLoop() {
+            while (running) {
+                int held = 0;
+                long sleepUntil;
+                try {
+                    permits.acquire();
+                    held = 1 + drainPermits(batchSize - 1);
+                    var result = poll(held);
+                    held -= result.claimed();
+                    sleepUntil = result.sleepUntil();
+                } catch (InterruptedException e) {
+                    return;
+                } catch (Exception e) {
+                    log.warn("延时队列领取失败: queue={}, error={}", queue, e.getMessage());
+                    sleepUntil = System.currentTimeMillis() + maxIdleMillis;
+                } finally {
+                    // 休眠前归还未使用的许可，避免占用其他队列的并发额度
+                    permits.release(held);
+                }
+                if (sleepUntil > 0) {
+                    sleepUntil(sleepUntil);
+                }
+            }
+        }
+
+        private int drainPermits(int max) {
+            int n = 0;
+            while (n < max && permits.tryAcquire()) {
+                n++;
+            }
+            return n;
+        }
+
+        /**
+         * 一次领取所有分片，提交执行并决定下次轮询时间
+         */
+        private PollResult poll(int limit) {
+            long now = System.currentTimeMillis();
+            int[] limits = new int[shards];
+            for (int i = 0; i < limit; i++) {
+                limits[(nextShard + i) % shards]++;
+            }
+            nextShard = (nextShard + limit) % shards;
+
+            List<DelayClaim> replies = store.delayQueueClaim(queue, limits, now, visibilityMillis, maxAttempts);
+
+            long nextDue = Long.MAX_VALUE;
+            long oldestReady = Long.MAX_VALUE;
+            boolean backlog = false;
+            var claimed = new ArrayList<Claim>(limit);
+            for (int shard = 0; shard < shards; shard++) {
+                DelayClaim reply = replies.get(shard);
+                redelivered.increment(reply.redelivered());
+
+                if (reply.readyAt() >= 0) {
+                    nextDue = Math.min(nextDue, reply.readyAt());
+                    if (reply.readyAt() <= now) {
+                        oldestReady = Math.min(oldestReady, reply.readyAt());
+                        backlog = true;
+                    }
+                }
+                if (reply.inflightAt() >= 0) {
+                    nextDue = Math.min(nextDue, reply.inflightAt());
+                }
+                for (String item : reply.items()) {
+                    claimed.add(new Claim(shard, item));
+                }
+            }
+            lagMillis = oldestReady == Long.MAX_VALUE ? 0 : now - oldestReady;
+
+            for (Claim claim : claimed) {
+                workers.execute(() -> process(claim));
+            }
+
+            // 仍有积压时立即继续，否则休眠到最近的到期或超时时间
+            return new PollResult(claimed.size(), backlog ? -1 : Math.min(nextDue, now + maxIdleMillis));
+        }
+
+        private void process(Claim claim) {
+            try {
+                handler.handle(claim.item());
+                store.delayQueueAck(queue, claim.shard(), claim.item());
+                succeeded.increment();
+            } catch (Exception e) {
+                failed.increment();
+                log.warn("延时任务处理失败: queue={}, item={}, error={}", queue, claim.item(), e.getMessage());
+                try {
+                    store.delayQueueRetry(queue, claim.shard(), claim.item(),
+                        System.currentTimeMillis() + retryDelayMillis);
+                } catch (Exception ignored) {
+                    // 重试标记失败时按可见性超时重新投递
+                }
+            } finally {
+                permits.release();
+            }
+        }
+
+        /**
+         * 休眠到指定时间，期间本节点投递了更早到期的任务时提前醒来
+         */
+        private void sleepUntil(long deadline) {
+            wakeAt = Math.min(wakeAt, deadline);
+            long remaining;
+            while (running && !Thread.currentThread().isInterrupted()
+                    && (remaining = wakeAt - System.currentTimeMillis()) > 0) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(remaining));
+            }
+            wakeAt = Long.MAX_VALUE;
+        }
+    }
+
+    private record Claim(int shard, String item) {}
+
+    private record PollResult(int claimed, long sleepUntil) {}
+}
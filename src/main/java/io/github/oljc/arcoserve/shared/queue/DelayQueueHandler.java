@@ -0,0 +1,13 @@
+package io.github.oljc.arcoserve.shared.queue;
+
+/**
+ * 延时任务处理器
+ * <p>
+ * 正常返回即确认；抛出异常时任务在重试间隔后重新投递，超过最大次数进入死信列表。
+ * 投递语义为至少一次，处理逻辑需要幂等。
+ */
+@FunctionalInterface
+public interface DelayQueueHandler {
+
+    void handle(String item) throws Exception;
+}
@@ -1,11 +1,18 @@
 package io.github.oljc.arcoserve.shared.service;
 
+import io.github.oljc.arcoserve.shared.store.KeyValueStore;
 import io.github.oljc.arcoserve.shared.util.JwtUtils;
-import io.github.oljc.arcoserve.shared.util.RedisUtils;
+import io.github.oljc.arcoserve.shared.util.RedisKeys;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Token黑名单服务
@@ -14,11 +21,10 @@ import java.util.Collection;
 @RequiredArgsConstructor
 public class TokenBlacklistService {
 
-    private final RedisUtils redisUtils;
+    private final KeyValueStore store;
     private final JwtUtils jwtUtils;
 
     private static final String BLACKLIST_PREFIX = "jwt:blacklist:";
-    private static final String USER_TOKENS_PREFIX = "jwt:user:";
 
     /**
      * 将token加入黑名单
@@ -31,7 +37,7 @@ public class TokenBlacklistService {
             var remainSeconds = jwtUtils.getRemainSeconds(token);
 
             if (remainSeconds > 0) {
-                redisUtils.set(BLACKLIST_PREFIX + tokenId, "1", remainSeconds);
+                store.set(BLACKLIST_PREFIX + tokenId, "1", remainSeconds);
             }
         } catch (Exception ignored) {}
     }
@@ -42,24 +48,52 @@ public class TokenBlacklistService {
     public boolean isBlacklisted(String token) {
         try {
             var tokenId = jwtUtils.getTokenId(token);
-            return redisUtils.exists(BLACKLIST_PREFIX + tokenId);
+            return store.exists(BLACKLIST_PREFIX + tokenId);
         } catch (Exception e) {
             return false;
         }
     }
 
+    /**
+     * 异步检查token是否在黑名单中，存储异常原样传递，由调用方决定拒绝还是放行
+     */
+    public CompletableFuture<Boolean> isBlacklistedAsync(JwtUtils.TokenInfo token) {
+        return store.existsAsync(BLACKLIST_PREFIX + token.id());
+    }
+
+    /**
+     * 异步记录用户的活跃token，SADD 与 EXPIRE 同时发出；与其他记录方法一样忽略存储异常
+     */
+    public CompletableFuture<Void> trackUserTokenAsync(JwtUtils.TokenInfo token) {
+        if (token.userId() == null || token.remainSeconds() <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        var userKey = RedisKeys.userTokens(token.userId());
+        try {
+            return CompletableFuture.allOf(
+                store.saddAsync(userKey, token.id()),
+                store.expireAsync(userKey, Math.max(token.remainSeconds(), 7 * 24 * 3600))
+            ).exceptionally(e -> null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
     /**
      * 将用户的所有token加入黑名单 (强制登出)
      */
+    @SuppressWarnings("deprecation")
     public void blacklistUserTokens(Long userId) {
-        var userKey = USER_TOKENS_PREFIX + userId;
-        var tokenIds = redisUtils.smembers(userKey);
+        var tokenIds = userTokens(userId);
 
         if (!tokenIds.isEmpty()) {
-            tokenIds.forEach(tokenId ->
-                redisUtils.set(BLACKLIST_PREFIX + tokenId, "1", 7 * 24 * 3600)
-            );
-            redisUtils.delete(userKey);
+            var blacklist = new LinkedHashMap<String, String>();
+            tokenIds.forEach(tokenId -> blacklist.put(BLACKLIST_PREFIX + tokenId, "1"));
+            store.setAll(blacklist, 7 * 24 * 3600);
+            // 新旧键位于不同槽位，分别删除
+            store.delete(RedisKeys.userTokens(userId));
+            store.delete(RedisKeys.legacyUserTokens(userId));
         }
     }
 
@@ -73,9 +107,9 @@ public class TokenBlacklistService {
             var remainSeconds = jwtUtils.getRemainSeconds(token);
 
             if (userId != null && remainSeconds > 0) {
-                var userKey = USER_TOKENS_PREFIX + userId;
-                redisUtils.sadd(userKey, tokenId);
-                redisUtils.expire(userKey, Math.max(remainSeconds, 7 * 24 * 3600));
+                var userKey = RedisKeys.userTokens(userId);
+                store.sadd(userKey, tokenId);
+                store.expire(userKey, Math.max(remainSeconds, 7 * 24 * 3600));
             }
         } catch (Exception ignored) {}
     }
@@ -83,13 +117,15 @@ public class TokenBlacklistService {
     /**
      * 移除用户token记录
      */
+    @SuppressWarnings("deprecation")
     public void untrackUserToken(String token) {
         try {
             var userId = jwtUtils.getUserId(token);
             var tokenId = jwtUtils.getTokenId(token);
 
             if (userId != null) {
-                redisUtils.srem(USER_TOKENS_PREFIX + userId, tokenId);
+                store.srem(RedisKeys.userTokens(userId), tokenId);
+                store.srem(RedisKeys.legacyUserTokens(userId), tokenId);
             }
         } catch (Exception ignored) {}
     }
@@ -98,7 +134,20 @@ public class TokenBlacklistService {
      * 批量添加到黑名单
      */
     public void addToBlacklist(Collection<String> tokens) {
-        tokens.forEach(this::addToBlacklist);
+        // 按剩余时间分组，同组一次批量写入
+        var byTtl = new LinkedHashMap<Long, Map<String, String>>();
+        for (String token : tokens) {
+            try {
+                if (!jwtUtils.isValid(token)) continue;
+
+                var remainSeconds = jwtUtils.getRemainSeconds(token);
+                if (remainSeconds > 0) {
+                    byTtl.computeIfAbsent(remainSeconds, t -> new LinkedHashMap<>())
+                        .put(BLACKLIST_PREFIX + jwtUtils.getTokenId(token), "1");
+                }
+            } catch (Exception ignored) {}
+        }
+        byTtl.forEach((ttl, entries) -> store.setAll(entries, ttl));
     }
 
     /**
@@ -112,20 +161,39 @@ public class TokenBlacklistService {
      * 获取用户当前活跃的token数量
      */
     public long getUserActiveTokenCount(Long userId) {
-        return redisUtils.scard(USER_TOKENS_PREFIX + userId);
+        return userTokens(userId).size();
     }
 
     /**
      * 清理过期的用户token记录
      */
+    @SuppressWarnings("deprecation")
     public void cleanupExpiredTokens(Long userId) {
-        var userKey = USER_TOKENS_PREFIX + userId;
-        var tokenIds = redisUtils.smembers(userKey);
+        var tokenIds = new ArrayList<>(userTokens(userId));
+        if (tokenIds.isEmpty()) return;
 
-        tokenIds.forEach(tokenId -> {
-            if (!redisUtils.exists(BLACKLIST_PREFIX + tokenId)) {
-                redisUtils.srem(userKey, tokenId);
+        var replies = store.existsAll(tokenIds.stream().map(tokenId -> BLACKLIST_PREFIX + tokenId).toList());
+
+        var stale = new ArrayList<String>();
+        for (int i = 0; i < tokenIds.size(); i++) {
+            if (!replies.get(i)) {
+                stale.add(tokenIds.get(i));
             }
-        });
+        }
+        if (!stale.isEmpty()) {
+            var members = stale.toArray(String[]::new);
+            store.srem(RedisKeys.userTokens(userId), members);
+            store.srem(RedisKeys.legacyUserTokens(userId), members);
+        }
+    }
+
+    /**
+     * 用户的活跃token，合并升级前旧键中的记录；新记录只写入新键
+     */
+    @SuppressWarnings("deprecation")
+    private Set<String> userTokens(Long userId) {
+        var tokenIds = new LinkedHashSet<>(store.smembers(RedisKeys.userTokens(userId)));
+        tokenIds.addAll(store.smembers(RedisKeys.legacyUserTokens(userId)));
+        return tokenIds;
     }
 }
@@ -0,0 +1,283 @@
+package io.github.oljc.arcoserve.shared.store;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 布隆过滤器，位图存放在 {@link KeyValueStore} 中
+ * <p>
+ * 哈希在客户端计算：MurmurHash3 x64 128 位 + 双重哈希生成 k 个位置，
+ * 每个元素的全部位置作为一组交给 {@link KeyValueStore#setBits}/{@link KeyValueStore#testBits}，
+ * Redis 实现下一组对应 BITFIELD/BITFIELD_RO 的一段子命令，批量操作合并为多条命令连续发出。
+ * 可选本地镜像：布隆过滤器的位只会由 0 变 1，本地镜像命中即可直接判定“可能存在”，免去一次往返。
+ * 镜像与位图等大，位图超过 {@link #MAX_MIRROR_BIT_SIZE} 时不建立镜像。
+ */
+@Slf4j
+public final class BloomFilter {
+
+    /**
+     * 位图偏移上限（与 Redis 字符串上限 512MB 一致）
+     */
+    public static final long MAX_BIT_SIZE = 1L << 32;
+
+    /**
+     * 本地镜像的位图上限（32MB 堆内存）
+     */
+    public static final long MAX_MIRROR_BIT_SIZE = 1L << 28;
+
+    private final KeyValueStore store;
+    private final String key;
+    private final long bitSize;
+    private final int hashCount;
+    private final AtomicLongArray mirror;
+
+    BloomFilter(KeyValueStore store, String key, long bitSize, int hashCount, boolean localMirror) {
+        if (bitSize <= 0 || bitSize > MAX_BIT_SIZE) {
+            throw new IllegalArgumentException("位图大小超出范围: " + bitSize);
+        }
+        if (hashCount <= 0) {
+            throw new IllegalArgumentException("哈希函数数量必须大于0");
+        }
+        this.store = store;
+        this.key = key;
+        this.bitSize = bitSize;
+        this.hashCount = hashCount;
+        if (localMirror && bitSize > MAX_MIRROR_BIT_SIZE) {
+            log.warn("布隆过滤器 {} 位图过大（{} 位），不建立本地镜像", key, bitSize);
+        }
+        this.mirror = localMirror && bitSize <= MAX_MIRROR_BIT_SIZE
+            ? new AtomicLongArray((int) ((bitSize + 63) >>> 6))
+            : null;
+    }
+
+    /**
+     * 根据预期元素数和误判率计算最优参数
+     */
+    public static BloomFilter create(KeyValueStore store, String key, long expectedInsertions,
+                                   double fpp, boolean localMirror) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("预期元素数必须大于0");
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("误判率必须在 (0, 1) 之间");
+        }
+        long bits = optimalBitSize(expectedInsertions, fpp);
+        return new BloomFilter(store, key, bits, optimalHashCount(expectedInsertions, bits), localMirror);
+    }
+
+    public static long optimalBitSize(long expectedInsertions, double fpp) {
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        return Math.min(Math.max(bits, 64), MAX_BIT_SIZE);
+    }
+
+    public static int optimalHashCount(long expectedInsertions, long bitSize) {
+        return Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * 是否可能存在
+     * @return false 表示一定不存在
+     */
+    public boolean mightContain(String item) {
+        return mightContainAll(List.of(item))[0];
+    }
+
+    /**
+     * 添加元素
+     * @return true 表示添加前一定不存在
+     */
+    public boolean add(String item) {
+        return addAll(List.of(item))[0];
+    }
+
+    /**
+     * 批量检查
+     * @return 与 items 一一对应，false 表示一定不存在
+     */
+    public boolean[] mightContainAll(List<String> items) {
+        boolean[] result = new boolean[items.size()];
+        var remote = new ArrayList<Integer>();
+        var groups = new ArrayList<long[]>();
+
+        for (int i = 0; i < items.size(); i++) {
+            long[] positions = positions(items.get(i), hashCount, bitSize);
+            if (mirror != null && mirrorContains(positions)) {
+                result[i] = true;
+            } else {
+                remote.add(i);
+                groups.add(positions);
+            }
+        }
+        if (remote.isEmpty()) return result;
+
+        List<Boolean> replies = store.testBits(key, groups);
+        for (int r = 0; r < remote.size(); r++) {
+            boolean all = replies.get(r);
+            result[remote.get(r)] = all;
+            if (all && mirror != null) {
+                mirrorSet(groups.get(r));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 批量添加
+     * @return 与 items 一一对应，true 表示添加前一定不存在
+     */
+    public boolean[] addAll(List<String> items) {
+        boolean[] result = new boolean[items.size()];
+        if (items.isEmpty()) return result;
+
+        var groups = new ArrayList<long[]>(items.size());
+        for (String item : items) {
+            groups.add(positions(item, hashCount, bitSize));
+        }
+
+        List<Boolean> replies = store.setBits(key, groups);
+        for (int i = 0; i < items.size(); i++) {
+            result[i] = !replies.get(i);
+            if (mirror != null) {
+                mirrorSet(groups.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 清空本地镜像，远端位图被重建或删除后调用
+     */
+    public void clearLocal() {
+        if (mirror == null) return;
+        for (int i = 0; i < mirror.length(); i++) {
+            mirror.set(i, 0);
+        }
+    }
+
+    private boolean mirrorContains(long[] positions) {
+        for (long pos : positions) {
+            if ((mirror.get((int) (pos >>> 6)) & (1L << pos)) == 0) return false;
+        }
+        return true;
+    }
+
+    private void mirrorSet(long[] positions) {
+        for (long pos : positions) {
+            int word = (int) (pos >>> 6);
+            long mask = 1L << pos;
+            long current;
+            while (((current = mirror.get(word)) & mask) == 0 && !mirror.compareAndSet(word, current, current | mask)) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * 双重哈希（Kirsch-Mitzenmacher）：pos_i = h1 + i * h2
+     */
+    public static long[] positions(String item, int hashCount, long bitSize) {
+        long[] hash = murmur3x64(item.getBytes(StandardCharsets.UTF_8));
+        long[] positions = new long[hashCount];
+        long combined = hash[0];
+        for (int i = 0; i < hashCount; i++) {
+            positions[i] = (combined & Long.MAX_VALUE) % bitSize;
+            combined += hash[1];
+        }
+        return positions;
+    }
+
+    /**
+     * MurmurHash3 x64 128 位，seed 为 0
+     */
+    static long[] murmur3x64(byte[] data) {
+        final long c1 = 0x87c37b91114253d5L;
+        final long c2 = 0x4cf5ad432745937fL;
+        int length = data.length;
+        int blocks = length >>> 4;
+        long h1 = 0;
+        long h2 = 0;
+
+        for (int i = 0; i < blocks; i++) {
+            long k1 = getLong(data, i << 4);
+            long k2 = getLong(data, (i << 4) + 8);
+
+            k1 *= c1; k1 = Long.rotateLeft(k1, 31); k1 *= c2; h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27); h1 += h2; h1 = h1 * 5 + 0x52dce729;
+
+            k2 *= c2; k2 = Long.rotateLeft(k2, 33); k2 *= c1; h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31); h2 += h1; h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        int tail = blocks << 4;
+        long k1 = 0;
+        long k2 = 0;
+        switch (length & 15) {
+            case 15: k2 ^= (long) (data[tail + 14] & 0xff) << 48;
+            case 14: k2 ^= (long) (data[tail + 13] & 0xff) << 40;
+            case 13: k2 ^= (long) (data[tail + 12] & 0xff) << 32;
+            case 12: k2 ^= (long) (data[tail + 11] & 0xff) << 24;
+            case 11: k2 ^= (long) (data[tail + 10] & 0xff) << 16;
+            case 10: k2 ^= (long) (data[tail + 9] & 0xff) << 8;
+            case 9:
+                k2 ^= data[tail + 8] & 0xff;
+                k2 *= c2; k2 = Long.rotateLeft(k2, 33); k2 *= c1; h2 ^= k2;
+            case 8: k1 ^= (long) (data[tail + 7] & 0xff) << 56;
+            case 7: k1 ^= (long) (data[tail + 6] & 0xff) << 48;
+            case 6: k1 ^= (long) (data[tail + 5] & 0xff) << 40;
+            case 5: k1 ^= (long) (data[tail + 4] & 0xff) << 32;
+            case 4: k1 ^= (long) (data[tail + 3] & 0xff) << 24;
+            case 3: k1 ^= (long) (data[tail + 2] & 0xff) << 16;
+            case 2: k1 ^= (long) (data[tail + 1] & 0xff) << 8;
+            case 1:
+                k1 ^= data[tail] & 0xff;
+                k1 *= c1; k1 = Long.rotateLeft(k1, 31); k1 *= c2; h1 ^= k1;
+            default:
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        return new long[]{h1, h2};
+    }
+
+    private static long getLong(byte[] data, int offset) {
+        return (data[offset] & 0xffL)
+            | (data[offset + 1] & 0xffL) << 8
+            | (data[offset + 2] & 0xffL) << 16
+            | (data[offset + 3] & 0xffL) << 24
+            | (data[offset + 4] & 0xffL) << 32
+            | (data[offset + 5] & 0xffL) << 40
+            | (data[offset + 6] & 0xffL) << 48
+            | (data[offset + 7] & 0xffL) << 56;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
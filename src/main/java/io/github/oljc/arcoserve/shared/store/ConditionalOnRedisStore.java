@@ -0,0 +1,20 @@
+package io.github.oljc.arcoserve.shared.store;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 仅在 {@code app.store.backend=redis}（默认）时注册，用于直接访问 Redis 的组件；
+ * {@code memory} 模式下这些组件不创建，应用不需要 Redis
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@ConditionalOnProperty(name = "app.store.backend", havingValue = "redis", matchIfMissing = true)
+public @interface ConditionalOnRedisStore {
+}
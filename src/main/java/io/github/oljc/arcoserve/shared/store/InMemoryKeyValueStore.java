@@ -0,0 +1,1010 @@
+package io.github.oljc.arcoserve.shared.store;
+
+import io.github.oljc.arcoserve.shared.util.RedisKeys;
+import io.github.oljc.arcoserve.shared.util.RedisUtils.CounterResult;
+import io.github.oljc.arcoserve.shared.util.RedisUtils.RateLimitResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 进程内实现，用于单节点部署
+ * <p>
+ * 数据存放在 {@link ConcurrentHashMap} 中，每个操作在该键的 compute 内执行，与 Lua 脚本一样对单键原子。
+ * 过期时间由 {@link TimingWheel} 主动清理，读取时同时惰性检查，因此清理线程的延迟不影响正确性。
+ * 值类型与 Redis 对应：字符串、集合、位图、滑动窗口（成员即分值的有序集合）、令牌桶、可重入锁、延时队列；
+ * 对类型不符的键操作抛出 WRONGTYPE 异常。Redis 中由多个附属键组成的结构（公平锁的排队列表、延时队列分片）
+ * 在这里合并为锁键、分片键下的单个值，以保持单键原子。发布订阅与锁释放通知只在本进程内同步投递。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.store.backend", havingValue = "memory")
+public class InMemoryKeyValueStore implements KeyValueStore, InitializingBean, DisposableBean {
+
+    private final Map<String, Entry> data = new ConcurrentHashMap<>();
+    private final Map<String, List<Consumer<String>>> channels = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> releaseListeners = new CopyOnWriteArrayList<>();
+    private final LongSupplier clock;
+    private final long tickMillis;
+    private final TimingWheel<String> wheel;
+
+    private volatile boolean running;
+    private Thread sweeper;
+
+    /**
+     * 值类型，对应 Redis 的 TYPE；按标记而不是 Java 类判断，滑动窗口的 TreeSet 不会被集合命令当作集合
+     */
+    private enum Type { STRING, SET, BITMAP, WINDOW, BUCKET, LOCK, DELAY_SHARD }
+
+    /**
+     * 键值、值类型与绝对过期时间（0 表示永不过期）
+     */
+    private record Entry(Type type, Object value, long expireAt) {
+        boolean expired(long now) {
+            return expireAt > 0 && expireAt <= now;
+        }
+    }
+
+    private record Bucket(double tokens, long lastRefill) {}
+
+    /**
+     * 按锁名的可重入锁，附带公平锁的排队者（owner → 存活截止时间，按排队顺序）
+     */
+    private static final class LeaseLock {
+        String owner;
+        long count;
+        long leaseUntil;
+        final LinkedHashMap<String, Long> waiters = new LinkedHashMap<>();
+
+        /**
+         * 当前持有者，租期已过视为未持有
+         */
+        String holder(long now) {
+            if (owner != null && leaseUntil <= now) {
+                owner = null;
+                count = 0;
+            }
+            return owner;
+        }
+
+        void grant(String owner, long leaseUntil) {
+            this.owner = owner;
+            this.count = 1;
+            this.leaseUntil = leaseUntil;
+        }
+
+        /**
+         * 清理存活超时的队列头
+         */
+        void purgeWaiters(long now) {
+            Iterator<Long> it = waiters.values().iterator();
+            while (it.hasNext() && it.next() <= now) {
+                it.remove();
+            }
+        }
+
+        long remaining(long now) {
+            return holder(now) != null ? leaseUntil - now : 0;
+        }
+
+        /**
+         * 键的过期时间：租期与排队者存活时间的较晚者，0 表示已无内容
+         */
+        long expireAt(long now) {
+            long at = holder(now) != null ? leaseUntil : 0;
+            for (long alive : waiters.values()) {
+                at = Math.max(at, alive);
+            }
+            return at;
+        }
+    }
+
+    /**
+     * 有序集合：member → score，按 score 排序，同分按成员字典序（与 ZRANGEBYSCORE 一致）
+     */
+    private static final class ScoredQueue {
+        final Map<String, Long> scores = new HashMap<>();
+        final TreeMap<Long, TreeSet<String>> byScore = new TreeMap<>();
+
+        void add(String member, long score) {
+            Long previous = scores.put(member, score);
+            if (previous != null) {
+                remove(previous, member);
+            }
+            byScore.computeIfAbsent(score, s -> new TreeSet<>()).add(member);
+        }
+
+        /**
+         * ZADD NX：已存在时不更新
+         */
+        void addIfAbsent(String member, long score) {
+            if (!scores.containsKey(member)) {
+                add(member, score);
+            }
+        }
+
+        boolean remove(String member) {
+            Long score = scores.remove(member);
+            if (score == null) return false;
+            remove(score, member);
+            return true;
+        }
+
+        boolean contains(String member) {
+            return scores.containsKey(member);
+        }
+
+        long firstScore() {
+            return byScore.isEmpty() ? -1 : byScore.firstKey();
+        }
+
+        boolean isEmpty() {
+            return scores.isEmpty();
+        }
+
+        List<String> popUntil(long maxScore, int limit) {
+            var result = new ArrayList<String>();
+            Iterator<Map.Entry<Long, TreeSet<String>>> it = byScore.headMap(maxScore, true).entrySet().iterator();
+            while (it.hasNext() && result.size() < limit) {
+                var members = it.next().getValue();
+                Iterator<String> mi = members.iterator();
+                while (mi.hasNext() && result.size() < limit) {
+                    String member = mi.next();
+                    mi.remove();
+                    scores.remove(member);
+                    result.add(member);
+                }
+                if (members.isEmpty()) it.remove();
+            }
+            return result;
+        }
+
+        private void remove(long score, String member) {
+            var members = byScore.get(score);
+            if (members != null && members.remove(member) && members.isEmpty()) {
+                byScore.remove(score);
+            }
+        }
+    }
+
+    /**
+     * 延时队列分片：待执行、处理中、失败次数、死信
+     */
+    private static final class DelayShard {
+        final ScoredQueue ready = new ScoredQueue();
+        final ScoredQueue inflight = new ScoredQueue();
+        final Map<String, Long> attempts = new HashMap<>();
+        final List<String> dead = new ArrayList<>();
+
+        boolean isEmpty() {
+            return ready.isEmpty() && inflight.isEmpty() && attempts.isEmpty() && dead.isEmpty();
+        }
+    }
+
+    /**
+     * 稀疏位图，按页分配
+     */
+    private static final class Bitmap {
+        private static final int PAGE_SHIFT = 15;
+        private static final long PAGE_MASK = (1L << PAGE_SHIFT) - 1;
+
+        final Map<Long, long[]> pages = new HashMap<>();
+
+        boolean get(long pos) {
+            long[] page = pages.get(pos >>> PAGE_SHIFT);
+            if (page == null) return false;
+            int bit = (int) (pos & PAGE_MASK);
+            return (page[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        /**
+         * 置位，返回原值
+         */
+        boolean set(long pos) {
+            long[] page = pages.computeIfAbsent(pos >>> PAGE_SHIFT, p -> new long[1 << (PAGE_SHIFT - 6)]);
+            int bit = (int) (pos & PAGE_MASK);
+            boolean previous = (page[bit >>> 6] & (1L << bit)) != 0;
+            page[bit >>> 6] |= 1L << bit;
+            return previous;
+        }
+    }
+
+    /**
+     * 单次原子操作的上下文，在 compute 内使用
+     */
+    private final class Cell {
+        final String key;
+        final long now;
+        Entry entry;
+
+        Cell(String key, Entry entry, long now) {
+            this.key = key;
+            this.entry = entry;
+            this.now = now;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T value(Type type) {
+            if (entry == null) return null;
+            if (entry.type() != type) {
+                throw wrongType(key);
+            }
+            return (T) entry.value();
+        }
+
+        /**
+         * 写入新值，seconds 小于等于 0 表示永不过期
+         */
+        void put(Type type, Object value, long seconds) {
+            entry = new Entry(type, value, seconds > 0 ? now + seconds * 1000 : 0);
+        }
+
+        /**
+         * 写入新值并保留原过期时间
+         */
+        void replace(Type type, Object value) {
+            entry = new Entry(type, value, entry != null ? entry.expireAt() : 0);
+        }
+
+        void expire(long seconds) {
+            entry = new Entry(entry.type(), entry.value(), now + seconds * 1000);
+        }
+
+        /**
+         * 写入新值并设置绝对过期时间，at 为 0 时删除
+         */
+        void putUntil(Type type, Object value, long at) {
+            entry = at > 0 ? new Entry(type, value, at) : null;
+        }
+
+        void delete() {
+            entry = null;
+        }
+    }
+
+    public InMemoryKeyValueStore(@Value("${app.store.memory.tick:10ms}") Duration tick) {
+        this(System::currentTimeMillis, tick.toMillis());
+    }
+
+    InMemoryKeyValueStore(LongSupplier clock, long tickMillis) {
+        this.clock = clock;
+        this.tickMillis = Math.max(1, tickMillis);
+        this.wheel = new TimingWheel<>(this.tickMillis, clock.getAsLong());
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        running = true;
+        sweeper = new Thread(this::runSweeper, "kv-store-expiry");
+        sweeper.setDaemon(true);
+        sweeper.start();
+        log.info("键值存储使用进程内实现，数据不跨进程共享，仅适用于单节点部署");
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        if (sweeper != null) {
+            sweeper.interrupt();
+        }
+    }
+
+    // ===== 字符串 =====
+
+    @Override
+    public String get(String key) {
+        Entry entry = live(key);
+        return entry != null ? asString(key, entry) : null;
+    }
+
+    @Override
+    public void set(String key, String value, long seconds) {
+        requirePositive(seconds);
+        atomically(key, cell -> {
+            cell.put(Type.STRING, value, seconds);
+            return null;
+        });
+    }
+
+    @Override
+    public void setAll(Map<String, String> values, long seconds) {
+        values.forEach((key, value) -> set(key, value, seconds));
+    }
+
+    @Override
+    public boolean setNx(String key, String value, long seconds) {
+        requirePositive(seconds);
+        return atomically(key, cell -> {
+            if (cell.entry != null) return false;
+            cell.put(Type.STRING, value, seconds);
+            return true;
+        });
+    }
+
+    @Override
+    public long incrBy(String key, long delta) {
+        return atomically(key, cell -> {
+            long next = parseLong(key, cell.value(Type.STRING)) + delta;
+            cell.replace(Type.STRING, String.valueOf(next));
+            return next;
+        });
+    }
+
+    @Override
+    public void incrByAll(Collection<Increment> increments) {
+        for (Increment increment : increments) {
+            atomically(increment.key(), cell -> {
+                long next = parseLong(increment.key(), cell.value(Type.STRING)) + increment.delta();
+                cell.replace(Type.STRING, String.valueOf(next));
+                if (increment.ttlSeconds() > 0) {
+                    cell.expire(increment.ttlSeconds());
+                }
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public String getAndDelete(String key) {
+        return atomically(key, cell -> {
+            String value = cell.value(Type.STRING);
+            cell.delete();
+            return value;
+        });
+    }
+
+    @Override
+    public boolean deleteIfEquals(String key, String expected) {
+        return atomically(key, cell -> {
+            if (cell.entry == null || !expected.equals(cell.value(Type.STRING))) return false;
+            cell.delete();
+            return true;
+        });
+    }
+
+    // ===== 通用 =====
+
+    @Override
+    public boolean exists(String key) {
+        return live(key) != null;
+    }
+
+    @Override
+    public List<Boolean> existsAll(List<String> keys) {
+        return keys.stream().map(this::exists).toList();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsAsync(String key) {
+        return CompletableFuture.completedFuture(exists(key));
+    }
+
+    @Override
+    public long delete(String... keys) {
+        long removed = 0;
+        for (String key : keys) {
+            boolean existed = atomically(key, cell -> {
+                boolean present = cell.entry != null;
+                cell.delete();
+                return present;
+            });
+            if (existed) removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * 源键取出后写入目标键，保留过期时间；两步之间目标键不可见，与 RENAME 一样覆盖目标键
+     */
+    @Override
+    public void rename(String oldKey, String newKey) {
+        Entry moved = atomically(oldKey, cell -> {
+            Entry entry = cell.entry;
+            cell.delete();
+            return entry;
+        });
+        if (moved == null) {
+            throw new IllegalStateException("ERR no such key: " + oldKey);
+        }
+        atomically(newKey, cell -> {
+            cell.entry = moved;
+            return null;
+        });
+    }
+
+    @Override
+    public boolean expire(String key, long seconds) {
+        return atomically(key, cell -> {
+            if (cell.entry == null) return false;
+            if (seconds <= 0) {
+                cell.delete();
+            } else {
+                cell.expire(seconds);
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public long ttl(String key) {
+        Entry entry = live(key);
+        if (entry == null) return -2;
+        if (entry.expireAt() == 0) return -1;
+        // 与 TTL 命令一样四舍五入到秒
+        return Math.max(0, (entry.expireAt() - clock.getAsLong() + 500) / 1000);
+    }
+
+    // ===== 集合 =====
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public long sadd(String key, String... members) {
+        return atomically(key, cell -> addMembers(cell, members));
+    }
+
+    @Override
+    public CompletableFuture<Long> saddAsync(String key, String... members) {
+        return CompletableFuture.completedFuture(sadd(key, members));
+    }
+
+    @Override
+    public long saddExpire(String key, long seconds, String... members) {
+        return atomically(key, cell -> {
+            long added = addMembers(cell, members);
+            if (seconds > 0) {
+                cell.expire(seconds);
+            } else {
+                cell.delete();
+            }
+            return added;
+        });
+    }
+
+    private static long addMembers(Cell cell, String... members) {
+        Set<String> set = cell.value(Type.SET);
+        if (set == null) {
+            set = new HashSet<>();
+            cell.put(Type.SET, set, 0);
+        }
+        long added = 0;
+        for (String member : members) {
+            if (set.add(member)) added++;
+        }
+        return added;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> expireAsync(String key, long seconds) {
+        return CompletableFuture.completedFuture(expire(key, seconds));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public long srem(String key, String... members) {
+        return atomically(key, cell -> {
+            Set<String> set = cell.value(Type.SET);
+            if (set == null) return 0L;
+            long removed = 0;
+            for (String member : members) {
+                if (set.remove(member)) removed++;
+            }
+            // 与 Redis 一致，空集合即删除键
+            if (set.isEmpty()) cell.delete();
+            return removed;
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<String> smembers(String key) {
+        return atomically(key, cell -> {
+            Set<String> set = cell.value(Type.SET);
+            return set != null ? Set.copyOf(set) : Set.of();
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean sismember(String key, String member) {
+        return atomically(key, cell -> {
+            Set<String> set = cell.value(Type.SET);
+            return set != null && set.contains(member);
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public long scard(String key) {
+        return atomically(key, cell -> {
+            Set<String> set = cell.value(Type.SET);
+            return set != null ? (long) set.size() : 0L;
+        });
+    }
+
+    // ===== 位图 =====
+
+    @Override
+    public List<Boolean> setBits(String key, List<long[]> positions) {
+        if (positions.isEmpty()) return List.of();
+        return atomically(key, cell -> {
+            Bitmap bitmap = cell.value(Type.BITMAP);
+            if (bitmap == null) {
+                bitmap = new Bitmap();
+                cell.put(Type.BITMAP, bitmap, 0);
+            }
+            var result = new ArrayList<Boolean>(positions.size());
+            for (long[] group : positions) {
+                boolean all = true;
+                for (long pos : group) {
+                    all &= bitmap.set(pos);
+                }
+                result.add(all);
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public List<Boolean> testBits(String key, List<long[]> positions) {
+        if (positions.isEmpty()) return List.of();
+        return atomically(key, cell -> {
+            Bitmap bitmap = cell.value(Type.BITMAP);
+            var result = new ArrayList<Boolean>(positions.size());
+            for (long[] group : positions) {
+                boolean all = bitmap != null;
+                for (int i = 0; all && i < group.length; i++) {
+                    all = bitmap.get(group[i]);
+                }
+                result.add(all);
+            }
+            return result;
+        });
+    }
+
+    // ===== 发布订阅 =====
+
+    @Override
+    public void publish(String channel, String message) {
+        List<Consumer<String>> listeners = channels.get(channel);
+        if (listeners == null) return;
+        for (Consumer<String> listener : listeners) {
+            deliver(listener, message);
+        }
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        List<Consumer<String>> listeners = channels.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>());
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    @Override
+    public void unsubscribe(String channel, Consumer<String> listener) {
+        List<Consumer<String>> listeners = channels.get(channel);
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+
+    // ===== 原子脚本 =====
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public RateLimitResult slidingWindowLimit(String key, int windowSeconds, int limit, long nowMillis) {
+        return atomically(key, cell -> {
+            TreeSet<Long> window = cell.value(Type.WINDOW);
+            if (window == null) {
+                window = new TreeSet<>();
+            }
+            // ZREMRANGEBYSCORE key 0 clearBefore
+            window.headSet(nowMillis - windowSeconds * 1000L, true).clear();
+
+            int current = window.size();
+            boolean allowed = false;
+            if (current < limit) {
+                // 成员即时间戳，同一毫秒的放行合并为一个成员，与脚本一致
+                window.add(nowMillis);
+                cell.put(Type.WINDOW, window, windowSeconds + 1);
+                current++;
+                allowed = true;
+            } else if (window.isEmpty()) {
+                cell.delete();
+            }
+
+            long reset = window.isEmpty() ? windowSeconds * 1000L : window.first() + windowSeconds * 1000L - nowMillis;
+            return new RateLimitResult(allowed, Math.max(0, limit - current), Math.max(0, reset));
+        });
+    }
+
+    @Override
+    public CompletableFuture<RateLimitResult> slidingWindowLimitAsync(String key, int windowSeconds, int limit,
+                                                                      long nowMillis) {
+        return CompletableFuture.completedFuture(slidingWindowLimit(key, windowSeconds, limit, nowMillis));
+    }
+
+    @Override
+    public RateLimitResult tokenBucketLimit(String key, double rate, int capacity, long nowMillis) {
+        return atomically(key, cell -> {
+            Bucket bucket = cell.value(Type.BUCKET);
+            double tokens = bucket != null ? bucket.tokens() : capacity;
+            long lastRefill = bucket != null ? bucket.lastRefill() : nowMillis;
+
+            double elapsed = Math.max(0, nowMillis - lastRefill);
+            tokens = Math.min(capacity, tokens + elapsed * rate / 1000);
+
+            boolean allowed = tokens >= 1;
+            if (allowed) {
+                tokens -= 1;
+            }
+            cell.put(Type.BUCKET, new Bucket(tokens, nowMillis), (long) Math.ceil(capacity / rate) + 10);
+
+            return allowed
+                ? new RateLimitResult(true, (long) Math.floor(tokens), (long) Math.ceil((capacity - tokens) * 1000 / rate))
+                : new RateLimitResult(false, 0, (long) Math.ceil((1 - tokens) * 1000 / rate));
+        });
+    }
+
+    @Override
+    public CounterResult atomicCounter(String key, long delta, int ttlSeconds, long maxValue) {
+        // 脚本使用 SET EX
+        requirePositive(ttlSeconds);
+        return atomically(key, cell -> {
+            long current = parseLong(key, cell.value(Type.STRING));
+            long next = current + delta;
+            if (maxValue > 0 && next > maxValue) {
+                return new CounterResult(false, current);
+            }
+            cell.put(Type.STRING, String.valueOf(next), ttlSeconds);
+            return new CounterResult(true, next);
+        });
+    }
+
+    // ===== 分布式锁 =====
+
+    @Override
+    public long tryLock(String name, String owner, long leaseMillis) {
+        return atomically(RedisKeys.lock(name), cell -> {
+            LeaseLock lock = lockOf(cell);
+            String holder = lock.holder(cell.now);
+            long result = -1;
+            if (holder == null) {
+                lock.grant(owner, cell.now + leaseMillis);
+            } else if (holder.equals(owner)) {
+                lock.count++;
+                lock.leaseUntil = cell.now + leaseMillis;
+            } else {
+                result = lock.remaining(cell.now);
+            }
+            settle(cell, lock);
+            return result;
+        });
+    }
+
+    @Override
+    public long tryFairLock(String name, String owner, long leaseMillis, long aliveMillis) {
+        return atomically(RedisKeys.lock(name), cell -> {
+            LeaseLock lock = lockOf(cell);
+            lock.purgeWaiters(cell.now);
+            String holder = lock.holder(cell.now);
+            long result;
+            if (owner.equals(holder)) {
+                lock.count++;
+                lock.leaseUntil = cell.now + leaseMillis;
+                result = -1;
+            } else if (holder == null && (lock.waiters.isEmpty() || lock.waiters.containsKey(owner)
+                    && lock.waiters.keySet().iterator().next().equals(owner))) {
+                lock.waiters.remove(owner);
+                lock.grant(owner, cell.now + leaseMillis);
+                result = -1;
+            } else {
+                // 已在队列中的保持原位置，只刷新存活时间
+                lock.waiters.put(owner, cell.now + aliveMillis);
+                result = lock.remaining(cell.now);
+            }
+            settle(cell, lock);
+            return result;
+        });
+    }
+
+    @Override
+    public long unlock(String name, String owner) {
+        long result = atomically(RedisKeys.lock(name), cell -> {
+            LeaseLock lock = cell.value(Type.LOCK);
+            if (lock == null || !owner.equals(lock.holder(cell.now))) return -1L;
+            if (--lock.count > 0) return lock.count;
+            lock.owner = null;
+            settle(cell, lock);
+            return 0L;
+        });
+        if (result == 0) {
+            notifyRelease(name);
+        }
+        return result;
+    }
+
+    @Override
+    public void leaveLockQueue(String name, String owner) {
+        boolean removed = atomically(RedisKeys.lock(name), cell -> {
+            LeaseLock lock = cell.value(Type.LOCK);
+            if (lock == null || lock.waiters.remove(owner) == null) return false;
+            settle(cell, lock);
+            return true;
+        });
+        if (removed) {
+            notifyRelease(name);
+        }
+    }
+
+    @Override
+    public boolean isLocked(String name) {
+        return atomically(RedisKeys.lock(name), cell -> {
+            LeaseLock lock = cell.value(Type.LOCK);
+            return lock != null && lock.holder(cell.now) != null;
+        });
+    }
+
+    @Override
+    public List<Boolean> renewLocks(List<LockHold> holds, long leaseMillis) {
+        var renewed = new ArrayList<Boolean>(holds.size());
+        for (LockHold hold : holds) {
+            renewed.add(atomically(RedisKeys.lock(hold.name()), cell -> {
+                LeaseLock lock = cell.value(Type.LOCK);
+                if (lock == null || !hold.owner().equals(lock.holder(cell.now))) return false;
+                lock.leaseUntil = cell.now + leaseMillis;
+                settle(cell, lock);
+                return true;
+            }));
+        }
+        return renewed;
+    }
+
+    @Override
+    public void addLockReleaseListener(Consumer<String> listener) {
+        if (!releaseListeners.contains(listener)) {
+            releaseListeners.add(listener);
+        }
+    }
+
+    @Override
+    public void removeLockReleaseListener(Consumer<String> listener) {
+        releaseListeners.remove(listener);
+    }
+
+    // ===== 分片延时队列 =====
+
+    @Override
+    public void delayQueueOffer(String queue, int shard, String item, long dueAtMillis) {
+        atomically(RedisKeys.delayShard(queue, shard), cell -> {
+            DelayShard delayShard = shardOf(cell);
+            delayShard.ready.add(item, dueAtMillis);
+            return null;
+        });
+    }
+
+    @Override
+    public List<DelayClaim> delayQueueClaim(String queue, int[] limits, long nowMillis, long visibilityMillis,
+                                            int maxAttempts) {
+        var claims = new ArrayList<DelayClaim>(limits.length);
+        for (int shard = 0; shard < limits.length; shard++) {
+            int limit = limits[shard];
+            claims.add(atomically(RedisKeys.delayShard(queue, shard), cell -> {
+                DelayShard delayShard = cell.value(Type.DELAY_SHARD);
+                if (delayShard == null) return new DelayClaim(-1, -1, 0, List.of());
+
+                long redelivered = 0;
+                for (String item : delayShard.inflight.popUntil(nowMillis, 1000)) {
+                    if (delayShard.attempts.merge(item, 1L, Long::sum) >= maxAttempts) {
+                        delayShard.attempts.remove(item);
+                        delayShard.dead.add(item);
+                    } else {
+                        delayShard.ready.addIfAbsent(item, nowMillis);
+                        redelivered++;
+                    }
+                }
+
+                List<String> items = limit > 0 ? delayShard.ready.popUntil(nowMillis, limit) : List.of();
+                for (String item : items) {
+                    delayShard.inflight.add(item, nowMillis + visibilityMillis);
+                }
+                var claim = new DelayClaim(delayShard.ready.firstScore(), delayShard.inflight.firstScore(),
+                    redelivered, items);
+                if (delayShard.isEmpty()) cell.delete();
+                return claim;
+            }));
+        }
+        return claims;
+    }
+
+    @Override
+    public boolean delayQueueAck(String queue, int shard, String item) {
+        return atomically(RedisKeys.delayShard(queue, shard), cell -> {
+            DelayShard delayShard = cell.value(Type.DELAY_SHARD);
+            if (delayShard == null) return false;
+            delayShard.attempts.remove(item);
+            boolean removed = delayShard.inflight.remove(item);
+            if (delayShard.isEmpty()) cell.delete();
+            return removed;
+        });
+    }
+
+    @Override
+    public boolean delayQueueRetry(String queue, int shard, String item, long visibleAtMillis) {
+        return atomically(RedisKeys.delayShard(queue, shard), cell -> {
+            DelayShard delayShard = cell.value(Type.DELAY_SHARD);
+            if (delayShard == null || !delayShard.inflight.contains(item)) return false;
+            delayShard.inflight.add(item, visibleAtMillis);
+            return true;
+        });
+    }
+
+    @Override
+    public long delayQueueDeadCount(String queue, int shards) {
+        long total = 0;
+        for (int shard = 0; shard < shards; shard++) {
+            total += atomically(RedisKeys.delayShard(queue, shard), cell -> {
+                DelayShard delayShard = cell.value(Type.DELAY_SHARD);
+                return delayShard != null ? (long) delayShard.dead.size() : 0L;
+            });
+        }
+        return total;
+    }
+
+    // ===== 内部 =====
+
+    private static LeaseLock lockOf(Cell cell) {
+        LeaseLock lock = cell.value(Type.LOCK);
+        return lock != null ? lock : new LeaseLock();
+    }
+
+    /**
+     * 按持有者与排队者重新计算锁键的过期时间，两者都没有时删除
+     */
+    private static void settle(Cell cell, LeaseLock lock) {
+        cell.putUntil(Type.LOCK, lock, lock.expireAt(cell.now));
+    }
+
+    private static DelayShard shardOf(Cell cell) {
+        DelayShard delayShard = cell.value(Type.DELAY_SHARD);
+        if (delayShard == null) {
+            delayShard = new DelayShard();
+            cell.put(Type.DELAY_SHARD, delayShard, 0);
+        }
+        return delayShard;
+    }
+
+    /**
+     * 锁释放通知在 compute 之外投递，监听器可以再次操作存储
+     */
+    private void notifyRelease(String name) {
+        for (Consumer<String> listener : releaseListeners) {
+            deliver(listener, name);
+        }
+    }
+
+    private static void deliver(Consumer<String> listener, String message) {
+        try {
+            listener.accept(message);
+        } catch (RuntimeException e) {
+            log.warn("键值存储消息处理失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 在键的 compute 内执行操作；过期时间变化时登记到时间轮，旧的登记到期后只做一次无害的检查
+     */
+    @SuppressWarnings("unchecked")
+    private <R> R atomically(String key, Function<Cell, R> operation) {
+        Object[] result = new Object[1];
+        long[] deadline = new long[1];
+        data.compute(key, (k, existing) -> {
+            long now = clock.getAsLong();
+            Entry current = existing != null && !existing.expired(now) ? existing : null;
+            var cell = new Cell(k, current, now);
+            result[0] = operation.apply(cell);
+            if (cell.entry != null && cell.entry.expireAt() > 0
+                    && (current == null || current.expireAt() != cell.entry.expireAt())) {
+                deadline[0] = cell.entry.expireAt();
+            }
+            return cell.entry;
+        });
+        if (deadline[0] > 0) {
+            schedule(key, deadline[0]);
+        }
+        return (R) result[0];
+    }
+
+    private Entry live(String key) {
+        Entry entry = data.get(key);
+        if (entry != null && entry.expired(clock.getAsLong())) {
+            data.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    private void schedule(String key, long deadline) {
+        boolean pending;
+        synchronized (wheel) {
+            pending = wheel.schedule(deadline, key);
+        }
+        if (!pending) {
+            evictIfExpired(key);
+        }
+    }
+
+    /**
+     * 仅当键此刻已过期才删除，期间被覆盖或续期的键不受影响
+     */
+    private void evictIfExpired(String key) {
+        long now = clock.getAsLong();
+        data.computeIfPresent(key, (k, entry) -> entry.expired(now) ? null : entry);
+    }
+
+    private void runSweeper() {
+        while (running) {
+            try {
+                Thread.sleep(tickMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            List<String> expired;
+            synchronized (wheel) {
+                expired = wheel.advance(clock.getAsLong());
+            }
+            expired.forEach(this::evictIfExpired);
+        }
+    }
+
+    /**
+     * SET EX 拒绝非正的过期时间，与 Redis 保持一致
+     */
+    private static void requirePositive(long seconds) {
+        if (seconds <= 0) {
+            throw new IllegalStateException("ERR invalid expire time in 'set' command");
+        }
+    }
+
+    private static String asString(String key, Entry entry) {
+        if (entry.type() != Type.STRING) {
+            throw wrongType(key);
+        }
+        return (String) entry.value();
+    }
+
+    private static IllegalStateException wrongType(String key) {
+        return new IllegalStateException("WRONGTYPE Operation against a key holding the wrong kind of value: " + key);
+    }
+
+    private static long parseLong(String key, String value) {
+        if (value == null) return 0;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("ERR value is not an integer or out of range: " + key);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package io.github.oljc.arcoserve.shared.store;
+
+import io.github.oljc.arcoserve.shared.util.RedisUtils.CounterResult;
+import io.github.oljc.arcoserve.shared.util.RedisUtils.RateLimitResult;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * 键值存储 SPI
+ * <p>
+ * 覆盖 shared 下各组件（限流、验证码、黑名单、锁、延时队列、布隆过滤器、计数与缓存）所需的操作，
+ * 语义与 Redis 命令及对应的 Lua 脚本一致：每个方法对单个键（锁、延时队列分片为单个逻辑对象）原子执行，
+ * 批量方法逐键原子、整体不保证原子。过期时间未注明单位时以秒计。
+ * 通过 {@code app.store.backend} 选择实现：{@code redis}（默认）或 {@code memory}（单节点部署，进程内，不需要 Redis）。
+ */
+public interface KeyValueStore {
+
+    /**
+     * 批量增量
+     *
+     * @param ttlSeconds 大于 0 时增量后重设过期时间
+     */
+    record Increment(String key, long delta, long ttlSeconds) {}
+
+    /**
+     * 锁的持有记录
+     */
+    record LockHold(String name, String owner) {}
+
+    /**
+     * 延时队列单个分片的领取结果
+     *
+     * @param readyAt     最早待执行时间，-1 表示没有待执行任务
+     * @param inflightAt  最早可见性超时，-1 表示没有处理中任务
+     * @param redelivered 本次回收并重新投递的任务数
+     * @param items       领取到的任务
+     */
+    record DelayClaim(long readyAt, long inflightAt, long redelivered, List<String> items) {}
+
+    // ===== 字符串 =====
+
+    String get(String key);
+
+    /**
+     * 写入并设置过期时间，seconds 必须大于 0（与 SET EX 一致）
+     */
+    void set(String key, String value, long seconds);
+
+    /**
+     * 批量写入，每个键使用相同的过期时间
+     */
+    void setAll(Map<String, String> values, long seconds);
+
+    boolean setNx(String key, String value, long seconds);
+
+    long incrBy(String key, long delta);
+
+    /**
+     * 批量累加，用于写后合并计数的写回
+     */
+    void incrByAll(Collection<Increment> increments);
+
+    /**
+     * 读取并删除，用于一次性凭证
+     */
+    String getAndDelete(String key);
+
+    /**
+     * 值等于预期时删除
+     */
+    boolean deleteIfEquals(String key, String expected);
+
+    // ===== 通用 =====
+
+    boolean exists(String key);
+
+    /**
+     * 批量判断是否存在，结果与 keys 一一对应
+     */
+    List<Boolean> existsAll(List<String> keys);
+
+    /**
+     * 异步判断是否存在；Redis 实现经近端缓存、计入热点键统计，始终读主节点，不经读路由
+     */
+    CompletableFuture<Boolean> existsAsync(String key);
+
+    long delete(String... keys);
+
+    /**
+     * 重命名，目标键已存在时覆盖，源键不存在时抛出异常
+     */
+    void rename(String oldKey, String newKey);
+
+    boolean expire(String key, long seconds);
+
+    /**
+     * 剩余秒数，-1 表示永不过期，-2 表示不存在
+     */
+    long ttl(String key);
+
+    // ===== 集合 =====
+
+    long sadd(String key, String... members);
+
+    CompletableFuture<Long> saddAsync(String key, String... members);
+
+    /**
+     * 添加成员并设置过期时间，原子执行，集合不会以无过期时间留存
+     *
+     * @return 新增成员数
+     */
+    long saddExpire(String key, long seconds, String... members);
+
+    CompletableFuture<Boolean> expireAsync(String key, long seconds);
+
+    long srem(String key, String... members);
+
+    Set<String> smembers(String key);
+
+    boolean sismember(String key, String member);
+
+    long scard(String key);
+
+    // ===== 位图 =====
+
+    /**
+     * 按组置位，每组为一个元素的全部位偏移
+     *
+     * @return 与 positions 一一对应，true 表示该组的位在置位前已全部为 1
+     */
+    List<Boolean> setBits(String key, List<long[]> positions);
+
+    /**
+     * 按组检查
+     *
+     * @return 与 positions 一一对应，true 表示该组的位全部为 1
+     */
+    List<Boolean> testBits(String key, List<long[]> positions);
+
+    // ===== 发布订阅 =====
+
+    /**
+     * 广播消息，进程内实现只投递给本进程的订阅者
+     */
+    void publish(String channel, String message);
+
+    void subscribe(String channel, Consumer<String> listener);
+
+    void unsubscribe(String channel, Consumer<String> listener);
+
+    // ===== 原子脚本 =====
+
+    /**
+     * 滑动窗口限流，对应 SLIDING_WINDOW_SCRIPT
+     */
+    RateLimitResult slidingWindowLimit(String key, int windowSeconds, int limit, long nowMillis);
+
+    /**
+     * 异步滑动窗口限流，语义同 {@link #slidingWindowLimit}
+     */
+    CompletableFuture<RateLimitResult> slidingWindowLimitAsync(String key, int windowSeconds, int limit, long nowMillis);
+
+    /**
+     * 令牌桶限流，对应 TOKEN_BUCKET_SCRIPT
+     */
+    RateLimitResult tokenBucketLimit(String key, double rate, int capacity, long nowMillis);
+
+    /**
+     * 带上限的计数，对应 ATOMIC_COUNTER_SCRIPT
+     */
+    CounterResult atomicCounter(String key, long delta, int ttlSeconds, long maxValue);
+
+    // ===== 分布式锁（按锁名，租期以毫秒计） =====
+
+    /**
+     * 加可重入锁
+     *
+     * @return -1 表示成功（含重入），否则为锁剩余毫秒数
+     */
+    long tryLock(String name, String owner, long leaseMillis);
+
+    /**
+     * 加公平锁：队列头才能获取，其余按请求顺序排队，排队者 aliveMillis 内未重试即出队
+     *
+     * @return -1 表示成功，否则为锁剩余毫秒数
+     */
+    long tryFairLock(String name, String owner, long leaseMillis, long aliveMillis);
+
+    /**
+     * 解锁，完全释放时通知 {@link #addLockReleaseListener} 登记的监听器
+     *
+     * @return 剩余重入次数，0 表示已释放，-1 表示不是持有者
+     */
+    long unlock(String name, String owner);
+
+    /**
+     * 放弃排队，并通知其余等待者
+     */
+    void leaveLockQueue(String name, String owner);
+
+    boolean isLocked(String name);
+
+    /**
+     * 批量续期
+     *
+     * @return 与 holds 一一对应，false 表示锁已不属于该持有者
+     */
+    List<Boolean> renewLocks(List<LockHold> holds, long leaseMillis);
+
+    /**
+     * 登记锁释放监听器，参数为锁名；Redis 实现可收到其他节点的释放
+     */
+    void addLockReleaseListener(Consumer<String> listener);
+
+    void removeLockReleaseListener(Consumer<String> listener);
+
+    // ===== 分片延时队列（可见性超时 + 死信） =====
+
+    /**
+     * 投递到分片，相同任务只保留一条并以最新到期时间为准
+     */
+    void delayQueueOffer(String queue, int shard, String item, long dueAtMillis);
+
+    /**
+     * 领取各分片的到期任务：先回收可见性超时的任务重新投递，失败次数达到 maxAttempts 的转入死信，
+     * 再把最多 limits[shard] 个到期任务移入处理中
+     *
+     * @return 与 limits 一一对应
+     */
+    List<DelayClaim> delayQueueClaim(String queue, int[] limits, long nowMillis, long visibilityMillis, int maxAttempts);
+
+    /**
+     * 确认完成
+     */
+    boolean delayQueueAck(String queue, int shard, String item);
+
+    /**
+     * 处理失败，改为 visibleAtMillis 后重新投递；任务已被回收时返回 false
+     */
+    boolean delayQueueRetry(String queue, int shard, String item, long visibleAtMillis);
+
+    /**
+     * 各分片死信数量之和
+     */
+    long delayQueueDeadCount(String queue, int shards);
+}
@@ -0,0 +1,233 @@
+package io.github.oljc.arcoserve.shared.store;
+
+import io.github.oljc.arcoserve.shared.store.KeyValueStore.DelayClaim;
+import io.github.oljc.arcoserve.shared.util.RedisKeys;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分片延时队列的 Redis 实现
+ * <p>
+ * 分片 i 由四个键组成：{@code delay:{queue:i}} 待执行 ZSET（score 为到期时间）、
+ * {@code :inflight} 处理中 ZSET（score 为可见性超时）、{@code :attempts} 失败次数、{@code :dead} 死信列表。
+ * 领取时一次管道对所有分片执行脚本，只发送脚本摘要，节点未缓存脚本时补发正文。
+ */
+final class RedisDelayQueueCommands {
+
+    /**
+     * 启动校验抽查的分片
+     */
+    private static final int[] SAMPLE_SHARDS = {0, 1, 63};
+
+    /**
+     * 领取任务，返回 {最早待执行时间, 最早可见性超时, 重新投递数, 任务...}，时间不存在时为 -1
+     */
+    static final RedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+        local ready, inflight, attempts, dead = KEYS[1], KEYS[2], KEYS[3], KEYS[4]
+        local now, limit, visibility, max_attempts = tonumber(ARGV[1]), tonumber(ARGV[2]), tonumber(ARGV[3]), tonumber(ARGV[4])
+
+        local redelivered = 0
+        local expired = redis.call('ZRANGEBYSCORE', inflight, '-inf', now, 'LIMIT', 0, 1000)
+        for _, item in ipairs(expired) do
+            redis.call('ZREM', inflight, item)
+            if redis.call('HINCRBY', attempts, item, 1) >= max_attempts then
+                redis.call('HDEL', attempts, item)
+                redis.call('RPUSH', dead, item)
+            else
+                redis.call('ZADD', ready, 'NX', now, item)
+                redelivered = redelivered + 1
+            end
+        end
+
+        local result = {-1, -1, redelivered}
+        if limit > 0 then
+            local items = redis.call('ZRANGEBYSCORE', ready, '-inf', now, 'LIMIT', 0, limit)
+            for _, item in ipairs(items) do
+                redis.call('ZREM', ready, item)
+                redis.call('ZADD', inflight, now + visibility, item)
+                result[#result + 1] = item
+            end
+        end
+
+        local head = redis.call('ZRANGE', ready, 0, 0, 'WITHSCORES')
+        if head[2] then result[1] = tonumber(head[2]) end
+        local pending = redis.call('ZRANGE', inflight, 0, 0, 'WITHSCORES')
+        if pending[2] then result[2] = tonumber(pending[2]) end
+        return result
+        """, List.class);
+
+    /**
+     * 确认完成
+     */
+    static final RedisScript<Long> ACK_SCRIPT = new DefaultRedisScript<>("""
+        redis.call('HDEL', KEYS[2], ARGV[1])
+        return redis.call('ZREM', KEYS[1], ARGV[1])
+        """, Long.class);
+
+    /**
+     * 处理失败，缩短可见性超时以便尽快重新投递；任务已被回收时不做处理
+     */
+    static final RedisScript<Long> RETRY_SCRIPT = new DefaultRedisScript<>("""
+        if redis.call('ZSCORE', KEYS[1], ARGV[1]) then
+            redis.call('ZADD', KEYS[1], tonumber(ARGV[2]), ARGV[1])
+            return 1
+        end
+        return 0
+        """, Long.class);
+
+    private final StringRedisTemplate redis;
+
+    RedisDelayQueueCommands(StringRedisTemplate redis) {
+        this.redis = redis;
+    }
+
+    void offer(String queue, int shard, String item, long dueAtMillis) {
+        redis.opsForZSet().add(shardKey(queue, shard), item, dueAtMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    List<DelayClaim> claim(String queue, int[] limits, long nowMillis, long visibilityMillis, int maxAttempts) {
+        int shards = limits.length;
+        byte[][][] args = new byte[shards][][];
+        for (int shard = 0; shard < shards; shard++) {
+            List<String> keys = claimKeys(shardKey(queue, shard));
+            args[shard] = new byte[][]{
+                bytes(keys.get(0)), bytes(keys.get(1)), bytes(keys.get(2)), bytes(keys.get(3)),
+                bytes(String.valueOf(nowMillis)), bytes(String.valueOf(limits[shard])),
+                bytes(String.valueOf(visibilityMillis)), bytes(String.valueOf(maxAttempts))};
+        }
+
+        List<Object> replies;
+        try {
+            replies = redis.executePipelined((RedisCallback<Object>) connection -> {
+                for (int shard = 0; shard < shards; shard++) {
+                    connection.scriptingCommands().evalSha(CLAIM_SCRIPT.getSha1(), ReturnType.MULTI, 4, args[shard]);
+                }
+                return null;
+            });
+        } catch (RedisPipelineException e) {
+            replies = retryNoScript(e, args);
+        }
+
+        var claims = new ArrayList<DelayClaim>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            List<Object> reply = (List<Object>) replies.get(shard);
+            var items = new ArrayList<String>(Math.max(0, reply.size() - 3));
+            for (int i = 3; i < reply.size(); i++) {
+                items.add(toString(reply.get(i)));
+            }
+            claims.add(new DelayClaim(toLong(reply.get(0)), toLong(reply.get(1)), Math.max(0, toLong(reply.get(2))), items));
+        }
+        return claims;
+    }
+
+    boolean ack(String queue, int shard, String item) {
+        Long removed = redis.execute(ACK_SCRIPT, ackKeys(shardKey(queue, shard)), item);
+        return removed != null && removed > 0;
+    }
+
+    boolean retry(String queue, int shard, String item, long visibleAtMillis) {
+        Long updated = redis.execute(RETRY_SCRIPT, List.of(RedisKeys.sibling(shardKey(queue, shard), "inflight")),
+            item, String.valueOf(visibleAtMillis));
+        return updated != null && updated > 0;
+    }
+
+    long deadCount(String queue, int shards) {
+        long total = 0;
+        for (int shard = 0; shard < shards; shard++) {
+            Long size = redis.opsForList().size(RedisKeys.sibling(shardKey(queue, shard), "dead"));
+            total += size != null ? size : 0;
+        }
+        return total;
+    }
+
+    /**
+     * 返回 NOSCRIPT 的分片未执行脚本，只对这些分片改用 EVAL 重发（同时载入脚本缓存）；
+     * 已执行的分片保留原结果，避免重复领取
+     */
+    private List<Object> retryNoScript(RedisPipelineException e, byte[][][] args) {
+        List<Object> replies = new ArrayList<>(e.getPipelineResult());
+        if (replies.size() != args.length) throw e;
+
+        var missing = new ArrayList<Integer>();
+        for (int shard = 0; shard < args.length; shard++) {
+            if (replies.get(shard) instanceof Throwable error) {
+                if (!isNoScript(error)) throw e;
+                missing.add(shard);
+            }
+        }
+        if (missing.isEmpty()) throw e;
+
+        byte[] script = bytes(CLAIM_SCRIPT.getScriptAsString());
+        List<Object> retried = redis.executePipelined((RedisCallback<Object>) connection -> {
+            for (int shard : missing) {
+                connection.scriptingCommands().eval(script, ReturnType.MULTI, 4, args[shard]);
+            }
+            return null;
+        });
+        for (int i = 0; i < missing.size(); i++) {
+            replies.set(missing.get(i), retried.get(i));
+        }
+        return replies;
+    }
+
+    /**
+     * 多键脚本的键组，供启动时校验槽位
+     */
+    static Map<String, List<String>> keyLayouts(String name) {
+        var layouts = new LinkedHashMap<String, List<String>>();
+        for (int shard : SAMPLE_SHARDS) {
+            layouts.put("delayQueue.claim:" + shard, claimKeys(shardKey(name, shard)));
+            layouts.put("delayQueue.ack:" + shard, ackKeys(shardKey(name, shard)));
+        }
+        return layouts;
+    }
+
+    private static String shardKey(String queue, int shard) {
+        // 哈希标签保证同一分片的四个键位于同一槽位
+        return RedisKeys.delayShard(queue, shard);
+    }
+
+    /**
+     * 领取脚本的键：待执行、处理中、失败次数、死信
+     */
+    private static List<String> claimKeys(String shardKey) {
+        return List.of(shardKey, RedisKeys.sibling(shardKey, "inflight"), RedisKeys.sibling(shardKey, "attempts"),
+            RedisKeys.sibling(shardKey, "dead"));
+    }
+
+    private static List<String> ackKeys(String shardKey) {
+        return List.of(RedisKeys.sibling(shardKey, "inflight"), RedisKeys.sibling(shardKey, "attempts"));
+    }
+
+    static boolean isNoScript(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t.getMessage() != null && t.getMessage().startsWith("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number n ? n.longValue() : -1;
+    }
+
+    private static String toString(Object value) {
+        return value instanceof byte[] raw ? new String(raw, StandardCharsets.UTF_8) : String.valueOf(value);
+    }
+}
@@ -0,0 +1,318 @@
+package io.github.oljc.arcoserve.shared.store;
+
+import io.github.oljc.arcoserve.shared.util.AsyncRedisUtils;
+import io.github.oljc.arcoserve.shared.util.RedisKeyLayoutProvider;
+import io.github.oljc.arcoserve.shared.util.RedisReadBatcher;
+import io.github.oljc.arcoserve.shared.util.RedisUtils;
+import io.github.oljc.arcoserve.shared.util.RedisUtils.CounterResult;
+import io.github.oljc.arcoserve.shared.util.RedisUtils.RateLimitResult;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Redis 实现，委托 {@link RedisUtils}，单键读取经 {@link RedisReadBatcher} 合并，异步操作经 {@link AsyncRedisUtils}；
+ * 锁与分片延时队列的脚本见 {@link RedisLockCommands}、{@link RedisDelayQueueCommands}
+ */
+@Component
+@ConditionalOnRedisStore
+public class RedisKeyValueStore implements KeyValueStore, RedisKeyLayoutProvider {
+
+    private final RedisUtils redisUtils;
+    private final RedisReadBatcher readBatcher;
+    private final AsyncRedisUtils asyncRedisUtils;
+    private final StringRedisTemplate redis;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final RedisLockCommands locks;
+    private final RedisDelayQueueCommands delayQueues;
+    private final Map<Subscription, MessageListener> subscriptions = new ConcurrentHashMap<>();
+
+    private record Subscription(String channel, Consumer<String> listener) {}
+
+    public RedisKeyValueStore(RedisUtils redisUtils, RedisReadBatcher readBatcher, AsyncRedisUtils asyncRedisUtils,
+                              StringRedisTemplate redis, RedisMessageListenerContainer listenerContainer) {
+        this.redisUtils = redisUtils;
+        this.readBatcher = readBatcher;
+        this.asyncRedisUtils = asyncRedisUtils;
+        this.redis = redis;
+        this.listenerContainer = listenerContainer;
+        this.locks = new RedisLockCommands(redis, redisUtils, listenerContainer);
+        this.delayQueues = new RedisDelayQueueCommands(redis);
+    }
+
+    @Override
+    public String get(String key) {
+        return readBatcher.get(key);
+    }
+
+    @Override
+    public void set(String key, String value, long seconds) {
+        redisUtils.set(key, value, seconds);
+    }
+
+    @Override
+    public void setAll(Map<String, String> values, long seconds) {
+        if (values.isEmpty()) return;
+        var batch = redisUtils.batch();
+        values.forEach((key, value) -> batch.set(key, value, seconds));
+        batch.execute();
+    }
+
+    @Override
+    public boolean setNx(String key, String value, long seconds) {
+        return redisUtils.setNx(key, value, seconds);
+    }
+
+    @Override
+    public long incrBy(String key, long delta) {
+        return redisUtils.incrBy(key, delta);
+    }
+
+    @Override
+    public void incrByAll(Collection<Increment> increments) {
+        if (increments.isEmpty()) return;
+        var batch = redisUtils.batch();
+        for (Increment increment : increments) {
+            batch.incrBy(increment.key(), increment.delta());
+            if (increment.ttlSeconds() > 0) {
+                batch.expire(increment.key(), increment.ttlSeconds());
+            }
+        }
+        batch.execute();
+    }
+
+    @Override
+    public String getAndDelete(String key) {
+        return redisUtils.getAndDelete(key);
+    }
+
+    @Override
+    public boolean deleteIfEquals(String key, String expected) {
+        return redisUtils.deleteIfEquals(key, expected);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return readBatcher.exists(key);
+    }
+
+    @Override
+    public List<Boolean> existsAll(List<String> keys) {
+        return redisUtils.existsAll(keys);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsAsync(String key) {
+        return asyncRedisUtils.exists(key);
+    }
+
+    @Override
+    public long delete(String... keys) {
+        return redisUtils.delete(keys);
+    }
+
+    @Override
+    public void rename(String oldKey, String newKey) {
+        redisUtils.rename(oldKey, newKey);
+    }
+
+    @Override
+    public boolean expire(String key, long seconds) {
+        return redisUtils.expire(key, seconds);
+    }
+
+    @Override
+    public long ttl(String key) {
+        return redisUtils.ttl(key);
+    }
+
+    @Override
+    public long sadd(String key, String... members) {
+        return redisUtils.sadd(key, members);
+    }
+
+    @Override
+    public CompletableFuture<Long> saddAsync(String key, String... members) {
+        return asyncRedisUtils.sadd(key, members);
+    }
+
+    @Override
+    public long saddExpire(String key, long seconds, String... members) {
+        return redisUtils.saddExpire(key, seconds, members);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> expireAsync(String key, long seconds) {
+        return asyncRedisUtils.expire(key, seconds);
+    }
+
+    @Override
+    public long srem(String key, String... members) {
+        return redisUtils.srem(key, members);
+    }
+
+    @Override
+    public Set<String> smembers(String key) {
+        return redisUtils.smembers(key);
+    }
+
+    @Override
+    public boolean sismember(String key, String member) {
+        return redisUtils.sismember(key, member);
+    }
+
+    @Override
+    public long scard(String key) {
+        return redisUtils.scard(key);
+    }
+
+    // ===== 位图 =====
+
+    @Override
+    public List<Boolean> setBits(String key, List<long[]> positions) {
+        return redisUtils.setBits(key, positions);
+    }
+
+    @Override
+    public List<Boolean> testBits(String key, List<long[]> positions) {
+        return redisUtils.testBits(key, positions);
+    }
+
+    // ===== 发布订阅 =====
+
+    @Override
+    public void publish(String channel, String message) {
+        redis.convertAndSend(channel, message);
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        MessageListener adapter = (Message message, byte[] pattern) ->
+            listener.accept(new String(message.getBody(), StandardCharsets.UTF_8));
+        if (subscriptions.putIfAbsent(new Subscription(channel, listener), adapter) == null) {
+            listenerContainer.addMessageListener(adapter, new ChannelTopic(channel));
+        }
+    }
+
+    @Override
+    public void unsubscribe(String channel, Consumer<String> listener) {
+        MessageListener adapter = subscriptions.remove(new Subscription(channel, listener));
+        if (adapter != null) {
+            listenerContainer.removeMessageListener(adapter);
+        }
+    }
+
+    // ===== 原子脚本 =====
+
+    @Override
+    public RateLimitResult slidingWindowLimit(String key, int windowSeconds, int limit, long nowMillis) {
+        return redisUtils.slidingWindowLimit(key, windowSeconds, limit, nowMillis);
+    }
+
+    @Override
+    public CompletableFuture<RateLimitResult> slidingWindowLimitAsync(String key, int windowSeconds, int limit,
+                                                                      long nowMillis) {
+        return asyncRedisUtils.slidingWindowLimit(key, windowSeconds, limit, nowMillis);
+    }
+
+    @Override
+    public RateLimitResult tokenBucketLimit(String key, double rate, int capacity, long nowMillis) {
+        return redisUtils.tokenBucketLimit(key, rate, capacity, nowMillis);
+    }
+
+    @Override
+    public CounterResult atomicCounter(String key, long delta, int ttlSeconds, long maxValue) {
+        return redisUtils.atomicCounter(key, delta, ttlSeconds, maxValue);
+    }
+
+    // ===== 分布式锁 =====
+
+    @Override
+    public long tryLock(String name, String owner, long leaseMillis) {
+        return locks.tryLock(name, owner, leaseMillis);
+    }
+
+    @Override
+    public long tryFairLock(String name, String owner, long leaseMillis, long aliveMillis) {
+        return locks.tryFairLock(name, owner, leaseMillis, aliveMillis);
+    }
+
+    @Override
+    public long unlock(String name, String owner) {
+        return locks.unlock(name, owner);
+    }
+
+    @Override
+    public void leaveLockQueue(String name, String owner) {
+        locks.leaveQueue(name, owner);
+    }
+
+    @Override
+    public boolean isLocked(String name) {
+        return locks.isLocked(name);
+    }
+
+    @Override
+    public List<Boolean> renewLocks(List<LockHold> holds, long leaseMillis) {
+        return locks.renew(holds, leaseMillis);
+    }
+
+    @Override
+    public void addLockReleaseListener(Consumer<String> listener) {
+        locks.addReleaseListener(listener);
+    }
+
+    @Override
+    public void removeLockReleaseListener(Consumer<String> listener) {
+        locks.removeReleaseListener(listener);
+    }
+
+    // ===== 分片延时队列 =====
+
+    @Override
+    public void delayQueueOffer(String queue, int shard, String item, long dueAtMillis) {
+        delayQueues.offer(queue, shard, item, dueAtMillis);
+    }
+
+    @Override
+    public List<DelayClaim> delayQueueClaim(String queue, int[] limits, long nowMillis, long visibilityMillis,
+                                            int maxAttempts) {
+        return delayQueues.claim(queue, limits, nowMillis, visibilityMillis, maxAttempts);
+    }
+
+    @Override
+    public boolean delayQueueAck(String queue, int shard, String item) {
+        return delayQueues.ack(queue, shard, item);
+    }
+
+    @Override
+    public boolean delayQueueRetry(String queue, int shard, String item, long visibleAtMillis) {
+        return delayQueues.retry(queue, shard, item, visibleAtMillis);
+    }
+
+    @Override
+    public long delayQueueDeadCount(String queue, int shards) {
+        return delayQueues.deadCount(queue, shards);
+    }
+
+    @Override
+    public Map<String, List<String>> keyLayouts(String name) {
+        var layouts = new LinkedHashMap<String, List<String>>();
+        layouts.putAll(RedisLockCommands.keyLayouts(name));
+        layouts.putAll(RedisDelayQueueCommands.keyLayouts(name));
+        return layouts;
+    }
+}
@@ -0,0 +1,241 @@
+package io.github.oljc.arcoserve.shared.store;
+
+import io.github.oljc.arcoserve.shared.store.KeyValueStore.LockHold;
+import io.github.oljc.arcoserve.shared.util.RedisBatch;
+import io.github.oljc.arcoserve.shared.util.RedisKeys;
+import io.github.oljc.arcoserve.shared.util.RedisUtils;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 分布式锁的 Redis 实现
+ * <p>
+ * 锁为可重入哈希（owner/count），公平锁的排队列表与超时 ZSET 为锁键的附属键，同一哈希标签。
+ * 完全释放时脚本向 {@code lock:release:<name>} 发布消息，本节点订阅 {@code lock:release:*} 后转给监听器。
+ */
+final class RedisLockCommands {
+
+    private static final String CHANNEL_PREFIX = "lock:release:";
+
+    /**
+     * 加锁，返回 -1 表示成功，否则返回锁剩余毫秒数
+     */
+    static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>("""
+        local key, owner, lease = KEYS[1], ARGV[1], tonumber(ARGV[2])
+        local current = redis.call('HGET', key, 'owner')
+
+        if current == false then
+            redis.call('HSET', key, 'owner', owner, 'count', 1)
+            redis.call('PEXPIRE', key, lease)
+            return -1
+        elseif current == owner then
+            redis.call('HINCRBY', key, 'count', 1)
+            redis.call('PEXPIRE', key, lease)
+            return -1
+        end
+        return redis.call('PTTL', key)
+        """, Long.class);
+
+    /**
+     * 公平加锁：队列头才能获取锁，其余进入 FIFO 队列。
+     * 队列成员在 timeouts 中记录存活截止时间，等待者每次重试时刷新，超时的队列头会被清理
+     */
+    static final RedisScript<Long> FAIR_ACQUIRE_SCRIPT = new DefaultRedisScript<>("""
+        local key, queue, timeouts = KEYS[1], KEYS[2], KEYS[3]
+        local owner, lease, now, alive = ARGV[1], tonumber(ARGV[2]), tonumber(ARGV[3]), tonumber(ARGV[4])
+
+        while true do
+            local head = redis.call('LINDEX', queue, 0)
+            if head == false then break end
+            local expires = redis.call('ZSCORE', timeouts, head)
+            if expires and tonumber(expires) > now then break end
+            redis.call('LPOP', queue)
+            redis.call('ZREM', timeouts, head)
+        end
+
+        local current = redis.call('HGET', key, 'owner')
+        if current == owner then
+            redis.call('HINCRBY', key, 'count', 1)
+            redis.call('PEXPIRE', key, lease)
+            return -1
+        end
+        if current == false then
+            local head = redis.call('LINDEX', queue, 0)
+            if head == false or head == owner then
+                if head then
+                    redis.call('LPOP', queue)
+                    redis.call('ZREM', timeouts, owner)
+                end
+                redis.call('HSET', key, 'owner', owner, 'count', 1)
+                redis.call('PEXPIRE', key, lease)
+                return -1
+            end
+        end
+
+        if redis.call('ZSCORE', timeouts, owner) == false then
+            redis.call('RPUSH', queue, owner)
+        end
+        redis.call('ZADD', timeouts, now + alive, owner)
+        if redis.call('PTTL', queue) < alive then
+            redis.call('PEXPIRE', queue, alive)
+            redis.call('PEXPIRE', timeouts, alive)
+        end
+        return math.max(redis.call('PTTL', key), 0)
+        """, Long.class);
+
+    /**
+     * 解锁，返回剩余重入次数，0 表示已释放，-1 表示不是持有者
+     */
+    static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+        local key, owner, channel = KEYS[1], ARGV[1], ARGV[2]
+        if redis.call('HGET', key, 'owner') ~= owner then
+            return -1
+        end
+
+        local count = redis.call('HINCRBY', key, 'count', -1)
+        if count > 0 then
+            return count
+        end
+        redis.call('DEL', key)
+        redis.call('PUBLISH', channel, owner)
+        return 0
+        """, Long.class);
+
+    /**
+     * 续期，返回 1 表示仍持有
+     */
+    static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>("""
+        if redis.call('HGET', KEYS[1], 'owner') == ARGV[1] then
+            redis.call('PEXPIRE', KEYS[1], tonumber(ARGV[2]))
+            return 1
+        end
+        return 0
+        """, Long.class);
+
+    /**
+     * 放弃排队，并唤醒其余等待者以便新的队列头尽快重试
+     */
+    static final RedisScript<Long> LEAVE_QUEUE_SCRIPT = new DefaultRedisScript<>("""
+        local removed = redis.call('LREM', KEYS[1], 0, ARGV[1])
+        redis.call('ZREM', KEYS[2], ARGV[1])
+        if removed > 0 then
+            redis.call('PUBLISH', ARGV[2], '')
+        end
+        return removed
+        """, Long.class);
+
+    private final StringRedisTemplate redis;
+    private final RedisUtils redisUtils;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Map<Consumer<String>, MessageListener> listeners = new ConcurrentHashMap<>();
+
+    RedisLockCommands(StringRedisTemplate redis, RedisUtils redisUtils, RedisMessageListenerContainer listenerContainer) {
+        this.redis = redis;
+        this.redisUtils = redisUtils;
+        this.listenerContainer = listenerContainer;
+    }
+
+    long tryLock(String name, String owner, long leaseMillis) {
+        Long ttl = redis.execute(ACQUIRE_SCRIPT, List.of(key(name)), owner, String.valueOf(leaseMillis));
+        return ttl != null ? ttl : 0;
+    }
+
+    long tryFairLock(String name, String owner, long leaseMillis, long aliveMillis) {
+        Long ttl = redis.execute(FAIR_ACQUIRE_SCRIPT, fairKeys(name),
+            owner, String.valueOf(leaseMillis), String.valueOf(System.currentTimeMillis()), String.valueOf(aliveMillis));
+        return ttl != null ? ttl : 0;
+    }
+
+    long unlock(String name, String owner) {
+        Long result = redis.execute(RELEASE_SCRIPT, List.of(key(name)), owner, channel(name));
+        return result != null ? result : -1;
+    }
+
+    void leaveQueue(String name, String owner) {
+        redis.execute(LEAVE_QUEUE_SCRIPT, queueKeys(name), owner, channel(name));
+    }
+
+    boolean isLocked(String name) {
+        return Boolean.TRUE.equals(redis.hasKey(key(name)));
+    }
+
+    /**
+     * 一次管道续期全部持有记录
+     */
+    List<Boolean> renew(List<LockHold> holds, long leaseMillis) {
+        if (holds.isEmpty()) return List.of();
+
+        var batch = redisUtils.batch();
+        var replies = new ArrayList<RedisBatch.Reply<Long>>(holds.size());
+        for (LockHold hold : holds) {
+            replies.add(batch.script(RENEW_SCRIPT, List.of(key(hold.name())), hold.owner(),
+                String.valueOf(leaseMillis)));
+        }
+        batch.execute();
+
+        var renewed = new ArrayList<Boolean>(holds.size());
+        for (var reply : replies) {
+            Long result = reply.get();
+            renewed.add(result != null && result > 0);
+        }
+        return renewed;
+    }
+
+    void addReleaseListener(Consumer<String> listener) {
+        MessageListener adapter = (Message message, byte[] pattern) -> {
+            String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+            listener.accept(channel.substring(CHANNEL_PREFIX.length()));
+        };
+        if (listeners.putIfAbsent(listener, adapter) == null) {
+            listenerContainer.addMessageListener(adapter, new PatternTopic(CHANNEL_PREFIX + "*"));
+        }
+    }
+
+    void removeReleaseListener(Consumer<String> listener) {
+        MessageListener adapter = listeners.remove(listener);
+        if (adapter != null) {
+            listenerContainer.removeMessageListener(adapter);
+        }
+    }
+
+    /**
+     * 多键脚本的键组，供启动时校验槽位
+     */
+    static Map<String, List<String>> keyLayouts(String name) {
+        return Map.of("lock.fairAcquire", fairKeys(name), "lock.leaveQueue", queueKeys(name));
+    }
+
+    private static String key(String name) {
+        // 哈希标签保证锁与排队键位于同一槽位
+        return RedisKeys.lock(name);
+    }
+
+    /**
+     * 公平锁脚本的键：锁、排队列表、排队超时
+     */
+    private static List<String> fairKeys(String name) {
+        String key = key(name);
+        return List.of(key, RedisKeys.sibling(key, "queue"), RedisKeys.sibling(key, "timeouts"));
+    }
+
+    private static List<String> queueKeys(String name) {
+        String key = key(name);
+        return List.of(RedisKeys.sibling(key, "queue"), RedisKeys.sibling(key, "timeouts"));
+    }
+
+    private static String channel(String name) {
+        return CHANNEL_PREFIX + name;
+    }
+}
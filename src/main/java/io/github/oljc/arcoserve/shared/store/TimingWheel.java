@@ -0,0 +1,104 @@
+package io.github.oljc.arcoserve.shared.store;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分层时间轮
+ * <p>
+ * 4 层、每层 64 格，第 L 层每格跨度 64^L 个 tick。任务按剩余 tick 数放入能容纳它的最低层；
+ * 每推进一个 tick，低位全部归零的高层当前格整体下沉重新放置，第 0 层当前格即为到期任务。
+ * 插入与到期均为 O(1)，超出总跨度的任务暂存最高层最远一格，轮到时再下沉。
+ * 非线程安全，由调用方加锁。
+ */
+final class TimingWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final ArrayDeque<Task<T>>[][] buckets;
+    private long currentTick;
+    private int size;
+
+    private record Task<T>(long dueTick, T payload) {}
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        this.buckets = new ArrayDeque[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                buckets[level][slot] = new ArrayDeque<>();
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 加入任务，已到期时返回 false 由调用方立即处理
+     */
+    boolean schedule(long deadlineMillis, T payload) {
+        // 向上取整，保证不早于截止时间触发
+        long dueTick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        if (dueTick <= currentTick) return false;
+        place(new Task<>(dueTick, payload));
+        size++;
+        return true;
+    }
+
+    /**
+     * 推进到 nowMillis，返回期间到期的任务
+     */
+    List<T> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        List<T> expired = new ArrayList<>();
+        while (currentTick < target) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                    cascade(buckets[level][(int) (currentTick >>> (BITS * level)) & MASK], expired);
+                }
+            }
+            var due = buckets[0][(int) currentTick & MASK];
+            while (!due.isEmpty()) {
+                expired.add(due.poll().payload());
+                size--;
+            }
+        }
+        return expired;
+    }
+
+    private void cascade(ArrayDeque<Task<T>> bucket, List<T> expired) {
+        int n = bucket.size();
+        for (int i = 0; i < n; i++) {
+            Task<T> task = bucket.poll();
+            if (task.dueTick() <= currentTick) {
+                expired.add(task.payload());
+                size--;
+            } else {
+                place(task);
+            }
+        }
+    }
+
+    private void place(Task<T> task) {
+        long delta = task.dueTick() - currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (BITS * (level + 1))) {
+                buckets[level][(int) (task.dueTick() >>> (BITS * level)) & MASK].add(task);
+                return;
+            }
+        }
+        // 超出总跨度：放在最高层最远一格，轮到时重新计算
+        int top = LEVELS - 1;
+        buckets[top][(int) ((currentTick >>> (BITS * top)) + MASK) & MASK].add(task);
+    }
+}
@@ -0,0 +1,239 @@
+package io.github.oljc.arcoserve.shared.util;
+
+import io.github.oljc.arcoserve.shared.store.ConditionalOnRedisStore;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.codec.StringCodec;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 非阻塞 Redis 工具类
+ * <p>
+ * 与 {@link RedisUtils} 对应的异步版本，基于一条独立的 Lettuce 多路复用连接，所有方法立即返回 {@link CompletableFuture}。
+ * 调用方可以同时发起多个命令后统一 join，把串行往返合并为一次等待。
+ * 跟踪前缀下的读取与写入同样经过 {@link TrackingNearCache}，访问同样计入 {@link HotKeyDetector}，
+ * 写入失效热点键的本地副本；热点键的本地应答只用于同步读取。
+ * 读取不经过 {@link RedisReadRouter}，始终走主节点：主要调用方是鉴权过滤器的黑名单 EXISTS，
+ * 令牌吊销需要读己之写，且黑名单前缀默认被近端缓存跟踪，本就固定在主节点。
+ */
+@Component
+@ConditionalOnRedisStore
+public class AsyncRedisUtils implements DisposableBean {
+
+    private final RedisConnectionFactory connectionFactory;
+    private final TrackingNearCache nearCache;
+    private final HotKeyDetector hotKeys;
+
+    private volatile StatefulConnection<String, String> connection;
+    private volatile RedisClusterAsyncCommands<String, String> commands;
+
+    public AsyncRedisUtils(RedisConnectionFactory connectionFactory, TrackingNearCache nearCache,
+                           HotKeyDetector hotKeys) {
+        this.connectionFactory = connectionFactory;
+        this.nearCache = nearCache;
+        this.hotKeys = hotKeys;
+    }
+
+    @Override
+    public void destroy() {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    // ===== 基础操作 =====
+
+    public CompletableFuture<String> get(String key) {
+        hotKeys.record(key);
+        return nearCache.readAsync(key, "get", () -> async().get(key).toCompletableFuture());
+    }
+
+    public CompletableFuture<Void> set(String key, String value, long seconds) {
+        return written(async().setex(key, seconds, value).toCompletableFuture().thenAccept(ok -> {}), key);
+    }
+
+    public CompletableFuture<Boolean> exists(String key) {
+        hotKeys.record(key);
+        return nearCache.readAsync(key, "exists",
+            () -> async().exists(key).toCompletableFuture().thenApply(count -> count != null && count > 0));
+    }
+
+    public CompletableFuture<Long> delete(String... keys) {
+        if (keys.length == 0) return CompletableFuture.completedFuture(0L);
+        return written(async().del(keys).toCompletableFuture(), keys);
+    }
+
+    public CompletableFuture<Boolean> expire(String key, long seconds) {
+        return written(async().expire(key, seconds).toCompletableFuture().thenApply(Boolean.TRUE::equals), key);
+    }
+
+    public CompletableFuture<Long> incr(String key) {
+        return written(async().incr(key).toCompletableFuture(), key);
+    }
+
+    public CompletableFuture<Map<String, String>> mget(Collection<String> keys) {
+        if (keys.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+        keys.forEach(hotKeys::record);
+
+        return async().mget(keys.toArray(String[]::new)).toCompletableFuture().thenApply(values -> {
+            Map<String, String> result = new HashMap<>(values.size());
+            for (KeyValue<String, String> kv : values) {
+                if (kv.hasValue()) {
+                    result.put(kv.getKey(), kv.getValue());
+                }
+            }
+            return result;
+        });
+    }
+
+    public CompletableFuture<String> hget(String key, String field) {
+        hotKeys.record(key);
+        return nearCache.readAsync(key, "hget:" + field, () -> async().hget(key, field).toCompletableFuture());
+    }
+
+    public CompletableFuture<Long> sadd(String key, String... members) {
+        return written(async().sadd(key, members).toCompletableFuture(), key);
+    }
+
+    public CompletableFuture<Long> srem(String key, String... members) {
+        return written(async().srem(key, members).toCompletableFuture(), key);
+    }
+
+    public CompletableFuture<Boolean> sismember(String key, String member) {
+        hotKeys.record(key);
+        return nearCache.readAsync(key, "sismember:" + member,
+            () -> async().sismember(key, member).toCompletableFuture().thenApply(Boolean.TRUE::equals));
+    }
+
+    // ===== 脚本 =====
+
+    /**
+     * 滑动窗口限流
+     */
+    public CompletableFuture<RedisUtils.RateLimitResult> slidingWindowLimit(String key, int windowSeconds, int limit) {
+        return slidingWindowLimit(key, windowSeconds, limit, System.currentTimeMillis());
+    }
+
+    /**
+     * 滑动窗口限流（指定当前时间）
+     */
+    public CompletableFuture<RedisUtils.RateLimitResult> slidingWindowLimit(String key, int windowSeconds, int limit,
+                                                                            long nowMillis) {
+        hotKeys.record(key);
+        return this.<List<Object>>eval(RedisUtils.SLIDING_WINDOW_SCRIPT, ScriptOutputType.MULTI, new String[]{key},
+                String.valueOf(windowSeconds), String.valueOf(limit), String.valueOf(nowMillis))
+            .thenApply(AsyncRedisUtils::toRateLimitResult);
+    }
+
+    /**
+     * 令牌桶限流
+     */
+    public CompletableFuture<RedisUtils.RateLimitResult> tokenBucketLimit(String key, double rate, int capacity) {
+        hotKeys.record(key);
+        return this.<List<Object>>eval(RedisUtils.TOKEN_BUCKET_SCRIPT, ScriptOutputType.MULTI, new String[]{key},
+                String.valueOf(rate), String.valueOf(capacity), String.valueOf(System.currentTimeMillis()))
+            .thenApply(AsyncRedisUtils::toRateLimitResult);
+    }
+
+    /**
+     * 原子计数器
+     */
+    public CompletableFuture<RedisUtils.CounterResult> atomicCounter(String key, long delta, int ttlSeconds, long maxValue) {
+        hotKeys.record(key);
+        return this.<List<Object>>eval(RedisUtils.ATOMIC_COUNTER_SCRIPT, ScriptOutputType.MULTI, new String[]{key},
+                String.valueOf(delta), String.valueOf(ttlSeconds), String.valueOf(maxValue))
+            .thenApply(result -> result != null && result.size() >= 2
+                ? new RedisUtils.CounterResult(toLong(result.get(0)) == 1, toLong(result.get(1)))
+                : new RedisUtils.CounterResult(false, 0));
+    }
+
+    /**
+     * 执行脚本，优先 EVALSHA，脚本未缓存时回退 EVAL
+     */
+    public <T> CompletableFuture<T> eval(RedisScript<?> script, ScriptOutputType outputType,
+                                         String[] keys, String... args) {
+        var commands = async();
+        CompletableFuture<T> evalSha = commands.<T>evalsha(script.getSha1(), outputType, keys, args)
+            .toCompletableFuture();
+        return evalSha.exceptionallyCompose(ex -> {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof RedisNoScriptException) {
+                return commands.<T>eval(script.getScriptAsString(), outputType, keys, args).toCompletableFuture();
+            }
+            return CompletableFuture.<T>failedFuture(cause);
+        });
+    }
+
+    /**
+     * 写入完成后失效本地副本
+     */
+    private <T> CompletableFuture<T> written(CompletableFuture<T> future, String... keys) {
+        return future.whenComplete((result, error) -> {
+            for (String key : keys) {
+                hotKeys.written(key);
+                nearCache.written(key);
+            }
+        });
+    }
+
+    private static RedisUtils.RateLimitResult toRateLimitResult(List<Object> raw) {
+        List<Long> result = new ArrayList<>(raw != null ? raw.size() : 0);
+        if (raw != null) {
+            raw.forEach(value -> result.add(toLong(value)));
+        }
+        return RedisUtils.toRateLimitResult(result);
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number n ? n.longValue() : 0L;
+    }
+
+    private RedisClusterAsyncCommands<String, String> async() {
+        var current = commands;
+        if (current != null) return current;
+
+        synchronized (this) {
+            if (commands == null) {
+                connect();
+            }
+            return commands;
+        }
+    }
+
+    private void connect() {
+        if (!(connectionFactory instanceof LettuceConnectionFactory lettuce)) {
+            throw new IllegalStateException("异步 Redis 需要 Lettuce 连接工厂");
+        }
+
+        AbstractRedisClient client = lettuce.getRequiredNativeClient();
+        if (client instanceof RedisClient redisClient) {
+            var conn = redisClient.connect(StringCodec.UTF8);
+            connection = conn;
+            commands = conn.async();
+        } else if (client instanceof RedisClusterClient clusterClient) {
+            var conn = clusterClient.connect(StringCodec.UTF8);
+            connection = conn;
+            commands = conn.async();
+        } else {
+            throw new IllegalStateException("不支持的 Redis 客户端: " + client.getClass().getName());
+        }
+    }
+}
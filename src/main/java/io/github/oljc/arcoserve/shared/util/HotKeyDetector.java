@@ -0,0 +1,299 @@
+package io.github.oljc.arcoserve.shared.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.oljc.arcoserve.shared.store.ConditionalOnRedisStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 热点键探测与本地提升
+ * <p>
+ * {@link RedisUtils} 的键访问按 1/sampleRate 采样计入 Space-Saving 草图。草图按键哈希分为 {@value #STRIPES} 个分片，
+ * 各分片独立加锁、容量 capacity/{@value #STRIPES}，同一个键只落在一个分片，估计误差不超过该分片的采样数/分片容量。
+ * 每个窗口结束时，保证计数（count - error，真实计数的下界）折算的 QPS 超过阈值的键成为热点键，
+ * 被挤出的长尾键继承的误差不会让它们误升为热点：此后本节点对它的 get/hget/hgetall 由短 TTL 本地缓存应答，
+ * 经本节点的写入立即失效本地副本，其他节点的写入最迟 localTtl 后可见。
+ * 热点集合按窗口重新计算，冷却的键自动降级。默认关闭。
+ */
+@Slf4j
+@Component
+@ConditionalOnRedisStore
+public class HotKeyDetector implements InitializingBean, DisposableBean {
+
+    private static final Object NULL = new Object();
+    private static final String ALL_FIELDS = "\u0000*";
+    private static final int STRIPES = 16;
+
+    private final boolean enabled;
+    private final int sampleRate;
+    private final long windowMillis;
+    private final long thresholdQps;
+    private final int maxHot;
+    private final SpaceSaving[] sketch;
+    private final Cache<Slot, Object> local;
+    private final Counter localHits;
+
+    private volatile Set<String> hot = Set.of();
+    private volatile List<HotKey> report = List.of();
+    private ScheduledExecutorService rotator;
+
+    /**
+     * 热点键报告
+     *
+     * @param key          键
+     * @param estimatedQps 估算 QPS（上界）
+     * @param errorQps     估算误差上界，真实 QPS 不低于 estimatedQps - errorQps
+     */
+    public record HotKey(String key, long estimatedQps, long errorQps) {}
+
+    /**
+     * 本地缓存槽位，field 为空表示整个字符串值
+     */
+    private record Slot(String key, String field) {}
+
+    public HotKeyDetector(
+            MeterRegistry meterRegistry,
+            @Value("${app.redis.hot-key.enabled:false}") boolean enabled,
+            @Value("${app.redis.hot-key.sample-rate:8}") int sampleRate,
+            @Value("${app.redis.hot-key.capacity:256}") int capacity,
+            @Value("${app.redis.hot-key.window:10s}") Duration window,
+            @Value("${app.redis.hot-key.threshold:500}") long thresholdQps,
+            @Value("${app.redis.hot-key.max-hot:64}") int maxHot,
+            @Value("${app.redis.hot-key.local-ttl:1s}") Duration localTtl,
+            @Value("${app.redis.hot-key.local-max-size:4096}") long localMaxSize
+    ) {
+        this.enabled = enabled;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.windowMillis = window.toMillis();
+        this.thresholdQps = thresholdQps;
+        this.maxHot = maxHot;
+        this.sketch = new SpaceSaving[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            sketch[i] = new SpaceSaving((Math.max(1, capacity) + STRIPES - 1) / STRIPES);
+        }
+        this.local = Caffeine.newBuilder()
+            .maximumSize(localMaxSize)
+            .expireAfterWrite(localTtl)
+            .build();
+        this.localHits = Counter.builder("redis.hotkey.local.hits")
+            .description("热点键由本地缓存应答的次数")
+            .register(meterRegistry);
+        Gauge.builder("redis.hotkey.count", this, d -> d.hot.size())
+            .description("当前热点键数量")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 不做探测的实例，用于脱离 Spring 容器构造 RedisUtils
+     */
+    public static HotKeyDetector disabled() {
+        return new HotKeyDetector(new SimpleMeterRegistry(), false, 1, 1, Duration.ofSeconds(10), Long.MAX_VALUE, 0,
+            Duration.ofSeconds(1), 1);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) return;
+
+        rotator = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "redis-hotkey-rotate");
+            t.setDaemon(true);
+            return t;
+        });
+        rotator.scheduleAtFixedRate(this::rotate, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (rotator != null) {
+            rotator.shutdownNow();
+        }
+    }
+
+    /**
+     * 当前热点键，按保证 QPS（estimatedQps - errorQps）降序
+     */
+    public List<HotKey> hotKeys() {
+        return report;
+    }
+
+    public boolean isHot(String key) {
+        return hot.contains(key);
+    }
+
+    // ===== 供 RedisUtils 调用 =====
+
+    /**
+     * 读取字符串值
+     */
+    <T> T read(String key, Supplier<T> loader) {
+        return read(key, null, loader);
+    }
+
+    /**
+     * 读取哈希字段，field 为空时读取整个哈希
+     */
+    @SuppressWarnings("unchecked")
+    <T> T read(String key, String field, Supplier<T> loader) {
+        if (!enabled) return loader.get();
+
+        record(key);
+        if (!hot.contains(key)) return loader.get();
+
+        var slot = new Slot(key, field);
+        Object cached = local.getIfPresent(slot);
+        if (cached != null) {
+            localHits.increment();
+            return cached == NULL ? null : (T) cached;
+        }
+        T value = loader.get();
+        local.put(slot, value != null ? value : NULL);
+        return value;
+    }
+
+    /**
+     * 整体读取哈希
+     */
+    <T> T readAll(String key, Supplier<T> loader) {
+        return read(key, ALL_FIELDS, loader);
+    }
+
+    /**
+     * 记录写入：计数并失效本地副本
+     */
+    void written(String key) {
+        if (!enabled) return;
+
+        record(key);
+        if (hot.contains(key)) {
+            local.asMap().keySet().removeIf(slot -> slot.key().equals(key));
+        }
+    }
+
+    /**
+     * 只计数，用于脚本等无法本地缓存的访问
+     */
+    void record(String key) {
+        if (!enabled) return;
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) return;
+        int h = key.hashCode();
+        sketch[(h ^ (h >>> 16)) & (STRIPES - 1)].offer(key);
+    }
+
+    /**
+     * 窗口结束：按估算 QPS 重新计算热点集合并重置草图
+     */
+    private void rotate() {
+        try {
+            double scale = (double) sampleRate * 1000 / windowMillis;
+            var tallies = new ArrayList<Tally>();
+            for (SpaceSaving stripe : sketch) {
+                tallies.addAll(stripe.drain());
+            }
+            tallies.sort(Comparator.comparingLong(Tally::guaranteed).reversed());
+
+            var nextHot = new HashSet<String>();
+            var nextReport = new ArrayList<HotKey>();
+            for (Tally tally : tallies) {
+                // 按真实计数的下界提升，误差大的新进键需要自身访问量足够才会成为热点
+                if (Math.round(tally.guaranteed() * scale) < thresholdQps || nextReport.size() >= maxHot) break;
+
+                nextHot.add(tally.key);
+                nextReport.add(new HotKey(tally.key, Math.round(tally.count * scale), Math.round(tally.error * scale)));
+            }
+
+            var previous = hot;
+            hot = Set.copyOf(nextHot);
+            report = List.copyOf(nextReport);
+            if (!previous.isEmpty()) {
+                local.asMap().keySet().removeIf(slot -> !nextHot.contains(slot.key()));
+            }
+            if (!nextHot.equals(previous)) {
+                log.info("Redis 热点键更新: {}", nextReport);
+            }
+        } catch (Exception e) {
+            log.warn("Redis 热点键统计失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Space-Saving 草图分片：固定 capacity 个计数器，满时替换最小计数器并继承其计数作为误差
+     */
+    private static final class SpaceSaving {
+        private final int capacity;
+        private Map<String, Tally> tallies;
+
+        SpaceSaving(int capacity) {
+            this.capacity = Math.max(1, capacity);
+            this.tallies = new HashMap<>(this.capacity * 2);
+        }
+
+        synchronized void offer(String key) {
+            Tally tally = tallies.get(key);
+            if (tally != null) {
+                tally.count++;
+                return;
+            }
+            if (tallies.size() < capacity) {
+                tallies.put(key, new Tally(key, 1, 0));
+                return;
+            }
+
+            Tally min = null;
+            for (Tally candidate : tallies.values()) {
+                if (min == null || candidate.count < min.count) {
+                    min = candidate;
+                }
+            }
+            tallies.remove(min.key);
+            tallies.put(key, new Tally(key, min.count + 1, min.count));
+        }
+
+        /**
+         * 取出全部计数器并重置
+         */
+        synchronized List<Tally> drain() {
+            var result = new ArrayList<>(tallies.values());
+            tallies = new HashMap<>(capacity * 2);
+            return result;
+        }
+    }
+
+    private static final class Tally {
+        final String key;
+        long count;
+        final long error;
+
+        Tally(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        long guaranteed() {
+            return count - error;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package io.github.oljc.arcoserve.shared.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.github.oljc.arcoserve.shared.store.KeyValueStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 防击穿的读穿透缓存加载器
+ * <p>
+ * 三层保护：
+ * <ul>
+ *   <li>进程内单飞：同一键的并发未命中只执行一次加载，其余线程等待同一个结果</li>
+ *   <li>跨节点租约：加载前抢占 {@code <key>:lease}，未抢到的节点等待持有者写入，租约超时后自行加载兜底</li>
+ *   <li>过期前刷新：值内记录逻辑过期时间与加载耗时，按 XFetch 概率提前在后台刷新；
+ *       逻辑过期后在 staleWindow 内仍返回旧值并后台刷新，热点键不会在负载下失效</li>
+ * </ul>
+ * 值以 JSON 存储为 {@code <逻辑过期毫秒>:<加载耗时毫秒>:<json>}，物理 TTL 为逻辑 TTL 加 staleWindow，逻辑 TTL 叠加随机抖动。
+ * <pre>
+ * User user = readThroughCache.get("user:" + id, User.class, Duration.ofMinutes(10), () -> repository.load(id));
+ * </pre>
+ */
+@Slf4j
+@Component
+public class ReadThroughCache implements DisposableBean {
+
+    private static final String LEASE_SUFFIX = ":lease";
+    private static final long LEASE_WAIT_STEP_MILLIS = 20;
+
+    private final KeyValueStore store;
+    private final long leaseMillis;
+    private final long staleWindowMillis;
+    private final double beta;
+    private final double jitter;
+
+    private final Map<String, CompletableFuture<String>> inflight = new ConcurrentHashMap<>();
+    private final ExecutorService refresher = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("cache-refresh-", 0).factory());
+
+    /**
+     * 缓存条目
+     */
+    private record Entry(long expiresAt, long computeMillis, String json) {
+
+        static Entry parse(String raw) {
+            if (raw == null) return null;
+            int first = raw.indexOf(':');
+            int second = first < 0 ? -1 : raw.indexOf(':', first + 1);
+            if (second < 0) return null;
+            try {
+                return new Entry(Long.parseLong(raw, 0, first, 10),
+                    Long.parseLong(raw, first + 1, second, 10), raw.substring(second + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        String encode() {
+            return expiresAt + ":" + computeMillis + ":" + json;
+        }
+    }
+
+    public ReadThroughCache(
+            KeyValueStore store,
+            @Value("${app.cache.read-through.lease:10s}") Duration lease,
+            @Value("${app.cache.read-through.stale-window:5m}") Duration staleWindow,
+            @Value("${app.cache.read-through.beta:1.0}") double beta,
+            @Value("${app.cache.read-through.jitter:0.1}") double jitter
+    ) {
+        this.store = store;
+        this.leaseMillis = lease.toMillis();
+        this.staleWindowMillis = staleWindow.toMillis();
+        this.beta = beta;
+        this.jitter = jitter;
+    }
+
+    @Override
+    public void destroy() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * 读取缓存，未命中时加载并写入
+     */
+    public <T> T get(String key, Class<T> type, Duration ttl, Supplier<T> loader) {
+        return get(key, json -> JsonUtils.fromJson(json, type), ttl, loader);
+    }
+
+    /**
+     * 读取缓存（泛型），未命中时加载并写入
+     */
+    public <T> T get(String key, TypeReference<T> type, Duration ttl, Supplier<T> loader) {
+        return get(key, json -> JsonUtils.fromJson(json, type), ttl, loader);
+    }
+
+    /**
+     * 删除缓存
+     */
+    public void evict(String key) {
+        store.delete(key);
+    }
+
+    private <T> T get(String key, Function<String, T> decoder, Duration ttl, Supplier<T> loader) {
+        Entry entry = read(key);
+        if (entry != null) {
+            if (shouldRefresh(entry, System.currentTimeMillis())) {
+                refreshAsync(key, ttl, loader);
+            }
+            return decoder.apply(entry.json());
+        }
+        return decoder.apply(loadShared(key, ttl, loader));
+    }
+
+    /**
+     * XFetch：now - delta * beta * ln(rand) >= expiry 时提前刷新，加载越慢、越接近过期越容易触发
+     */
+    private boolean shouldRefresh(Entry entry, long now) {
+        if (now >= entry.expiresAt()) return true;
+        double rand = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return now - entry.computeMillis() * beta * Math.log(rand) >= entry.expiresAt();
+    }
+
+    /**
+     * 未命中：本进程内单飞，由发起线程加载
+     */
+    private String loadShared(String key, Duration ttl, Supplier<?> loader) {
+        var flight = new CompletableFuture<String>();
+        var existing = inflight.putIfAbsent(key, flight);
+        if (existing != null) {
+            String json = join(existing);
+            // 后台刷新未抢到租约时结果为空，此时自行加载
+            return json != null ? json : loadWithLease(key, ttl, loader, false);
+        }
+
+        try {
+            String json = loadWithLease(key, ttl, loader, false);
+            flight.complete(json);
+            return json;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflight.remove(key, flight);
+        }
+    }
+
+    /**
+     * 旧值仍可用：后台刷新，同一键同时只有一个刷新任务
+     */
+    private void refreshAsync(String key, Duration ttl, Supplier<?> loader) {
+        var flight = new CompletableFuture<String>();
+        if (inflight.putIfAbsent(key, flight) != null) return;
+
+        try {
+            refresher.execute(() -> {
+                try {
+                    flight.complete(loadWithLease(key, ttl, loader, true));
+                } catch (RuntimeException e) {
+                    log.warn("缓存后台刷新失败: key={}, error={}", key, e.getMessage());
+                    flight.completeExceptionally(e);
+                } finally {
+                    inflight.remove(key, flight);
+                }
+            });
+        } catch (RuntimeException e) {
+            inflight.remove(key, flight);
+            flight.complete(null);
+        }
+    }
+
+    /**
+     * 抢占跨节点租约后加载；后台刷新未抢到租约时直接放弃，返回 null
+     */
+    private String loadWithLease(String key, Duration ttl, Supplier<?> loader, boolean refresh) {
+        String leaseKey = key + LEASE_SUFFIX;
+        String token = UUID.randomUUID().toString();
+        long leaseSeconds = Math.max(1, (leaseMillis + 999) / 1000);
+        long deadline = System.currentTimeMillis() + leaseMillis;
+
+        while (true) {
+            boolean leased;
+            try {
+                leased = store.setNx(leaseKey, token, leaseSeconds);
+            } catch (RuntimeException e) {
+                log.warn("缓存租约获取失败，直接加载: key={}, error={}", key, e.getMessage());
+                return save(key, ttl, loader);
+            }
+
+            if (leased) {
+                try {
+                    // 抢到租约前其他节点可能已写入
+                    Entry current = read(key);
+                    if (current != null && !(refresh && System.currentTimeMillis() >= current.expiresAt())) {
+                        return current.json();
+                    }
+                    return save(key, ttl, loader);
+                } finally {
+                    store.deleteIfEquals(leaseKey, token);
+                }
+            }
+            if (refresh) return null;
+
+            // 其他节点正在加载，等待其写入；持有者卡住时自行加载兜底
+            try {
+                Thread.sleep(LEASE_WAIT_STEP_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return save(key, ttl, loader);
+            }
+            Entry loaded = read(key);
+            if (loaded != null) return loaded.json();
+            if (System.currentTimeMillis() >= deadline) return save(key, ttl, loader);
+        }
+    }
+
+    private String save(String key, Duration ttl, Supplier<?> loader) {
+        long start = System.nanoTime();
+        Object value = loader.get();
+        long computeMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        long ttlMillis = RedisUtils.randomTtl(ttl.toMillis(), (long) (ttl.toMillis() * jitter));
+        var entry = new Entry(System.currentTimeMillis() + ttlMillis, computeMillis, JsonUtils.toJson(value));
+        try {
+            store.set(key, entry.encode(), Math.max(1, (ttlMillis + staleWindowMillis + 999) / 1000));
+        } catch (RuntimeException e) {
+            log.warn("缓存写入失败: key={}, error={}", key, e.getMessage());
+        }
+        return entry.json();
+    }
+
+    private Entry read(String key) {
+        try {
+            return Entry.parse(store.get(key));
+        } catch (RuntimeException e) {
+            log.warn("缓存读取失败，按未命中处理: key={}, error={}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String join(CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package io.github.oljc.arcoserve.shared.util;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Redis 批量管道
+ * <p>
+ * 收集多条异构命令，调用 {@link #execute()} 时通过 pipeline 一次性发送，超大批次按 chunkSize 分段。
+ * 每条命令返回一个 {@link Reply}，执行后可取得强类型结果。
+ * 集群模式下先按首个键的槽位稳定排序再分段，同一槽位的命令相邻发送，同一键上的命令保持原有顺序。
+ * 执行后对写命令（含脚本）涉及的键回调 onWrite，由 {@link RedisUtils} 失效热点键与跟踪缓存的本地副本。
+ * <pre>
+ * var batch = redisUtils.batch();
+ * var exists = batch.exists("a");
+ * batch.set("b", "1", 60);
+ * batch.execute();
+ * exists.get();
+ * </pre>
+ * 非线程安全，单次使用。
+ */
+public final class RedisBatch {
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+    private static final String[] NO_WRITES = {};
+
+    private final StringRedisTemplate redis;
+    private final int chunkSize;
+    private final boolean slotAware;
+    private final Consumer<String> onWrite;
+    private final List<Command<?>> commands = new ArrayList<>();
+    private boolean executed;
+
+    RedisBatch(StringRedisTemplate redis, int chunkSize) {
+        this(redis, chunkSize, key -> {});
+    }
+
+    RedisBatch(StringRedisTemplate redis, int chunkSize, Consumer<String> onWrite) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize 必须大于0");
+        }
+        this.redis = redis;
+        this.chunkSize = chunkSize;
+        this.onWrite = onWrite;
+        this.slotAware = redis.getConnectionFactory() instanceof LettuceConnectionFactory factory
+            && factory.isClusterAware();
+    }
+
+    /**
+     * 批量命令的返回值，execute 之后可用
+     */
+    public static final class Reply<T> {
+        private T value;
+        private boolean done;
+
+        public T get() {
+            if (!done) {
+                throw new IllegalStateException("批量命令尚未执行");
+            }
+            return value;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        private void complete(T value) {
+            this.value = value;
+            this.done = true;
+        }
+    }
+
+    /**
+     * @param writes 命令写入的键，只读命令为空
+     */
+    private record Command<T>(int slot, Consumer<RedisConnection> action, Function<Object, T> converter, Reply<T> reply,
+                              String[] writes) {
+        void complete(Object raw) {
+            reply.complete(converter.apply(raw));
+        }
+    }
+
+    // ===== 命令 =====
+
+    public Reply<Boolean> set(String key, String value, long seconds) {
+        return write(key, conn -> conn.stringCommands().set(bytes(key), bytes(value),
+            Expiration.seconds(seconds), RedisStringCommands.SetOption.upsert()), RedisBatch::toBoolean);
+    }
+
+    public Reply<Long> incrBy(String key, long delta) {
+        return write(key, conn -> conn.stringCommands().incrBy(bytes(key), delta), RedisBatch::toLong);
+    }
+
+    public Reply<Long> sadd(String key, String... members) {
+        return write(key, conn -> conn.setCommands().sAdd(bytes(key), bytes(members)), RedisBatch::toLong);
+    }
+
+    public Reply<Long> srem(String key, String... members) {
+        return write(key, conn -> conn.setCommands().sRem(bytes(key), bytes(members)), RedisBatch::toLong);
+    }
+
+    public Reply<Boolean> exists(String key) {
+        return add(key, conn -> conn.keyCommands().exists(bytes(key)), RedisBatch::toBoolean, NO_WRITES);
+    }
+
+    public Reply<Boolean> expire(String key, long seconds) {
+        return write(key, conn -> conn.keyCommands().expire(bytes(key), seconds), RedisBatch::toBoolean);
+    }
+
+    public Reply<Long> delete(String... keys) {
+        return add(keys.length > 0 ? keys[0] : null, conn -> conn.keyCommands().del(bytes(keys)), RedisBatch::toLong, keys);
+    }
+
+    /**
+     * Lua 脚本，管道内无法处理 NOSCRIPT 重试，因此直接使用 EVAL 发送脚本正文；脚本的全部键视为被写入
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Reply<T> script(RedisScript<T> script, List<String> keys, String... args) {
+        if (slotAware) {
+            RedisKeys.requireSameSlot("脚本", keys);
+        }
+        byte[][] keysAndArgs = new byte[keys.size() + args.length][];
+        for (int i = 0; i < keys.size(); i++) {
+            keysAndArgs[i] = bytes(keys.get(i));
+        }
+        for (int i = 0; i < args.length; i++) {
+            keysAndArgs[keys.size() + i] = bytes(args[i]);
+        }
+        ReturnType returnType = ReturnType.fromJavaType(script.getResultType());
+        byte[] body = bytes(script.getScriptAsString());
+        return add(keys.isEmpty() ? null : keys.get(0), conn -> conn.scriptingCommands().eval(body, returnType, keys.size(), keysAndArgs),
+            raw -> (T) raw, keys.toArray(String[]::new));
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * 执行所有排队的命令
+     */
+    public void execute() {
+        if (executed) {
+            throw new IllegalStateException("批量命令已执行");
+        }
+        executed = true;
+
+        List<Command<?>> ordered = slotAware
+            ? commands.stream().sorted(Comparator.comparingInt(Command::slot)).toList()
+            : commands;
+        try {
+            run(ordered);
+        } finally {
+            // 失败的分段也可能已部分写入，一并失效
+            for (Command<?> command : commands) {
+                for (String key : command.writes()) {
+                    onWrite.accept(key);
+                }
+            }
+        }
+    }
+
+    private void run(List<Command<?>> ordered) {
+        for (int from = 0; from < ordered.size(); from += chunkSize) {
+            List<Command<?>> chunk = ordered.subList(from, Math.min(from + chunkSize, ordered.size()));
+            List<Object> results = redis.executePipelined((RedisCallback<Object>) connection -> {
+                for (Command<?> command : chunk) {
+                    command.action().accept(connection);
+                }
+                return null;
+            });
+
+            if (results.size() != chunk.size()) {
+                throw new IllegalStateException("管道返回数量不匹配: " + results.size() + " != " + chunk.size());
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                chunk.get(i).complete(results.get(i));
+            }
+        }
+    }
+
+    private <T> Reply<T> write(String key, Consumer<RedisConnection> action, Function<Object, T> converter) {
+        return add(key, action, converter, new String[]{key});
+    }
+
+    private <T> Reply<T> add(String key, Consumer<RedisConnection> action, Function<Object, T> converter, String[] writes) {
+        if (executed) {
+            throw new IllegalStateException("批量命令已执行");
+        }
+        var reply = new Reply<T>();
+        int slot = slotAware && key != null ? RedisKeys.slot(key) : -1;
+        commands.add(new Command<>(slot, action, converter, reply, writes));
+        return reply;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[][] bytes(String... values) {
+        byte[][] result = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = bytes(values[i]);
+        }
+        return result;
+    }
+
+    private static Boolean toBoolean(Object raw) {
+        if (raw instanceof Boolean b) return b;
+        if (raw instanceof Number n) return n.longValue() > 0;
+        return raw != null;
+    }
+
+    private static Long toLong(Object raw) {
+        return raw instanceof Number n ? n.longValue() : 0L;
+    }
+}
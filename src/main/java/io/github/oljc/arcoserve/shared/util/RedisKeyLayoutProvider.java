@@ -0,0 +1,20 @@
+package io.github.oljc.arcoserve.shared.util;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 多键脚本/命令的键组来源
+ * <p>
+ * 由发出这些命令的组件实现，必须调用与运行时相同的键构造方法，启动时由 {@link RedisKeyLayoutVerifier} 校验。
+ */
+public interface RedisKeyLayoutProvider {
+
+    /**
+     * 按示例名称生成键组
+     *
+     * @param name 示例名称（锁名、队列名等），含空串与花括号等边界值
+     * @return 操作名 → 一次命令使用的全部键
+     */
+    Map<String, List<String>> keyLayouts(String name);
+}
@@ -0,0 +1,56 @@
+package io.github.oljc.arcoserve.shared.util;
+
+import io.github.oljc.arcoserve.shared.store.ConditionalOnRedisStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 启动校验：每个多键脚本/命令的键组必须落在同一槽位，否则切换到 Redis Cluster 后会报 CROSSSLOT
+ * <p>
+ * 键组由各组件的 {@link RedisKeyLayoutProvider} 按真实构造路径生成，并用含花括号的边界名称检验哈希标签。
+ * 构造方法对无法打标签的名称抛出 {@link IllegalArgumentException}，运行时同样会在发出命令前失败，视为通过。
+ * 调用方自带键的操作（{@link RedisUtils#cacheBreakthroughGuard}、{@link RedisUtils#rename}、批量脚本）
+ * 无法在启动时枚举，集群模式下由运行时的 {@link RedisKeys#requireSameSlot} 校验。
+ */
+@Slf4j
+@Component
+@ConditionalOnRedisStore
+@RequiredArgsConstructor
+public class RedisKeyLayoutVerifier implements InitializingBean {
+
+    static final List<String> SAMPLE_NAMES = List.of("job:settle", "order:42", "x", "", "a}b", "{x}", "}", "a{b");
+
+    private final List<RedisKeyLayoutProvider> providers;
+
+    @Override
+    public void afterPropertiesSet() {
+        var violations = new ArrayList<String>();
+        int groups = 0;
+        for (RedisKeyLayoutProvider provider : providers) {
+            for (String name : SAMPLE_NAMES) {
+                try {
+                    for (var layout : provider.keyLayouts(name).entrySet()) {
+                        groups++;
+                        List<String> keys = layout.getValue();
+                        if (!RedisKeys.sameSlot(keys)) {
+                            violations.add(layout.getKey() + "[" + name + "]="
+                                + keys.stream().map(k -> k + "@" + RedisKeys.slot(k)).toList());
+                        }
+                    }
+                } catch (IllegalArgumentException rejected) {
+                    // 名称无法构成哈希标签，运行时同样拒绝
+                }
+            }
+        }
+
+        if (!violations.isEmpty()) {
+            throw new IllegalStateException("Redis 键布局不满足集群要求: " + violations);
+        }
+        log.debug("Redis 键布局校验通过: {} 组", groups);
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.oljc.arcoserve.shared.util;
+
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+
+import java.util.Collection;
+
+/**
+ * Redis 键命名
+ * <p>
+ * 集群模式下只有 {@code {...}} 哈希标签内的部分参与槽位计算（CRC16 mod 16384）。
+ * 同一脚本操作的多个键、需要 RENAME 的键对，以及同一用户的多个键都必须带相同的哈希标签，
+ * 这里统一生成这类键；发出多键命令的组件实现 {@link RedisKeyLayoutProvider}，启动时校验每组键落在同一槽位。
+ * 单键命令（限流、验证码、黑名单）不需要标签，按原有前缀保持分散以均衡各节点负载。
+ */
+public final class RedisKeys {
+
+    private RedisKeys() {}
+
+    // ===== 键构造 =====
+
+    /**
+     * 带哈希标签的键：{@code prefix{tag}:part1:part2}
+     */
+    public static String tagged(String prefix, String tag, String... parts) {
+        var sb = new StringBuilder(prefix.length() + tag.length() + 2 + parts.length * 16)
+            .append(prefix).append('{').append(tag).append('}');
+        for (String part : parts) {
+            sb.append(':').append(part);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 与 key 同槽位的附属键，key 必须已带哈希标签
+     */
+    public static String sibling(String key, String suffix) {
+        if (hashTag(key) == null) {
+            throw new IllegalArgumentException("附属键要求主键带哈希标签: " + key);
+        }
+        return key + ":" + suffix;
+    }
+
+    /**
+     * 分布式锁主键，排队与超时键为其附属键
+     */
+    public static String lock(String name) {
+        return tagged("lock:", name);
+    }
+
+    /**
+     * 延迟队列分片主键，inflight/attempts/dead 为其附属键
+     */
+    public static String delayShard(String queue, int shard) {
+        return tagged("delay:", queue + ":" + shard);
+    }
+
+    /**
+     * 用户维度的哈希标签，同一用户的键落在同一槽位
+     */
+    public static String userTag(Object userId) {
+        return "u:" + userId;
+    }
+
+    /**
+     * 用户的活跃 token 集合
+     */
+    public static String userTokens(Object userId) {
+        return tagged("jwt:user:", userTag(userId));
+    }
+
+    /**
+     * 加哈希标签之前的活跃 token 集合键，升级期间与 {@link #userTokens} 合并读取，下个版本移除
+     */
+    @Deprecated
+    public static String legacyUserTokens(Object userId) {
+        return "jwt:user:" + userId;
+    }
+
+    /**
+     * 用户名/邮箱布隆过滤器，重建时的临时键为其附属键，RENAME 要求同槽位
+     */
+    public static String userBloom(String field) {
+        return tagged("bloom:", "user", field);
+    }
+
+    // ===== 槽位 =====
+
+    /**
+     * 哈希标签内容，不存在或为空时返回 null
+     */
+    public static String hashTag(String key) {
+        int start = key.indexOf('{');
+        if (start < 0) return null;
+        int end = key.indexOf('}', start + 1);
+        return end > start + 1 ? key.substring(start + 1, end) : null;
+    }
+
+    public static int slot(String key) {
+        return ClusterSlotHashUtil.calculateSlot(key);
+    }
+
+    public static boolean sameSlot(Collection<String> keys) {
+        int slot = -1;
+        for (String key : keys) {
+            int current = slot(key);
+            if (slot >= 0 && current != slot) return false;
+            slot = current;
+        }
+        return true;
+    }
+
+    /**
+     * 多键操作前校验槽位，不同槽位在集群下会报 CROSSSLOT，这里提前失败
+     */
+    public static void requireSameSlot(String operation, Collection<String> keys) {
+        if (!sameSlot(keys)) {
+            throw new IllegalArgumentException(operation + " 的键不在同一槽位，请使用哈希标签: " + keys);
+        }
+    }
+}
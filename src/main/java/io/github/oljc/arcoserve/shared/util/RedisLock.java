@@ -0,0 +1,131 @@
+package io.github.oljc.arcoserve.shared.util;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis 可重入分布式锁
+ * <p>
+ * 由 {@link RedisLockManager} 创建，持有者为当前线程，同一线程可重入，须由加锁线程解锁。
+ * 不指定租期时由看门狗自动续期；指定租期时到期自动释放。
+ */
+public final class RedisLock {
+
+    private static final long MIN_RETRY_MILLIS = 50;
+
+    private final RedisLockManager manager;
+    private final String name;
+    private final boolean fair;
+
+    RedisLock(RedisLockManager manager, String name, boolean fair) {
+        this.manager = manager;
+        this.name = name;
+        this.fair = fair;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public boolean isFair() {
+        return fair;
+    }
+
+    /**
+     * 阻塞直到获取锁，看门狗续期
+     */
+    public void lock() throws InterruptedException {
+        acquire(-1, -1);
+    }
+
+    /**
+     * 在等待时间内获取锁，看门狗续期
+     * @return 是否获取成功
+     */
+    public boolean tryLock(Duration waitTime) throws InterruptedException {
+        return acquire(waitTime.toMillis(), -1);
+    }
+
+    /**
+     * 在等待时间内获取锁，租期到期自动释放，不续期
+     * @return 是否获取成功
+     */
+    public boolean tryLock(Duration waitTime, Duration leaseTime) throws InterruptedException {
+        return acquire(waitTime.toMillis(), leaseTime.toMillis());
+    }
+
+    /**
+     * 释放锁，重入时仅减少计数
+     * @throws IllegalMonitorStateException 当前线程未持有锁
+     */
+    public void unlock() {
+        String owner = manager.ownerId();
+        long remaining = manager.release(name, owner);
+        if (remaining < 0) {
+            manager.unwatch(name, owner);
+            throw new IllegalMonitorStateException("当前线程未持有锁: " + name);
+        }
+        if (remaining == 0) {
+            manager.unwatch(name, owner);
+        }
+    }
+
+    /**
+     * 是否被任意持有者锁定
+     */
+    public boolean isLocked() {
+        return manager.isLocked(name);
+    }
+
+    private boolean acquire(long waitMillis, long leaseMillis) throws InterruptedException {
+        String owner = manager.ownerId();
+        boolean watchdog = leaseMillis <= 0;
+        long lease = watchdog ? manager.defaultLeaseMillis() : leaseMillis;
+
+        // 无竞争时不登记等待
+        Long ttl = manager.tryAcquire(name, fair, owner, lease);
+        if (ttl == null) {
+            onAcquired(owner, watchdog);
+            return true;
+        }
+        if (waitMillis == 0) {
+            if (fair) manager.leaveQueue(name, owner);
+            return false;
+        }
+
+        long deadline = waitMillis < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + waitMillis;
+        Semaphore signal = manager.enterWait(name);
+        boolean acquired = false;
+        try {
+            while (true) {
+                // 先登记后重试，登记之前的释放由本次重试覆盖
+                ttl = manager.tryAcquire(name, fair, owner, lease);
+                if (ttl == null) {
+                    acquired = true;
+                    onAcquired(owner, watchdog);
+                    return true;
+                }
+
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                // 以锁剩余 TTL 为上限等待释放消息，公平锁等待者至少每个租期重试一次以刷新排队存活期
+                long wait = Math.min(Math.max(ttl, MIN_RETRY_MILLIS), Math.min(remaining, lease));
+                signal.tryAcquire(wait, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            manager.exitWait(name);
+            if (fair && !acquired) {
+                manager.leaveQueue(name, owner);
+            }
+        }
+    }
+
+    private void onAcquired(String owner, boolean watchdog) {
+        if (watchdog) {
+            manager.watch(name, owner);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package io.github.oljc.arcoserve.shared.util;
+
+import io.github.oljc.arcoserve.shared.store.KeyValueStore;
+import io.github.oljc.arcoserve.shared.store.KeyValueStore.LockHold;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Redis 分布式锁管理器
+ * <p>
+ * 锁的存取经 {@link KeyValueStore}：锁为可重入哈希（owner/count），持有者以“实例ID:线程ID”标识。等待方不再轮询：
+ * 完全释放时存储通知释放监听器（Redis 后端经 {@code lock:release:*} 频道，可收到其他节点的释放），唤醒对应等待线程；
+ * 消息丢失或持有者宕机时，等待时长以锁剩余 TTL 为上限兜底。
+ * 未指定租期的锁由看门狗每 1/3 租期批量续期，持有者存活期间不会过期。
+ * <pre>
+ * var lock = lockManager.getLock("job:settle");
+ * if (lock.tryLock(Duration.ofSeconds(5))) {
+ *     try { ... } finally { lock.unlock(); }
+ * }
+ * </pre>
+ */
+@Slf4j
+@Component
+public class RedisLockManager implements InitializingBean, DisposableBean {
+
+    private final KeyValueStore store;
+    private final long defaultLeaseMillis;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, Waiters> waiters = new ConcurrentHashMap<>();
+    private final Map<LockHold, LockHold> watched = new ConcurrentHashMap<>();
+    private final Consumer<String> releaseListener = this::onRelease;
+
+    private ScheduledExecutorService watchdog;
+
+    /**
+     * 本节点上等待同一把锁的线程，收到释放消息时全部唤醒
+     */
+    private static final class Waiters {
+        final AtomicInteger count = new AtomicInteger();
+        final Semaphore signal = new Semaphore(0);
+    }
+
+    public RedisLockManager(
+            KeyValueStore store,
+            @Value("${app.redis.lock.lease:30s}") Duration defaultLease
+    ) {
+        this.store = store;
+        this.defaultLeaseMillis = defaultLease.toMillis();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        store.addLockReleaseListener(releaseListener);
+
+        watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "redis-lock-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(defaultLeaseMillis / 3, 100);
+        watchdog.scheduleAtFixedRate(this::renewAll, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        store.removeLockReleaseListener(releaseListener);
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+        }
+    }
+
+    /**
+     * 获取非公平锁
+     */
+    public RedisLock getLock(String name) {
+        return new RedisLock(this, name, false);
+    }
+
+    /**
+     * 获取公平锁，跨节点按请求顺序获取
+     */
+    public RedisLock getFairLock(String name) {
+        return new RedisLock(this, name, true);
+    }
+
+    // ===== 供 RedisLock 调用 =====
+
+    long defaultLeaseMillis() {
+        return defaultLeaseMillis;
+    }
+
+    String ownerId() {
+        return instanceId + ":" + Thread.currentThread().threadId();
+    }
+
+    /**
+     * 尝试一次加锁
+     * @return null 表示成功，否则为建议等待的毫秒数
+     */
+    Long tryAcquire(String name, boolean fair, String owner, long leaseMillis) {
+        // 等待者最迟每个租期重试一次，存活期取两个租期
+        long ttl = fair
+            ? store.tryFairLock(name, owner, leaseMillis, leaseMillis * 2)
+            : store.tryLock(name, owner, leaseMillis);
+        return ttl < 0 ? null : ttl;
+    }
+
+    long release(String name, String owner) {
+        return store.unlock(name, owner);
+    }
+
+    void leaveQueue(String name, String owner) {
+        store.leaveLockQueue(name, owner);
+    }
+
+    boolean isLocked(String name) {
+        return store.isLocked(name);
+    }
+
+    /**
+     * 登记等待，必须在首次尝试加锁之前调用，避免错过释放消息
+     */
+    Semaphore enterWait(String name) {
+        Waiters w = waiters.compute(name, (k, v) -> {
+            var entry = v != null ? v : new Waiters();
+            entry.count.incrementAndGet();
+            return entry;
+        });
+        return w.signal;
+    }
+
+    void exitWait(String name) {
+        waiters.computeIfPresent(name, (k, v) -> v.count.decrementAndGet() <= 0 ? null : v);
+    }
+
+    void watch(String name, String owner) {
+        var hold = new LockHold(name, owner);
+        watched.put(hold, hold);
+    }
+
+    void unwatch(String name, String owner) {
+        watched.remove(new LockHold(name, owner));
+    }
+
+    private void onRelease(String name) {
+        Waiters w = waiters.get(name);
+        if (w != null) {
+            w.signal.release(Math.max(w.count.get(), 1));
+        }
+    }
+
+    /**
+     * 看门狗：一次批量续期所有持有中的锁，续期失败说明锁已丢失
+     */
+    private void renewAll() {
+        if (watched.isEmpty()) return;
+
+        try {
+            var holds = new ArrayList<>(watched.keySet());
+            List<Boolean> renewed = store.renewLocks(holds, defaultLeaseMillis);
+            for (int i = 0; i < holds.size(); i++) {
+                if (!renewed.get(i)) {
+                    LockHold hold = holds.get(i);
+                    watched.remove(hold);
+                    log.warn("分布式锁已丢失，停止续期: {}", hold.name());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("分布式锁续期失败: {}", e.getMessage());
+        }
+    }
+}
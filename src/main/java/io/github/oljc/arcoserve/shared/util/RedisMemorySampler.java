@@ -0,0 +1,338 @@
+package io.github.oljc.arcoserve.shared.util;
+
+import io.github.oljc.arcoserve.shared.store.ConditionalOnRedisStore;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import io.lettuce.core.codec.StringCodec;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Redis 内存按前缀统计
+ * <p>
+ * 后台线程用独立连接 SCAN 遍历键空间，每批之间按 batchPause 暂停；单批往返超过 slowThreshold 时暂停时间翻倍，
+ * 恢复后逐步回落，保证对线上延迟的影响有上界。键数按前缀精确计数，
+ * 其中按 sampleRate 抽样的键再查询 MEMORY USAGE、TYPE 与元素数，按前缀的样本均值外推总内存与元素数。
+ * 每轮结束后更新指标 redis.memory.bytes / redis.memory.keys / redis.memory.elements（标签 prefix）。
+ * <p>
+ * 多实例部署时每轮开始前以 SET NX PX 抢占租约，租约时长为一个 interval，同一周期内只有一个实例扫描；
+ * 未抢到的实例跳过本轮并清空自己的结果，指标只由最近一轮扫描的实例上报。
+ */
+@Slf4j
+@Component
+@ConditionalOnRedisStore
+public class RedisMemorySampler implements InitializingBean, DisposableBean {
+
+    private static final String OTHER = "other";
+    private static final long MAX_PAUSE_MILLIS = 5000;
+    private static final String LEASE_KEY = "memory-sampler:lease";
+
+    private final RedisConnectionFactory connectionFactory;
+    private final boolean enabled;
+    private final List<String> prefixes;
+    private final int scanCount;
+    private final double sampleRate;
+    private final long batchPauseMillis;
+    private final long slowThresholdMillis;
+    private final Duration initialDelay;
+    private final Duration interval;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private volatile Report report;
+    private Thread worker;
+    private StatefulConnection<String, String> connection;
+
+    /**
+     * 单个前缀的统计
+     *
+     * @param keys              扫描到的键数
+     * @param sampledKeys       抽样键数
+     * @param estimatedBytes    外推的内存占用
+     * @param estimatedElements 外推的元素数（集合类为基数，字符串为 1）
+     * @param avgBytes          样本平均每键字节数
+     */
+    public record PrefixUsage(String prefix, long keys, long sampledKeys, long estimatedBytes,
+                              long estimatedElements, long avgBytes) {}
+
+    /**
+     * 一轮扫描的结果
+     */
+    public record Report(Instant completedAt, long durationMillis, long scannedKeys, List<PrefixUsage> prefixes) {}
+
+    private static final class Tally {
+        long keys;
+        long sampled;
+        long bytes;
+        long elements;
+    }
+
+    public RedisMemorySampler(
+            RedisConnectionFactory connectionFactory,
+            MeterRegistry meterRegistry,
+            @Value("${app.redis.memory-sampler.enabled:true}") boolean enabled,
+            @Value("${app.redis.memory-sampler.prefixes:rl:,jwt:blacklist:,jwt:user:,captcha:,auto_cache:,lock:,delay:,bloom:}") String[] prefixes,
+            @Value("${app.redis.memory-sampler.scan-count:200}") int scanCount,
+            @Value("${app.redis.memory-sampler.sample-rate:0.05}") double sampleRate,
+            @Value("${app.redis.memory-sampler.batch-pause:100ms}") Duration batchPause,
+            @Value("${app.redis.memory-sampler.slow-threshold:5ms}") Duration slowThreshold,
+            @Value("${app.redis.memory-sampler.initial-delay:1m}") Duration initialDelay,
+            @Value("${app.redis.memory-sampler.interval:1h}") Duration interval
+    ) {
+        this.connectionFactory = connectionFactory;
+        this.enabled = enabled;
+        // 最长前缀优先匹配，jwt:blacklist: 不会被更短的前缀吞掉
+        this.prefixes = Arrays.stream(prefixes)
+            .filter(p -> !p.isBlank())
+            .sorted(Comparator.comparingInt(String::length).reversed())
+            .toList();
+        this.scanCount = scanCount;
+        this.sampleRate = sampleRate;
+        this.batchPauseMillis = batchPause.toMillis();
+        this.slowThresholdMillis = slowThreshold.toMillis();
+        this.initialDelay = initialDelay;
+        this.interval = interval;
+
+        var names = new ArrayList<>(this.prefixes);
+        names.add(OTHER);
+        for (String prefix : names) {
+            Gauge.builder("redis.memory.bytes", this, s -> s.value(prefix, PrefixUsage::estimatedBytes))
+                .tag("prefix", prefix)
+                .description("按前缀外推的 Redis 内存占用")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+            Gauge.builder("redis.memory.keys", this, s -> s.value(prefix, PrefixUsage::keys))
+                .tag("prefix", prefix)
+                .description("按前缀统计的键数")
+                .register(meterRegistry);
+            Gauge.builder("redis.memory.elements", this, s -> s.value(prefix, PrefixUsage::estimatedElements))
+                .tag("prefix", prefix)
+                .description("按前缀外推的元素数")
+                .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) return;
+
+        worker = new Thread(this::run, "redis-memory-sampler");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void destroy() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    /**
+     * 最近一轮的结果，尚未完成任何一轮或本周期由其他实例扫描时为 null
+     */
+    public Report report() {
+        return report;
+    }
+
+    private double value(String prefix, ToLongFunction<PrefixUsage> field) {
+        Report current = report;
+        if (current == null) return Double.NaN;
+        for (PrefixUsage usage : current.prefixes()) {
+            if (usage.prefix().equals(prefix)) return field.applyAsLong(usage);
+        }
+        return 0;
+    }
+
+    private void run() {
+        try {
+            Thread.sleep(initialDelay.toMillis());
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    if (acquireLease()) {
+                        report = sample();
+                        log.info("Redis 内存统计完成: keys={}, duration={}ms", report.scannedKeys(), report.durationMillis());
+                    } else {
+                        // 本周期由其他实例扫描，清空旧结果，避免多个实例同时上报过期的指标
+                        report = null;
+                        log.debug("Redis 内存统计租约由其他实例持有，跳过本轮");
+                    }
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    log.warn("Redis 内存统计失败: {}", e.getMessage());
+                }
+                Thread.sleep(interval.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 抢占本周期的扫描租约；租约到期自动失效，扫描结束后不主动释放，避免其他实例在同一周期内重复扫描
+     */
+    private boolean acquireLease() {
+        return "OK".equals(sync().set(LEASE_KEY, instanceId, SetArgs.Builder.nx().px(interval.toMillis())));
+    }
+
+    /**
+     * 完整扫描一轮
+     */
+    private Report sample() throws Exception {
+        long start = System.currentTimeMillis();
+        var sync = sync();
+        var async = async();
+        var tallies = new LinkedHashMap<String, Tally>();
+        prefixes.forEach(p -> tallies.put(p, new Tally()));
+        tallies.put(OTHER, new Tally());
+
+        var args = ScanArgs.Builder.limit(scanCount);
+        ScanCursor cursor = ScanCursor.INITIAL;
+        long pause = batchPauseMillis;
+        long scanned = 0;
+        do {
+            long batchStart = System.nanoTime();
+            KeyScanCursor<String> page = sync.scan(cursor, args);
+            var sampled = new ArrayList<String>();
+            for (String key : page.getKeys()) {
+                tallies.get(prefixOf(key)).keys++;
+                if (ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                    sampled.add(key);
+                }
+            }
+            if (!sampled.isEmpty()) {
+                measure(async, sampled, tallies);
+            }
+            scanned += page.getKeys().size();
+            cursor = page;
+
+            // 单批耗时过长说明 Redis 繁忙，加大暂停；正常时逐步回落
+            long batchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStart);
+            pause = batchMillis > slowThresholdMillis
+                ? Math.min(MAX_PAUSE_MILLIS, Math.max(1, pause) * 2)
+                : Math.max(batchPauseMillis, pause / 2);
+            Thread.sleep(pause);
+        } while (!cursor.isFinished());
+
+        var usages = new ArrayList<PrefixUsage>(tallies.size());
+        tallies.forEach((prefix, t) -> {
+            long avgBytes = t.sampled > 0 ? t.bytes / t.sampled : 0;
+            long estimatedElements = t.sampled > 0 ? Math.round((double) t.elements / t.sampled * t.keys) : 0;
+            usages.add(new PrefixUsage(prefix, t.keys, t.sampled, avgBytes * t.keys, estimatedElements, avgBytes));
+        });
+        usages.sort(Comparator.comparingLong(PrefixUsage::estimatedBytes).reversed());
+        return new Report(Instant.now(), System.currentTimeMillis() - start, scanned, List.copyOf(usages));
+    }
+
+    /**
+     * 抽样键：一次管道发出 MEMORY USAGE 与 TYPE，再按类型查询元素数
+     */
+    private void measure(RedisClusterAsyncCommands<String, String> async, List<String> keys,
+                         Map<String, Tally> tallies) throws Exception {
+        var usages = new ArrayList<RedisFuture<Long>>(keys.size());
+        var types = new ArrayList<RedisFuture<String>>(keys.size());
+        for (String key : keys) {
+            usages.add(async.memoryUsage(key));
+            types.add(async.type(key));
+        }
+
+        var cardinalities = new ArrayList<RedisFuture<Long>>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            cardinalities.add(switch (types.get(i).get(1, TimeUnit.SECONDS)) {
+                case "zset" -> async.zcard(key);
+                case "set" -> async.scard(key);
+                case "hash" -> async.hlen(key);
+                case "list" -> async.llen(key);
+                default -> null;
+            });
+        }
+
+        for (int i = 0; i < keys.size(); i++) {
+            Long bytes = usages.get(i).get(1, TimeUnit.SECONDS);
+            // 抽样期间已过期的键不计入样本
+            if (bytes == null) continue;
+
+            Tally tally = tallies.get(prefixOf(keys.get(i)));
+            tally.sampled++;
+            tally.bytes += bytes;
+            var cardinality = cardinalities.get(i);
+            Long elements = cardinality != null ? cardinality.get(1, TimeUnit.SECONDS) : null;
+            tally.elements += elements != null ? elements : 1;
+        }
+    }
+
+    private String prefixOf(String key) {
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) return prefix;
+        }
+        return OTHER;
+    }
+
+    private RedisClusterCommands<String, String> sync() {
+        connect();
+        return connection instanceof StatefulRedisClusterConnection<String, String> cluster
+            ? cluster.sync()
+            : ((StatefulRedisConnection<String, String>) connection).sync();
+    }
+
+    private RedisClusterAsyncCommands<String, String> async() {
+        connect();
+        return connection instanceof StatefulRedisClusterConnection<String, String> cluster
+            ? cluster.async()
+            : ((StatefulRedisConnection<String, String>) connection).async();
+    }
+
+    /**
+     * 独立连接，SCAN 期间不占用连接池
+     */
+    private void connect() {
+        if (connection != null) return;
+        if (!(connectionFactory instanceof LettuceConnectionFactory lettuce)) {
+            throw new IllegalStateException("内存统计需要 Lettuce 连接工厂");
+        }
+
+        AbstractRedisClient client = lettuce.getRequiredNativeClient();
+        if (client instanceof RedisClient redisClient) {
+            connection = redisClient.connect(StringCodec.UTF8);
+        } else if (client instanceof RedisClusterClient clusterClient) {
+            connection = clusterClient.connect(StringCodec.UTF8);
+        } else {
+            throw new IllegalStateException("不支持的 Redis 客户端: " + client.getClass().getName());
+        }
+    }
+}
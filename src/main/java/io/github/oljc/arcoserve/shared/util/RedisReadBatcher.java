@@ -0,0 +1,243 @@
+package io.github.oljc.arcoserve.shared.util;
+
+import io.github.oljc.arcoserve.shared.store.ConditionalOnRedisStore;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Redis 读请求自动合并（DataLoader 模式）
+ * <p>
+ * 并发线程各自发起的单键 get/exists 在一个微秒级窗口内（或攒满 maxBatchSize）被合并为
+ * 一次 MGET 与一次 EXISTS 管道，再把结果分发回各调用方。默认关闭，关闭时直接透传到 {@link RedisUtils}。
+ * 入队前先按单键读取的语义查近端缓存与热点键本地副本，命中时直接应答，只有未命中的键进入批次，
+ * 批次结果再由同一条路径回填本地，热点键统计也只在入队前计一次。
+ * 调用方最多等待 timeout，超时抛出 {@link QueryTimeoutException}；停机后到达的请求不再入队，直接透传。
+ */
+@Slf4j
+@Component
+@ConditionalOnRedisStore
+public class RedisReadBatcher implements InitializingBean, DisposableBean {
+
+    private final RedisUtils redisUtils;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final int concurrency;
+    private final Duration timeout;
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final DistributionSummary batchSize;
+    private final Timer batchWait;
+
+    private volatile boolean running;
+    private Thread dispatcher;
+    private ExecutorService executor;
+
+    private enum Kind { GET, EXISTS }
+
+    /** 停机后撤回的请求，由调用方直接访问 Redis */
+    private static final Object DIRECT = new Object();
+
+    private record Pending(Kind kind, String key, CompletableFuture<Object> future, long enqueuedNanos) {}
+
+    public RedisReadBatcher(
+            RedisUtils redisUtils,
+            MeterRegistry meterRegistry,
+            @Value("${app.redis.auto-batch.enabled:false}") boolean enabled,
+            @Value("${app.redis.auto-batch.window:200us}") Duration window,
+            @Value("${app.redis.auto-batch.max-batch-size:128}") int maxBatchSize,
+            @Value("${app.redis.auto-batch.concurrency:4}") int concurrency,
+            @Value("${app.redis.auto-batch.timeout:1s}") Duration timeout
+    ) {
+        this.redisUtils = redisUtils;
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.concurrency = concurrency;
+        this.timeout = timeout;
+        this.batchSize = DistributionSummary.builder("redis.autobatch.size")
+            .description("合并后的批次大小")
+            .register(meterRegistry);
+        this.batchWait = Timer.builder("redis.autobatch.wait")
+            .description("请求在合并窗口内的等待时间")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) return;
+
+        running = true;
+        executor = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "redis-batch-exec");
+            t.setDaemon(true);
+            return t;
+        });
+        dispatcher = new Thread(this::dispatchLoop, "redis-batch-dispatch");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @Override
+    public void destroy() {
+        if (!enabled) return;
+
+        running = false;
+        LockSupport.unpark(dispatcher);
+        try {
+            dispatcher.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 处理停机前残留的请求
+        List<Pending> rest = drain(Integer.MAX_VALUE);
+        if (!rest.isEmpty()) {
+            dispatch(rest);
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * 获取值
+     */
+    public String get(String key) {
+        if (!running) return redisUtils.get(key);
+        return redisUtils.cachedGet(key, () -> {
+            Object value = submit(Kind.GET, key);
+            return value == DIRECT ? redisUtils.loadAll(List.of(key)).get(key) : (String) value;
+        });
+    }
+
+    /**
+     * 是否存在
+     */
+    public boolean exists(String key) {
+        if (!running) return redisUtils.exists(key);
+        return redisUtils.cachedExists(key, () -> {
+            Object value = submit(Kind.EXISTS, key);
+            return value == DIRECT ? redisUtils.loadExists(List.of(key)).get(0) : (Boolean) value;
+        });
+    }
+
+    /**
+     * 入队并等待结果；入队时已停机且请求未被最后一次排空取走，则撤回并返回 {@link #DIRECT} 由调用方透传
+     */
+    private Object submit(Kind kind, String key) {
+        var future = new CompletableFuture<Object>();
+        var pending = new Pending(kind, key, future, System.nanoTime());
+        queue.offer(pending);
+        int size = queued.incrementAndGet();
+        if (!running && queue.remove(pending)) {
+            queued.decrementAndGet();
+            return DIRECT;
+        }
+        if (size == 1 || size >= maxBatchSize) {
+            LockSupport.unpark(dispatcher);
+        }
+
+        try {
+            return future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new QueryTimeoutException("Redis 合并读取超时: " + key, e.getCause());
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            Pending head = queue.peek();
+            if (head == null) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(10));
+                continue;
+            }
+
+            long deadline = head.enqueuedNanos() + windowNanos;
+            long remaining;
+            while (queued.get() < maxBatchSize && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+
+            List<Pending> batch = drain(maxBatchSize);
+            if (!batch.isEmpty()) {
+                try {
+                    executor.execute(() -> dispatch(batch));
+                } catch (RuntimeException e) {
+                    batch.forEach(p -> p.future().completeExceptionally(e));
+                }
+            }
+        }
+    }
+
+    private List<Pending> drain(int limit) {
+        var batch = new ArrayList<Pending>(Math.min(limit, Math.max(queued.get(), 1)));
+        Pending pending;
+        while (batch.size() < limit && (pending = queue.poll()) != null) {
+            queued.decrementAndGet();
+            batch.add(pending);
+        }
+        return batch;
+    }
+
+    private void dispatch(List<Pending> batch) {
+        long now = System.nanoTime();
+        batch.forEach(p -> batchWait.record(now - p.enqueuedNanos(), TimeUnit.NANOSECONDS));
+        batchSize.record(batch.size());
+
+        try {
+            var getKeys = new LinkedHashSet<String>();
+            var existsKeys = new LinkedHashSet<String>();
+            for (Pending p : batch) {
+                (p.kind() == Kind.GET ? getKeys : existsKeys).add(p.key());
+            }
+
+            Map<String, String> values = getKeys.isEmpty() ? Map.of() : redisUtils.loadAll(getKeys);
+            // EXISTS 管道与 MGET 一样经读路由
+            Map<String, Boolean> exists = new HashMap<>();
+            if (!existsKeys.isEmpty()) {
+                List<String> keys = List.copyOf(existsKeys);
+                List<Boolean> found = redisUtils.loadExists(keys);
+                for (int i = 0; i < keys.size(); i++) {
+                    exists.put(keys.get(i), found.get(i));
+                }
+            }
+
+            for (Pending p : batch) {
+                p.future().complete(p.kind() == Kind.GET
+                    ? values.get(p.key())
+                    : Boolean.TRUE.equals(exists.get(p.key())));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Redis 合并读取失败: {}", e.getMessage());
+            batch.forEach(p -> p.future().completeExceptionally(e));
+        }
+    }
+}
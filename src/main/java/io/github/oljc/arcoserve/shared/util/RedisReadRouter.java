@@ -0,0 +1,208 @@
+package io.github.oljc.arcoserve.shared.util;
+
+import io.github.oljc.arcoserve.shared.store.ConditionalOnRedisStore;
+import io.lettuce.core.ReadFrom;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Redis 读路由
+ * <p>
+ * 开启后按 {@code app.redis.replica-reads.read-from}（Lettuce ReadFrom，默认 replicaPreferred）
+ * 建立一个独立的只读连接工厂，{@code routes} 中列出的读操作改走从节点，其余命令仍走主节点。
+ * 从节点为异步复制，可能读到毫秒级的旧值；需要读己之写的键（如刚签发的验证码）
+ * 通过 {@code primary-prefixes} 固定走主节点。{@link TrackingNearCache} 跟踪的前缀同样固定走主节点：
+ * 失效消息由主节点在写入时推送，若失效先到、随后从尚未同步的从节点回填，旧值会在本地缓存中一直留到过期。
+ * {@link AsyncRedisUtils} 使用独立的主节点连接，不经过本路由。独立部署时从节点由 INFO REPLICATION 自动发现，
+ * 也可用 {@code nodes} 显式列出；哨兵与集群沿用主连接的拓扑配置。
+ * 路由的操作按 op、route 记录延迟 redis.read.latency。
+ */
+@Slf4j
+@Component
+@ConditionalOnRedisStore
+public class RedisReadRouter implements InitializingBean, DisposableBean {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final RedisConnectionFactory connectionFactory;
+    private final StringRedisTemplate primary;
+    private final TrackingNearCache nearCache;
+    private final boolean enabled;
+    private final String readFrom;
+    private final List<String> nodes;
+    private final List<String> primaryPrefixes;
+    private final Map<String, Timer[]> timers = new HashMap<>();
+
+    private LettuceConnectionFactory replicaFactory;
+    private volatile StringRedisTemplate replica;
+
+    public RedisReadRouter(
+            RedisConnectionFactory connectionFactory,
+            StringRedisTemplate primary,
+            TrackingNearCache nearCache,
+            MeterRegistry meterRegistry,
+            @Value("${app.redis.replica-reads.enabled:false}") boolean enabled,
+            @Value("${app.redis.replica-reads.read-from:replicaPreferred}") String readFrom,
+            @Value("${app.redis.replica-reads.nodes:}") String[] nodes,
+            @Value("${app.redis.replica-reads.routes:get,mget,exists,hget,hgetall,sismember,smembers}") String[] routes,
+            @Value("${app.redis.replica-reads.primary-prefixes:captcha:}") String[] primaryPrefixes
+    ) {
+        this.connectionFactory = connectionFactory;
+        this.primary = primary;
+        this.nearCache = nearCache;
+        this.enabled = enabled;
+        this.readFrom = readFrom;
+        this.nodes = Arrays.stream(nodes).filter(n -> !n.isBlank()).toList();
+        this.primaryPrefixes = Arrays.stream(primaryPrefixes).filter(p -> !p.isBlank()).toList();
+
+        for (String op : routes) {
+            if (op.isBlank()) continue;
+            timers.put(op, new Timer[]{timer(meterRegistry, op, PRIMARY), timer(meterRegistry, op, REPLICA)});
+        }
+    }
+
+    /**
+     * 关闭路由的实例，所有读走主节点，用于非 Spring 场景
+     */
+    public static RedisReadRouter disabled(StringRedisTemplate primary) {
+        return new RedisReadRouter(null, primary, TrackingNearCache.disabled(), new SimpleMeterRegistry(), false,
+            "replicaPreferred", new String[0], new String[0], new String[0]);
+    }
+
+    private static Timer timer(MeterRegistry registry, String op, String route) {
+        return Timer.builder("redis.read.latency")
+            .tag("op", op)
+            .tag("route", route)
+            .description("Redis 读操作延迟（按路由）")
+            .register(registry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) return;
+        if (!(connectionFactory instanceof LettuceConnectionFactory lettuce)) {
+            log.warn("Redis 读路由需要 Lettuce 连接工厂，已关闭");
+            return;
+        }
+
+        replicaFactory = replicaFactory(lettuce, ReadFrom.valueOf(readFrom));
+        replicaFactory.afterPropertiesSet();
+        replica = new StringRedisTemplate(replicaFactory);
+        log.info("Redis 读路由已开启: readFrom={}, routes={}", readFrom, timers.keySet());
+    }
+
+    @Override
+    public void destroy() {
+        if (replicaFactory != null) {
+            replicaFactory.destroy();
+        }
+    }
+
+    /**
+     * 执行单键读操作，按 op 与键前缀选择主/从节点
+     */
+    public <T> T read(String op, String key, Function<StringRedisTemplate, T> call) {
+        return route(op, !pinned(key), call);
+    }
+
+    /**
+     * 执行多键读操作，任一键需固定主节点时整体走主节点
+     */
+    public <T> T read(String op, Collection<String> keys, Function<StringRedisTemplate, T> call) {
+        boolean toReplica = true;
+        for (String key : keys) {
+            if (pinned(key)) {
+                toReplica = false;
+                break;
+            }
+        }
+        return route(op, toReplica, call);
+    }
+
+    private <T> T route(String op, boolean toReplica, Function<StringRedisTemplate, T> call) {
+        StringRedisTemplate replicaTemplate = replica;
+        Timer[] opTimers = timers.get(op);
+        if (replicaTemplate == null || opTimers == null) {
+            return call.apply(primary);
+        }
+
+        long start = System.nanoTime();
+        try {
+            return call.apply(toReplica ? replicaTemplate : primary);
+        } finally {
+            opTimers[toReplica ? 1 : 0].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean pinned(String key) {
+        if (nearCache.covers(key)) return true;
+        for (String prefix : primaryPrefixes) {
+            if (key.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 以主连接的拓扑与客户端配置为基础，附加 ReadFrom 建立读连接工厂
+     */
+    private LettuceConnectionFactory replicaFactory(LettuceConnectionFactory lettuce, ReadFrom readFrom) {
+        LettuceClientConfiguration base = lettuce.getClientConfiguration();
+        var builder = LettuceClientConfiguration.builder()
+            .readFrom(readFrom)
+            .commandTimeout(base.getCommandTimeout())
+            .shutdownTimeout(base.getShutdownTimeout());
+        base.getClientName().ifPresent(builder::clientName);
+        base.getClientOptions().ifPresent(builder::clientOptions);
+        base.getClientResources().ifPresent(builder::clientResources);
+        if (base.isUseSsl()) {
+            builder.useSsl();
+        }
+        LettuceClientConfiguration client = builder.build();
+
+        if (lettuce.getClusterConfiguration() != null) {
+            return new LettuceConnectionFactory(lettuce.getClusterConfiguration(), client);
+        }
+        if (lettuce.getSentinelConfiguration() != null) {
+            return new LettuceConnectionFactory(lettuce.getSentinelConfiguration(), client);
+        }
+
+        RedisStandaloneConfiguration standalone = lettuce.getStandaloneConfiguration();
+        if (nodes.isEmpty()) {
+            return new LettuceConnectionFactory(standalone, client);
+        }
+        var config = new RedisStaticMasterReplicaConfiguration(standalone.getHostName(), standalone.getPort());
+        for (String node : nodes) {
+            int colon = node.lastIndexOf(':');
+            if (colon > 0) {
+                config.addNode(node.substring(0, colon).trim(), Integer.parseInt(node.substring(colon + 1).trim()));
+            } else {
+                config.addNode(node.trim(), standalone.getPort());
+            }
+        }
+        config.setDatabase(standalone.getDatabase());
+        config.setUsername(standalone.getUsername());
+        config.setPassword(standalone.getPassword());
+        return new LettuceConnectionFactory(config, client);
+    }
+}
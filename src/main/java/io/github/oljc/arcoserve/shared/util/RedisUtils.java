@@ -1,41 +1,87 @@
 package io.github.oljc.arcoserve.shared.util;
 
+import io.github.oljc.arcoserve.shared.store.BloomFilter;
+import io.github.oljc.arcoserve.shared.store.ConditionalOnRedisStore;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.output.ArrayOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.ProtocolKeyword;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * 简化优化的 Redis 工具类
+ * <p>
+ * 键访问经 {@link HotKeyDetector} 采样统计，热点键的读取由本地短 TTL 缓存应答，调用方无需改动；
+ * 开启客户端跟踪时，跟踪前缀下的 get/exists/hget/sismember 改由 {@link TrackingNearCache} 应答；
+ * 开启读路由时，只读操作经 {@link RedisReadRouter} 按配置分流到从节点。
  */
 @Component
+@ConditionalOnRedisStore
 @RequiredArgsConstructor
 public final class RedisUtils {
 
+    private static final long BIT_READ_TIMEOUT_MILLIS = 2000;
+    private static final int BIT_GROUPS_PER_COMMAND = 512;
+    private static final BitFieldSubCommands.BitFieldType BIT = BitFieldSubCommands.BitFieldType.unsigned(1);
+    private static final ProtocolKeyword BITFIELD_RO = new ProtocolKeyword() {
+        private final byte[] bytes = "BITFIELD_RO".getBytes(StandardCharsets.US_ASCII);
+
+        @Override
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        public String name() {
+            return "BITFIELD_RO";
+        }
+    };
+
     private final StringRedisTemplate redis;
+    private final HotKeyDetector hotKeys;
+    private final TrackingNearCache nearCache;
+    private final RedisReadRouter reads;
 
-    private static final RedisScript<List> SLIDING_WINDOW_SCRIPT = new DefaultRedisScript<>("""
+    static final RedisScript<List> SLIDING_WINDOW_SCRIPT = new DefaultRedisScript<>("""
         local key, window, limit, now = KEYS[1], tonumber(ARGV[1]), tonumber(ARGV[2]), tonumber(ARGV[3])
         local clearBefore = now - window * 1000
 
         redis.call('ZREMRANGEBYSCORE', key, 0, clearBefore)
         local current = redis.call('ZCARD', key)
+        local allowed = 0
 
         if current < limit then
             redis.call('ZADD', key, now, now)
             redis.call('EXPIRE', key, window + 1)
-            return {1, limit - current - 1}
+            current = current + 1
+            allowed = 1
+        end
+
+        local reset = window * 1000
+        local oldest = redis.call('ZRANGE', key, 0, 0, 'WITHSCORES')
+        if oldest[2] then
+            reset = tonumber(oldest[2]) + window * 1000 - now
         end
-        return {0, 0}
+        return {allowed, math.max(0, limit - current), reset}
         """, List.class);
 
-    private static final RedisScript<List> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>("""
+    static final RedisScript<List> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>("""
         local key, rate, capacity, now = KEYS[1], tonumber(ARGV[1]), tonumber(ARGV[2]), tonumber(ARGV[3])
         local bucket = redis.call('HMGET', key, 'tokens', 'last_refill')
         local tokens = tonumber(bucket[1]) or capacity
@@ -48,15 +94,15 @@ public final class RedisUtils {
             tokens = tokens - 1
             redis.call('HMSET', key, 'tokens', tokens, 'last_refill', now)
             redis.call('EXPIRE', key, math.ceil(capacity / rate) + 10)
-            return {1, math.floor(tokens)}
+            return {1, math.floor(tokens), math.ceil((capacity - tokens) * 1000 / rate)}
         else
             redis.call('HMSET', key, 'tokens', tokens, 'last_refill', now)
             redis.call('EXPIRE', key, math.ceil(capacity / rate) + 10)
-            return {0, 0}
+            return {0, 0, math.ceil((1 - tokens) * 1000 / rate)}
         end
         """, List.class);
 
-    private static final RedisScript<Long> ACQUIRE_LOCK_SCRIPT = new DefaultRedisScript<>("""
+    static final RedisScript<Long> ACQUIRE_LOCK_SCRIPT = new DefaultRedisScript<>("""
         local key, identifier, ttl = KEYS[1], ARGV[1], tonumber(ARGV[2])
         local current = redis.call('HGET', key, 'owner')
 
@@ -73,7 +119,7 @@ public final class RedisUtils {
         end
         """, Long.class);
 
-    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>("""
+    static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>("""
         local key, identifier = KEYS[1], ARGV[1]
         local current = redis.call('HGET', key, 'owner')
 
@@ -89,7 +135,7 @@ public final class RedisUtils {
         return -1
         """, Long.class);
 
-    private static final RedisScript<List> ATOMIC_COUNTER_SCRIPT = new DefaultRedisScript<>("""
+    static final RedisScript<List> ATOMIC_COUNTER_SCRIPT = new DefaultRedisScript<>("""
         local key, delta, ttl, max_val = KEYS[1], tonumber(ARGV[1]), tonumber(ARGV[2]), tonumber(ARGV[3])
         local current = tonumber(redis.call('GET', key)) or 0
         local new_val = current + delta
@@ -102,7 +148,7 @@ public final class RedisUtils {
         return {1, new_val}
         """, List.class);
 
-    private static final RedisScript<List> DELAY_QUEUE_BATCH_POP_SCRIPT = new DefaultRedisScript<>("""
+    static final RedisScript<List> DELAY_QUEUE_BATCH_POP_SCRIPT = new DefaultRedisScript<>("""
         local queue_key, now, limit = KEYS[1], tonumber(ARGV[1]), tonumber(ARGV[2])
         local items = redis.call('ZRANGEBYSCORE', queue_key, 0, now, 'LIMIT', 0, limit)
 
@@ -113,22 +159,7 @@ public final class RedisUtils {
         return {}
         """, List.class);
 
-    private static final RedisScript<Long> BLOOM_FILTER_SCRIPT = new DefaultRedisScript<>("""
-        local key, item, hash_count, bit_size = KEYS[1], ARGV[1], tonumber(ARGV[2]), tonumber(ARGV[3])
-        local exists = true
-
-        for i = 1, hash_count do
-            local hash = redis.call('EVAL', 'return redis.sha1hex(ARGV[1] .. ARGV[2])', 0, item, i)
-            local pos = tonumber(hash:sub(1, 8), 16) % bit_size
-            if redis.call('GETBIT', key, pos) == 0 then
-                exists = false
-            end
-            redis.call('SETBIT', key, pos, 1)
-        end
-        return exists and 1 or 0
-        """, Long.class);
-
-    private static final RedisScript<Long> CACHE_BREAKTHROUGH_GUARD_SCRIPT = new DefaultRedisScript<>("""
+    static final RedisScript<Long> CACHE_BREAKTHROUGH_GUARD_SCRIPT = new DefaultRedisScript<>("""
         local cache_key, lock_key, value, ttl, lock_ttl = KEYS[1], KEYS[2], ARGV[1], tonumber(ARGV[2]), tonumber(ARGV[3])
 
         if redis.call('SET', lock_key, '1', 'NX', 'EX', lock_ttl) then
@@ -140,39 +171,86 @@ public final class RedisUtils {
         end
         """, Long.class);
 
+    static final RedisScript<Long> SADD_EXPIRE_SCRIPT = new DefaultRedisScript<>("""
+        local added = redis.call('SADD', KEYS[1], unpack(ARGV, 2))
+        redis.call('EXPIRE', KEYS[1], tonumber(ARGV[1]))
+        return added
+        """, Long.class);
 
-    public record RateLimitResult(boolean allowed, long remaining) {}
+    static final RedisScript<Long> COMPARE_AND_DELETE_SCRIPT = new DefaultRedisScript<>("""
+        if redis.call('GET', KEYS[1]) == ARGV[1] then
+            return redis.call('DEL', KEYS[1])
+        end
+        return 0
+        """, Long.class);
+
+
+    /**
+     * 限流结果
+     * @param allowed 是否放行
+     * @param remaining 剩余可用次数
+     * @param resetMillis 距离配额恢复的毫秒数
+     */
+    public record RateLimitResult(boolean allowed, long remaining, long resetMillis) {}
     public record CounterResult(boolean success, long value) {}
 
     // ===== 基础操作 =====
 
     public void set(String key, String value, long seconds) {
         redis.opsForValue().set(key, value, Duration.ofSeconds(seconds));
+        written(key);
     }
 
     public void set(String key, String value) {
         redis.opsForValue().set(key, value);
+        written(key);
     }
 
     public String get(String key) {
-        return redis.opsForValue().get(key);
+        return cachedGet(key, () -> reads.read("get", key, r -> r.opsForValue().get(key)));
+    }
+
+    /**
+     * 按 get 的缓存语义读取：近端缓存或热点键本地副本命中时直接返回，未命中时由 loader 读取并回填
+     */
+    String cachedGet(String key, Supplier<String> loader) {
+        return nearCache.tracks(key) ? nearCache.read(key, "get", loader) : hotKeys.read(key, loader);
+    }
+
+    /**
+     * 读取并删除（GETDEL）
+     */
+    public String getAndDelete(String key) {
+        String value = redis.opsForValue().getAndDelete(key);
+        written(key);
+        return value;
     }
 
     public boolean setNx(String key, String value, long seconds) {
-        return Boolean.TRUE.equals(redis.opsForValue().setIfAbsent(key, value, Duration.ofSeconds(seconds)));
+        boolean result = Boolean.TRUE.equals(redis.opsForValue().setIfAbsent(key, value, Duration.ofSeconds(seconds)));
+        written(key);
+        return result;
     }
 
     public void mset(Map<String, String> kvMap) {
         if (!kvMap.isEmpty()) {
             redis.opsForValue().multiSet(kvMap);
+            kvMap.keySet().forEach(this::written);
         }
     }
 
     public Map<String, String> mget(Collection<String> keys) {
         if (keys.isEmpty()) return Collections.emptyMap();
+        keys.forEach(hotKeys::record);
+        return loadAll(keys);
+    }
 
+    /**
+     * MGET，不计入热点键统计也不经本地缓存，供 {@link RedisReadBatcher} 批量读取已逐键查过缓存的键
+     */
+    Map<String, String> loadAll(Collection<String> keys) {
         List<String> keyList = new ArrayList<>(keys);
-        List<String> values = redis.opsForValue().multiGet(keyList);
+        List<String> values = reads.read("mget", keyList, r -> r.opsForValue().multiGet(keyList));
 
         Map<String, String> result = new HashMap<>(keys.size());
         for (int i = 0; i < keyList.size(); i++) {
@@ -185,60 +263,110 @@ public final class RedisUtils {
     }
 
     public long incr(String key) {
-        return redis.opsForValue().increment(key);
+        long value = redis.opsForValue().increment(key);
+        written(key);
+        return value;
     }
 
     public long incrBy(String key, long delta) {
-        return redis.opsForValue().increment(key, delta);
+        long value = redis.opsForValue().increment(key, delta);
+        written(key);
+        return value;
     }
 
     public long decr(String key) {
-        return redis.opsForValue().decrement(key);
+        long value = redis.opsForValue().decrement(key);
+        written(key);
+        return value;
+    }
+
+    // ===== 批量管道 =====
+
+    /**
+     * 创建批量管道，多条命令一次往返
+     */
+    public RedisBatch batch() {
+        return new RedisBatch(redis, RedisBatch.DEFAULT_CHUNK_SIZE, this::written);
+    }
+
+    /**
+     * 创建批量管道
+     * @param chunkSize 单次管道的最大命令数
+     */
+    public RedisBatch batch(int chunkSize) {
+        return new RedisBatch(redis, chunkSize, this::written);
     }
 
     // ===== Hash 操作 =====
 
     public void hset(String key, String field, String value) {
         redis.opsForHash().put(key, field, value);
+        written(key);
     }
 
     public void hmset(String key, Map<String, String> hash) {
         redis.opsForHash().putAll(key, hash);
+        written(key);
     }
 
     public String hget(String key, String field) {
-        Object value = redis.opsForHash().get(key, field);
-        return value != null ? value.toString() : null;
+        Supplier<String> loader = () -> {
+            Object value = reads.read("hget", key, r -> r.opsForHash().get(key, field));
+            return value != null ? value.toString() : null;
+        };
+        return nearCache.tracks(key) ? nearCache.read(key, "hget:" + field, loader) : hotKeys.read(key, field, loader);
     }
 
     public Map<Object, Object> hgetall(String key) {
-        return redis.opsForHash().entries(key);
+        return hotKeys.readAll(key, () -> reads.read("hgetall", key, r -> r.opsForHash().entries(key)));
     }
 
     public long hincr(String key, String field, long delta) {
-        return redis.opsForHash().increment(key, field, delta);
+        long value = redis.opsForHash().increment(key, field, delta);
+        written(key);
+        return value;
     }
 
     public long hdel(String key, String... fields) {
-        return redis.opsForHash().delete(key, (Object[]) fields);
+        long removed = redis.opsForHash().delete(key, (Object[]) fields);
+        written(key);
+        return removed;
     }
 
     // ===== Set 操作 =====
 
     public long sadd(String key, String... members) {
-        return redis.opsForSet().add(key, members);
+        long added = redis.opsForSet().add(key, members);
+        written(key);
+        return added;
     }
 
     public Set<String> smembers(String key) {
-        return redis.opsForSet().members(key);
+        return reads.read("smembers", key, r -> r.opsForSet().members(key));
     }
 
     public boolean sismember(String key, String member) {
-        return Boolean.TRUE.equals(redis.opsForSet().isMember(key, member));
+        hotKeys.record(key);
+        return nearCache.read(key, "sismember:" + member,
+            () -> Boolean.TRUE.equals(reads.read("sismember", key, r -> r.opsForSet().isMember(key, member))));
+    }
+
+    /**
+     * 添加成员并设置过期时间，在同一脚本内执行
+     */
+    public long saddExpire(String key, long seconds, String... members) {
+        Object[] args = new Object[members.length + 1];
+        args[0] = String.valueOf(seconds);
+        System.arraycopy(members, 0, args, 1, members.length);
+        Long added = redis.execute(SADD_EXPIRE_SCRIPT, List.of(key), args);
+        written(key);
+        return added != null ? added : 0;
     }
 
     public long srem(String key, String... members) {
-        return redis.opsForSet().remove(key, (Object[]) members);
+        long removed = redis.opsForSet().remove(key, (Object[]) members);
+        written(key);
+        return removed;
     }
 
     public long scard(String key) {
@@ -289,6 +417,99 @@ public final class RedisUtils {
         return redis.opsForList().range(key, start, end);
     }
 
+    // ===== 位图 =====
+
+    /**
+     * 按组置位，每 BIT_GROUPS_PER_COMMAND 组合并为一条 BITFIELD SET，所有命令在一个管道内发送
+     * @return 与 groups 一一对应，true 表示该组的位在置位前已全部为 1
+     */
+    public List<Boolean> setBits(String key, List<long[]> groups) {
+        if (groups.isEmpty()) return List.of();
+
+        byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+        List<Object> replies = redis.executePipelined((RedisCallback<Object>) connection -> {
+            for (int from = 0; from < groups.size(); from += BIT_GROUPS_PER_COMMAND) {
+                int to = Math.min(from + BIT_GROUPS_PER_COMMAND, groups.size());
+                var subCommands = new ArrayList<BitFieldSubCommands.BitFieldSubCommand>();
+                for (int i = from; i < to; i++) {
+                    for (long pos : groups.get(i)) {
+                        subCommands.add(BitFieldSubCommands.BitFieldSet.create(BIT, BitFieldSubCommands.Offset.offset(pos), 1));
+                    }
+                }
+                connection.stringCommands().bitField(rawKey,
+                    BitFieldSubCommands.create(subCommands.toArray(BitFieldSubCommands.BitFieldSubCommand[]::new)));
+            }
+            return null;
+        });
+        return allSet(groups, replies);
+    }
+
+    /**
+     * 按组检查，每 BIT_GROUPS_PER_COMMAND 组合并为一条 BITFIELD_RO GET（只读命令，可在只读副本上执行）。
+     * Spring Data Redis 未提供该命令，经 Lettuce 原生连接发出，多路复用连接上连续写出的命令等同于一个管道
+     * @return 与 groups 一一对应，true 表示该组的位全部为 1
+     */
+    @SuppressWarnings("unchecked")
+    public List<Boolean> testBits(String key, List<long[]> groups) {
+        if (groups.isEmpty()) return List.of();
+
+        byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+        List<Object> replies = redis.execute((RedisCallback<List<Object>>) connection -> {
+            var commands = (RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            var pending = new ArrayList<CompletableFuture<List<Object>>>();
+            for (int from = 0; from < groups.size(); from += BIT_GROUPS_PER_COMMAND) {
+                int to = Math.min(from + BIT_GROUPS_PER_COMMAND, groups.size());
+                var args = new CommandArgs<>(ByteArrayCodec.INSTANCE).addKey(rawKey);
+                for (int i = from; i < to; i++) {
+                    for (long pos : groups.get(i)) {
+                        args.add("GET").add("u1").add(pos);
+                    }
+                }
+                pending.add(commands.dispatch(BITFIELD_RO, new ArrayOutput<>(ByteArrayCodec.INSTANCE), args)
+                    .toCompletableFuture());
+            }
+
+            var result = new ArrayList<Object>(pending.size());
+            try {
+                for (var future : pending) {
+                    result.add(future.orTimeout(BIT_READ_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS).join());
+                }
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+            return result;
+        });
+        return allSet(groups, replies);
+    }
+
+    /**
+     * 把每条命令返回的位值按组拆分，判断每组是否全部为 1
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Boolean> allSet(List<long[]> groups, List<Object> replies) {
+        var result = new ArrayList<Boolean>(groups.size());
+        int group = 0;
+        for (Object reply : replies) {
+            List<Object> bits = (List<Object>) reply;
+            int offset = 0;
+            while (offset < bits.size()) {
+                int width = groups.get(group++).length;
+                boolean all = true;
+                for (int j = offset; j < offset + width; j++) {
+                    if (!(bits.get(j) instanceof Number n) || n.longValue() == 0) {
+                        all = false;
+                    }
+                }
+                result.add(all);
+                offset += width;
+            }
+        }
+        return result;
+    }
+
     // ===== 高级功能 =====
 
     /**
@@ -299,18 +520,22 @@ public final class RedisUtils {
      * @return 限流结果
      */
     public RateLimitResult slidingWindowLimit(String key, int windowSeconds, int limit) {
+        return slidingWindowLimit(key, windowSeconds, limit, System.currentTimeMillis());
+    }
+
+    /**
+     * 滑动窗口限流（指定当前时间，供回放与仿真使用）
+     * @param nowMillis 当前时间戳（毫秒）
+     */
+    public RateLimitResult slidingWindowLimit(String key, int windowSeconds, int limit, long nowMillis) {
+        hotKeys.record(key);
         List<Long> result = redis.execute(SLIDING_WINDOW_SCRIPT,
             List.of(key),
             String.valueOf(windowSeconds),
             String.valueOf(limit),
-            String.valueOf(System.currentTimeMillis()));
+            String.valueOf(nowMillis));
 
-        if (result != null && result.size() >= 2) {
-            boolean allowed = result.get(0) == 1;
-            long remaining = result.get(1);
-            return new RateLimitResult(allowed, remaining);
-        }
-        return new RateLimitResult(false, 0);
+        return toRateLimitResult(result);
     }
 
     /**
@@ -321,18 +546,32 @@ public final class RedisUtils {
      * @return 限流结果
      */
     public RateLimitResult tokenBucketLimit(String key, double rate, int capacity) {
+        return tokenBucketLimit(key, rate, capacity, System.currentTimeMillis());
+    }
+
+    /**
+     * 令牌桶限流（指定当前时间，供回放与仿真使用）
+     * @param nowMillis 当前时间戳（毫秒）
+     */
+    public RateLimitResult tokenBucketLimit(String key, double rate, int capacity, long nowMillis) {
+        hotKeys.record(key);
         List<Long> result = redis.execute(TOKEN_BUCKET_SCRIPT,
             List.of(key),
             String.valueOf(rate),
             String.valueOf(capacity),
-            String.valueOf(System.currentTimeMillis()));
+            String.valueOf(nowMillis));
 
+        return toRateLimitResult(result);
+    }
+
+    static RateLimitResult toRateLimitResult(List<Long> result) {
         if (result != null && result.size() >= 2) {
             boolean allowed = result.get(0) == 1;
             long remaining = result.get(1);
-            return new RateLimitResult(allowed, remaining);
+            long resetMillis = result.size() >= 3 ? Math.max(0, result.get(2)) : 0;
+            return new RateLimitResult(allowed, remaining, resetMillis);
         }
-        return new RateLimitResult(false, 0);
+        return new RateLimitResult(false, 0, 0);
     }
 
     /**
@@ -372,6 +611,7 @@ public final class RedisUtils {
      * @return 计数结果
      */
     public CounterResult atomicCounter(String key, long delta, int ttlSeconds, long maxValue) {
+        hotKeys.record(key);
         List<Long> result = redis.execute(ATOMIC_COUNTER_SCRIPT,
             List.of(key),
             String.valueOf(delta),
@@ -416,18 +656,16 @@ public final class RedisUtils {
      * @return true表示可能存在，false表示一定不存在
      */
     public boolean bloomFilterCheckAndAdd(String key, String item, int hashCount, int bitSize) {
-        Long result = redis.execute(BLOOM_FILTER_SCRIPT,
-            List.of(key),
-            item,
-            String.valueOf(hashCount),
-            String.valueOf(bitSize));
-        return result != null && result == 1L;
+        return setBits(key, List.<long[]>of(BloomFilter.positions(item, hashCount, bitSize))).get(0);
     }
 
     /**
-     * 缓存击穿防护
+     * 缓存击穿防护，集群模式下 cacheKey 与 lockKey 须带相同哈希标签
      */
     public boolean cacheBreakthroughGuard(String cacheKey, String lockKey, String value, int cacheTtl, int lockTtl) {
+        if (clusterAware()) {
+            RedisKeys.requireSameSlot("cacheBreakthroughGuard", List.of(cacheKey, lockKey));
+        }
         Long result = redis.execute(CACHE_BREAKTHROUGH_GUARD_SCRIPT,
             List.of(cacheKey, lockKey),
             value,
@@ -436,19 +674,63 @@ public final class RedisUtils {
         return result != null && result > 0;
     }
 
+    /**
+     * 值等于预期时删除，用于释放带令牌的租约
+     */
+    public boolean deleteIfEquals(String key, String expected) {
+        Long result = redis.execute(COMPARE_AND_DELETE_SCRIPT, List.of(key), expected);
+        written(key);
+        return result != null && result > 0;
+    }
+
     /**
      * 带随机过期时间的缓存设置（防雪崩）
      */
     public void setWithRandomExpire(String key, String value, int baseTtl, int randomRange) {
-        int randomTtl = baseTtl + ThreadLocalRandom.current().nextInt(randomRange);
-        set(key, value, randomTtl);
+        set(key, value, randomTtl(baseTtl, randomRange));
+    }
+
+    /**
+     * 在基础 TTL 上叠加 [0, randomRange) 的随机量，错开同批写入的过期时间
+     */
+    public static long randomTtl(long baseTtl, long randomRange) {
+        return randomRange > 0 ? baseTtl + ThreadLocalRandom.current().nextLong(randomRange) : baseTtl;
     }
 
     /**
      * 是否存在
      */
     public boolean exists(String key) {
-        return Boolean.TRUE.equals(redis.hasKey(key));
+        return cachedExists(key, () -> Boolean.TRUE.equals(reads.read("exists", key, r -> r.hasKey(key))));
+    }
+
+    /**
+     * 按 exists 的缓存语义判断，语义同 {@link #cachedGet}
+     */
+    boolean cachedExists(String key, Supplier<Boolean> loader) {
+        hotKeys.record(key);
+        return nearCache.read(key, "exists", loader);
+    }
+
+    /**
+     * 批量判断是否存在，一次管道发出；开启读路由时按 exists 整体路由，任一键固定主节点时整体走主节点
+     */
+    public List<Boolean> existsAll(List<String> keys) {
+        if (keys.isEmpty()) return List.of();
+        keys.forEach(hotKeys::record);
+        return loadExists(keys);
+    }
+
+    /**
+     * 批量 EXISTS，语义同 {@link #loadAll}
+     */
+    List<Boolean> loadExists(List<String> keys) {
+        return reads.read("exists", keys, r -> {
+            var batch = new RedisBatch(r, RedisBatch.DEFAULT_CHUNK_SIZE);
+            var replies = keys.stream().map(batch::exists).toList();
+            batch.execute();
+            return replies.stream().map(reply -> Boolean.TRUE.equals(reply.get())).toList();
+        });
     }
 
     /**
@@ -457,13 +739,29 @@ public final class RedisUtils {
     public long delete(String... keys) {
         if (keys.length == 0) return 0;
         Long result = redis.delete(Arrays.asList(keys));
+        for (String key : keys) {
+            written(key);
+        }
         return result != null ? result : 0;
     }
 
+    /**
+     * 重命名，目标键已存在时覆盖；集群模式下两个键须位于同一槽位
+     */
+    public void rename(String oldKey, String newKey) {
+        if (clusterAware()) {
+            RedisKeys.requireSameSlot("rename", List.of(oldKey, newKey));
+        }
+        redis.rename(oldKey, newKey);
+        written(oldKey);
+        written(newKey);
+    }
+
     /**
      * 设置过期时间
      */
     public boolean expire(String key, long seconds) {
+        written(key);
         return Boolean.TRUE.equals(redis.expire(key, seconds, TimeUnit.SECONDS));
     }
 
@@ -474,4 +772,19 @@ public final class RedisUtils {
         Long ttl = redis.getExpire(key, TimeUnit.SECONDS);
         return ttl != null ? ttl : -1;
     }
+
+    /**
+     * 本节点写入后失效本地副本
+     */
+    private void written(String key) {
+        hotKeys.written(key);
+        nearCache.written(key);
+    }
+
+    /**
+     * 是否连接集群，与 {@link RedisBatch} 一致，单机与哨兵模式不校验跨槽位
+     */
+    private boolean clusterAware() {
+        return redis.getConnectionFactory() instanceof LettuceConnectionFactory factory && factory.isClusterAware();
+    }
 }
@@ -0,0 +1,316 @@
+package io.github.oljc.arcoserve.shared.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.oljc.arcoserve.shared.store.ConditionalOnRedisStore;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 服务端辅助的本地读缓存（RESP3 CLIENT TRACKING）
+ * <p>
+ * 启用后建立一条 RESP3 连接并以 BCAST 模式订阅指定前缀：任何客户端修改这些前缀下的键，
+ * Redis 都会推送 invalidate 消息，本地副本随即删除。读取以"待定令牌"防止失效消息先于回填到达时写入旧值；
+ * 跟踪连接断开期间的失效消息无法送达，因此断开即清空本地缓存并透传读取，重连并重新开启跟踪后恢复。
+ * 默认关闭，未开启或前缀不匹配时直接透传。
+ */
+@Slf4j
+@Component
+@ConditionalOnRedisStore
+public class TrackingNearCache implements InitializingBean, DisposableBean {
+
+    private static final Object NULL = new Object();
+
+    private final RedisConnectionFactory connectionFactory;
+    private final boolean enabled;
+    private final String[] prefixes;
+    private final Cache<String, Map<String, Object>> local;
+    private final Map<String, Object> pending = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+
+    private volatile boolean active;
+    private StatefulRedisConnection<String, String> connection;
+    private RedisClient client;
+
+    /**
+     * 本地缓存统计
+     */
+    public record Stats(boolean active, List<String> prefixes, long hits, long misses, long invalidations, long size) {}
+
+    private final RedisConnectionStateListener stateListener = new RedisConnectionStateListener() {
+        @Override
+        public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress address) {
+            if (connection != null && handler == connection) {
+                enableTracking();
+            }
+        }
+
+        @Override
+        public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+            if (connection != null && handler == connection) {
+                active = false;
+                flush();
+                log.warn("Redis 跟踪连接断开，本地缓存已清空");
+            }
+        }
+
+        @Override
+        public void onRedisExceptionCaught(RedisChannelHandler<?, ?> handler, Throwable cause) {
+        }
+    };
+
+    public TrackingNearCache(
+            RedisConnectionFactory connectionFactory,
+            MeterRegistry meterRegistry,
+            @Value("${app.redis.client-tracking.enabled:false}") boolean enabled,
+            @Value("${app.redis.client-tracking.prefixes:jwt:blacklist:}") String[] prefixes,
+            @Value("${app.redis.client-tracking.max-keys:100000}") long maxKeys,
+            @Value("${app.redis.client-tracking.ttl:10m}") Duration ttl
+    ) {
+        this.connectionFactory = connectionFactory;
+        this.enabled = enabled && prefixes.length > 0;
+        this.prefixes = prefixes;
+        this.local = Caffeine.newBuilder()
+            .maximumSize(maxKeys)
+            .expireAfterWrite(ttl)
+            .build();
+        this.hits = Counter.builder("redis.tracking.gets")
+            .tag("result", "hit")
+            .description("跟踪前缀读取的本地命中次数")
+            .register(meterRegistry);
+        this.misses = Counter.builder("redis.tracking.gets")
+            .tag("result", "miss")
+            .description("跟踪前缀读取的本地未命中次数")
+            .register(meterRegistry);
+        this.invalidations = Counter.builder("redis.tracking.invalidations")
+            .description("收到的失效键数量")
+            .register(meterRegistry);
+        Gauge.builder("redis.tracking.size", local, Cache::estimatedSize)
+            .description("本地缓存的键数量")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 不做本地缓存的实例，用于脱离 Spring 容器构造 RedisUtils
+     */
+    public static TrackingNearCache disabled() {
+        return new TrackingNearCache(null, new SimpleMeterRegistry(), false, new String[0], 1, Duration.ofMinutes(1));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) return;
+
+        try {
+            if (!(connectionFactory instanceof LettuceConnectionFactory lettuce)) {
+                log.warn("Redis 客户端跟踪需要 Lettuce 连接工厂，已关闭");
+                return;
+            }
+            AbstractRedisClient nativeClient = lettuce.getRequiredNativeClient();
+            if (!(nativeClient instanceof RedisClient redisClient)) {
+                log.warn("Redis 客户端跟踪仅支持单机/哨兵模式，已关闭");
+                return;
+            }
+            if (redisClient.getOptions().getConfiguredProtocolVersion() == ProtocolVersion.RESP2) {
+                log.warn("Redis 客户端跟踪需要 RESP3 协议，当前配置为 RESP2，已关闭");
+                return;
+            }
+
+            client = redisClient;
+            client.addListener(stateListener);
+            connection = client.connect(StringCodec.UTF8);
+            connection.addListener(this::onPush);
+            enableTracking();
+        } catch (Exception e) {
+            log.warn("Redis 客户端跟踪启动失败，读取将直接访问 Redis: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        active = false;
+        if (client != null) {
+            client.removeListener(stateListener);
+        }
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    public boolean tracks(String key) {
+        return active && covers(key);
+    }
+
+    /**
+     * 键是否在跟踪前缀内，与跟踪连接当前是否可用无关，供 {@link RedisReadRouter} 把这些键固定在主节点
+     */
+    public boolean covers(String key) {
+        if (!enabled) return false;
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    public Stats stats() {
+        return new Stats(active, List.of(prefixes), (long) hits.count(), (long) misses.count(),
+            (long) invalidations.count(), local.estimatedSize());
+    }
+
+    // ===== 供 RedisUtils / AsyncRedisUtils 调用 =====
+
+    /**
+     * 读取键的某个视图（get、exists、hget:field 等），未跟踪的键直接透传
+     */
+    @SuppressWarnings("unchecked")
+    <T> T read(String key, String slot, Supplier<T> loader) {
+        if (!tracks(key)) return loader.get();
+
+        Object cached = lookup(key, slot);
+        if (cached != null) return cached == NULL ? null : (T) cached;
+
+        Object token = new Object();
+        pending.put(key, token);
+        T value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException e) {
+            pending.remove(key, token);
+            throw e;
+        }
+        fill(key, slot, token, value);
+        return value;
+    }
+
+    /**
+     * 异步读取，语义同 {@link #read(String, String, Supplier)}
+     */
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> readAsync(String key, String slot, Supplier<CompletableFuture<T>> loader) {
+        if (!tracks(key)) return loader.get();
+
+        Object cached = lookup(key, slot);
+        if (cached != null) return CompletableFuture.completedFuture(cached == NULL ? null : (T) cached);
+
+        Object token = new Object();
+        pending.put(key, token);
+        return loader.get().whenComplete((value, error) -> {
+            if (error != null) {
+                pending.remove(key, token);
+            } else {
+                fill(key, slot, token, value);
+            }
+        });
+    }
+
+    /**
+     * 本节点写入后立即失效，不等待服务端推送
+     */
+    void written(String key) {
+        if (tracks(key)) {
+            invalidate(key);
+        }
+    }
+
+    private Object lookup(String key, String slot) {
+        Map<String, Object> slots = local.getIfPresent(key);
+        Object cached = slots != null ? slots.get(slot) : null;
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return cached;
+    }
+
+    /**
+     * 令牌仍在说明读取期间没有收到失效消息，回填本地；与 invalidate 在同一把桶锁内串行
+     */
+    private void fill(String key, String slot, Object token, Object value) {
+        pending.computeIfPresent(key, (k, current) -> {
+            if (current == token) {
+                if (active) {
+                    local.asMap().compute(key, (ignored, slots) -> {
+                        var next = slots != null ? slots : new ConcurrentHashMap<String, Object>();
+                        next.put(slot, value != null ? value : NULL);
+                        return next;
+                    });
+                }
+                return null;
+            }
+            return current;
+        });
+    }
+
+    private void invalidate(String key) {
+        pending.remove(key);
+        local.invalidate(key);
+    }
+
+    private void flush() {
+        pending.clear();
+        local.invalidateAll();
+    }
+
+    private void enableTracking() {
+        connection.async()
+            .clientTracking(TrackingArgs.Builder.enabled().bcast().prefixes(prefixes))
+            .whenComplete((ok, error) -> {
+                if (error != null) {
+                    active = false;
+                    log.warn("Redis CLIENT TRACKING 开启失败: {}", error.getMessage());
+                } else {
+                    flush();
+                    active = true;
+                    log.info("Redis 客户端跟踪已开启: prefixes={}", Arrays.toString(prefixes));
+                }
+            });
+    }
+
+    private void onPush(PushMessage message) {
+        if (!"invalidate".equals(message.getType())) return;
+
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        Object keys = content.size() > 1 ? content.get(1) : null;
+        // 键列表为空表示 FLUSHALL/FLUSHDB 或服务端主动清理，全部失效
+        if (!(keys instanceof List<?> list)) {
+            flush();
+            return;
+        }
+        for (Object key : list) {
+            if (key instanceof String k) {
+                invalidate(k);
+            }
+        }
+        invalidations.increment(list.size());
+    }
+}
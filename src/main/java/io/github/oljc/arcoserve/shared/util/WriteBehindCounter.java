@@ -0,0 +1,229 @@
+package io.github.oljc.arcoserve.shared.util;
+
+import io.github.oljc.arcoserve.shared.store.KeyValueStore;
+import io.github.oljc.arcoserve.shared.store.KeyValueStore.Increment;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 写后合并计数器
+ * <p>
+ * 增量先累加到每个键的 {@link LongAdder}，每隔 flushInterval 或累计 maxPending 次增量后，
+ * 由后台线程经 {@link KeyValueStore#incrByAll} 一次写回（Redis 后端为一次管道 INCRBY，带过期时间时附带 EXPIRE），
+ * 适用于浏览量、接口用量等允许短暂滞后的计数。写回失败的增量放回本地，下次重试；关闭时同步刷新剩余增量。
+ * 需要严格上限的计数使用 {@link #addStrict}，先写回该键的本地增量再走 {@link KeyValueStore#atomicCounter}。
+ */
+@Slf4j
+@Component
+public class WriteBehindCounter implements InitializingBean, DisposableBean {
+
+    private final KeyValueStore store;
+    private final long flushIntervalNanos;
+    private final long maxPending;
+
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+    private final AtomicLong pendingOps = new AtomicLong();
+    private final DistributionSummary flushSize;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    /**
+     * 单个键的本地累加状态，连续两轮为零的键被移除。
+     * 移除时在 map 的 compute 内标记 retired，之后落到该 slot 的增量由累加方取回并转入新的 slot
+     */
+    private static final class Slot {
+        final LongAdder delta = new LongAdder();
+        volatile long ttlSeconds;
+        volatile boolean retired;
+        int idleRounds;
+    }
+
+    public WriteBehindCounter(
+            KeyValueStore store,
+            MeterRegistry meterRegistry,
+            @Value("${app.redis.write-behind.flush-interval:200ms}") Duration flushInterval,
+            @Value("${app.redis.write-behind.max-pending:10000}") long maxPending
+    ) {
+        this.store = store;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.maxPending = maxPending;
+        this.flushSize = DistributionSummary.builder("redis.counter.flush.size")
+            .description("每次写回的键数量")
+            .register(meterRegistry);
+        Gauge.builder("redis.counter.pending", pendingOps, AtomicLong::get)
+            .description("尚未写回的增量次数")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        running = true;
+        flusher = new Thread(this::runFlusher, "redis-counter-flush");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        if (flusher != null) {
+            LockSupport.unpark(flusher);
+            try {
+                flusher.join(flushIntervalNanos / 1_000_000 + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // 关闭前写回全部剩余增量
+        flush();
+    }
+
+    public void increment(String key) {
+        add(key, 1, 0);
+    }
+
+    public void add(String key, long delta) {
+        add(key, delta, 0);
+    }
+
+    /**
+     * 累加增量
+     * @param ttlSeconds 大于 0 时每次写回续期，与 atomicCounter 一致
+     */
+    public void add(String key, long delta, long ttlSeconds) {
+        accumulate(key, delta, ttlSeconds);
+
+        if (pendingOps.incrementAndGet() >= maxPending && flusher != null) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    /**
+     * 累加到当前 slot。先累加再检查 retired：若 slot 已退役，写回线程的收尾可能发生在累加之前，
+     * 此时取回 slot 中的剩余增量转入新的 slot；收尾已取走的部分不会被取回两次
+     */
+    private void accumulate(String key, long delta, long ttlSeconds) {
+        long pending = delta;
+        long ttl = ttlSeconds;
+        while (true) {
+            Slot slot = slots.computeIfAbsent(key, k -> new Slot());
+            if (ttl > 0) {
+                slot.ttlSeconds = ttl;
+            }
+            slot.delta.add(pending);
+            if (!slot.retired) return;
+
+            pending = slot.delta.sumThenReset();
+            if (pending == 0) return;
+            if (ttl <= 0) {
+                ttl = slot.ttlSeconds;
+            }
+        }
+    }
+
+    /**
+     * 当前值：存储中的值加本地未写回的增量
+     */
+    public long get(String key) {
+        String stored = store.get(key);
+        Slot slot = slots.get(key);
+        return (stored != null ? Long.parseLong(stored) : 0) + (slot != null ? slot.delta.sum() : 0);
+    }
+
+    /**
+     * 严格计数：上限必须精确时使用，每次调用一次网络往返
+     */
+    public RedisUtils.CounterResult addStrict(String key, long delta, int ttlSeconds, long maxValue) {
+        Slot slot = slots.get(key);
+        if (slot != null) {
+            long local = slot.delta.sumThenReset();
+            if (local != 0) {
+                // 与定时写回一致附带过期时间，超出上限时 atomicCounter 不会重设 TTL
+                long ttl = slot.ttlSeconds > 0 ? slot.ttlSeconds : ttlSeconds;
+                try {
+                    store.incrByAll(List.of(new Increment(key, local, ttl)));
+                } catch (RuntimeException e) {
+                    accumulate(key, local, 0);
+                    throw e;
+                }
+            }
+        }
+        return store.atomicCounter(key, delta, ttlSeconds, maxValue);
+    }
+
+    /**
+     * 立即写回全部本地增量
+     */
+    public synchronized void flush() {
+        pendingOps.set(0);
+        if (slots.isEmpty()) return;
+
+        var increments = new ArrayList<Increment>();
+        slots.forEach((key, slot) -> {
+            long delta = slot.delta.sumThenReset();
+            if (delta == 0) {
+                if (++slot.idleRounds >= 2 && retire(key, slot)) {
+                    // 退役后收尾一次，之后到达的增量由累加方转走
+                    delta = slot.delta.sumThenReset();
+                }
+                if (delta == 0) return;
+            }
+            slot.idleRounds = 0;
+            increments.add(new Increment(key, delta, slot.ttlSeconds));
+        });
+        if (increments.isEmpty()) return;
+
+        try {
+            store.incrByAll(increments);
+            flushSize.record(increments.size());
+        } catch (Exception e) {
+            // 放回本地，下次写回时重试
+            for (Increment increment : increments) {
+                accumulate(increment.key(), increment.delta(), increment.ttlSeconds());
+            }
+            log.warn("计数写回失败，{} 个键将在下次重试: {}", increments.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 在 compute 内移除并标记退役，与 computeIfAbsent 互斥，map 中不会出现已退役的 slot
+     */
+    private boolean retire(String key, Slot slot) {
+        boolean[] retired = {false};
+        slots.computeIfPresent(key, (k, current) -> {
+            if (current != slot) return current;
+            slot.retired = true;
+            retired[0] = true;
+            return null;
+        });
+        return retired[0];
+    }
+
+    private void runFlusher() {
+        while (running) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            if (!running) break;
+            try {
+                flush();
+            } catch (Exception e) {
+                log.warn("计数写回异常: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -19,6 +19,8 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT认证过滤器
@@ -29,6 +31,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final TokenBlacklistService tokenBlacklistService;
+    private final RateLimiter rateLimiter;
 
     // Access Token 传输方式
     private static final String ACCESS_TOKEN_HEADER = "X-Access-Token";
@@ -37,6 +40,9 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     // Refresh Token 传输方式
     private static final String REFRESH_TOKEN_COOKIE = "refreshToken";
 
+    // 黑名单检查与同时发出的请求最长等待时间，黑名单超时或出错按已拉黑处理
+    private static final long BLACKLIST_TIMEOUT_MILLIS = 500;
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -53,7 +59,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         try {
             // 尝试从Access Token认证
             String accessToken = extractAccessToken(request);
-            if (accessToken != null && validateAccessToken(accessToken)) {
+            if (accessToken != null && validateAccessToken(request, accessToken)) {
                 setAuthentication(request, accessToken);
                 filterChain.doFilter(request, response);
                 return;
@@ -109,25 +115,50 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     /**
      * 验证Access Token
+     * <p>
+     * 黑名单 EXISTS、活跃token登记与接口限流判定同时发出，只等待一次往返
      */
-    private boolean validateAccessToken(String token) {
+    private boolean validateAccessToken(HttpServletRequest request, String token) {
         if (!jwtUtils.isValid(token)) {
             return false;
         }
 
-        if (!jwtUtils.isAccessToken(token)) {
+        var info = jwtUtils.getInfo(token);
+        if (!"access".equals(info.type())) {
             return false;
         }
 
-        if (tokenBlacklistService.isBlacklisted(token)) {
+        CompletableFuture<Boolean> blacklisted;
+        try {
+            blacklisted = tokenBlacklistService.isBlacklistedAsync(info);
+        } catch (RuntimeException e) {
             return false;
         }
+        var tracked = tokenBlacklistService.trackUserTokenAsync(info);
+        // 限流结果由 RateLimiter 在拦截器中取用，这里只等待它完成
+        var rateLimited = rateLimiter.prefetch(request);
 
-        // 记录活跃token
-        tokenBlacklistService.trackUserToken(token);
+        CompletableFuture.allOf(settled(blacklisted), settled(tracked), settled(rateLimited)).join();
+        // 超时或出错，无法确认未被拉黑时拒绝认证
+        if (!blacklisted.isDone() || blacklisted.isCompletedExceptionally()) {
+            return false;
+        }
+        if (blacklisted.join()) {
+            // 与黑名单检查同时登记，已吊销的token需撤回登记
+            tokenBlacklistService.untrackUserToken(token);
+            return false;
+        }
         return true;
     }
 
+    /**
+     * 最多等待到超时，不论成败；结果由使用方自行检查
+     */
+    private static CompletableFuture<Void> settled(CompletableFuture<?> future) {
+        return future.<Void>handle((result, error) -> null)
+            .completeOnTimeout(null, BLACKLIST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
     /**
      * 验证Refresh Token
      */
@@ -3,56 +3,208 @@ package io.github.oljc.arcoserve.shared.web;
 import io.github.oljc.arcoserve.shared.annotation.RateLimit;
 import io.github.oljc.arcoserve.shared.exception.BusinessException;
 import io.github.oljc.arcoserve.shared.exception.Code;
+import io.github.oljc.arcoserve.shared.store.KeyValueStore;
 import io.github.oljc.arcoserve.shared.util.AnnotationUtils;
 import io.github.oljc.arcoserve.shared.util.RedisUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 import org.springframework.util.DigestUtils;
 import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExecutionChain;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpServletResponse;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 限流拦截器
+ * <p>
+ * 鉴权过滤器可先调用 {@link #prefetch} 异步发起判定，与黑名单检查一起等待；
+ * 判定结果存入请求属性，到达拦截器时直接取用，未预取的请求在拦截器中同步判定。
  */
 @Component
 @RequiredArgsConstructor
 public class RateLimiter implements HandlerInterceptor {
 
-    private final RedisUtils redisUtils;
+    private final KeyValueStore store;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationContext applicationContext;
     private static final String HEADER_FP = "X-Fingerprint";
     private static final String HEADER_IP = "X-Real-IP";
     private static final String HEADER_TOKEN = "access-token";
 
+    private static final String HEADER_LIMIT = "RateLimit-Limit";
+    private static final String HEADER_REMAINING = "RateLimit-Remaining";
+    private static final String HEADER_RESET = "RateLimit-Reset";
+    private static final String HEADER_RETRY_AFTER = "Retry-After";
+
+    // 按路由模板缓存指标，标签基数受限于接口数量
+    private final Map<String, RouteMeters> meters = new ConcurrentHashMap<>();
+
+    private static final String PREFETCHED = RateLimiter.class.getName() + ".PREFETCHED";
+
+    private record RouteMeters(Counter allowed, Counter rejected, Timer latency) {}
+
+    /**
+     * 预取的判定结果及其耗时
+     */
+    private record Prefetched(RedisUtils.RateLimitResult result, long nanos) {}
+
+    // 与 DispatcherServlet 相同的注解映射，首次预取时查找，避免与 WebMvc 配置循环依赖
+    private volatile HandlerMapping handlerMapping;
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         if (handler instanceof HandlerMethod handlerMethod) {
             RateLimit rateLimit = AnnotationUtils.find(handlerMethod, RateLimit.class);
             if (rateLimit != null) {
-                checkRateLimit(request, rateLimit);
+                checkRateLimit(request, response, handlerMethod, rateLimit);
             }
         }
         return true;
     }
 
+    /**
+     * 提前异步发起限流判定，结果由 {@link #preHandle} 取用
+     *
+     * @return 判定完成的 future，接口未配置限流时为已完成的 future
+     */
+    public CompletableFuture<?> prefetch(HttpServletRequest request) {
+        HandlerMethod handlerMethod = resolveHandler(request);
+        RateLimit rateLimit = handlerMethod != null ? AnnotationUtils.find(handlerMethod, RateLimit.class) : null;
+        if (rateLimit == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<Prefetched> prefetched;
+        try {
+            prefetched = store.slidingWindowLimitAsync(
+                buildLimitKey(request, rateLimit),
+                rateLimit.window(),
+                rateLimit.limit(),
+                System.currentTimeMillis()
+            ).thenApply(result -> new Prefetched(result, System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            // 未能发出时不存结果，由拦截器同步判定并按原有方式报错
+            return CompletableFuture.completedFuture(null);
+        }
+        request.setAttribute(PREFETCHED, prefetched);
+        return prefetched;
+    }
+
     /**
      * 检查限流
      */
-    private void checkRateLimit(HttpServletRequest request, RateLimit rateLimit) {
-        String key = buildLimitKey(request, rateLimit);
+    private void checkRateLimit(HttpServletRequest request, HttpServletResponse response,
+                                HandlerMethod handlerMethod, RateLimit rateLimit) {
+        RouteMeters routeMeters = meters.computeIfAbsent(resolveRoute(request, handlerMethod), this::createMeters);
 
-        RedisUtils.RateLimitResult result = redisUtils.slidingWindowLimit(
-            key,
-            rateLimit.window(),
-            rateLimit.limit()
-        );
+        Prefetched decision = takePrefetched(request);
+        if (decision == null) {
+            long start = System.nanoTime();
+            var result = store.slidingWindowLimit(
+                buildLimitKey(request, rateLimit),
+                rateLimit.window(),
+                rateLimit.limit(),
+                System.currentTimeMillis()
+            );
+            decision = new Prefetched(result, System.nanoTime() - start);
+        }
+        routeMeters.latency().record(decision.nanos(), TimeUnit.NANOSECONDS);
+        RedisUtils.RateLimitResult result = decision.result();
+
+        long resetSeconds = Math.max(1, (result.resetMillis() + 999) / 1000);
+        response.setHeader(HEADER_LIMIT, String.valueOf(rateLimit.limit()));
+        response.setHeader(HEADER_REMAINING, String.valueOf(result.remaining()));
+        response.setHeader(HEADER_RESET, String.valueOf(resetSeconds));
 
         if (!result.allowed()) {
+            routeMeters.rejected().increment();
+            response.setHeader(HEADER_RETRY_AFTER, String.valueOf(resetSeconds));
             throw new BusinessException(Code.TOO_MANY_REQUESTS, rateLimit.message());
         }
+        routeMeters.allowed().increment();
+    }
+
+    /**
+     * 取出预取的判定，存储异常与同步判定一样原样抛出
+     */
+    @SuppressWarnings("unchecked")
+    private Prefetched takePrefetched(HttpServletRequest request) {
+        var prefetched = (CompletableFuture<Prefetched>) request.getAttribute(PREFETCHED);
+        if (prefetched == null) {
+            return null;
+        }
+        request.removeAttribute(PREFETCHED);
+        try {
+            return prefetched.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 在过滤器阶段解析处理方法；映射写入的请求属性只留在包装内，不影响 DispatcherServlet 随后的解析
+     */
+    private HandlerMethod resolveHandler(HttpServletRequest request) {
+        try {
+            HandlerMapping mapping = handlerMapping;
+            if (mapping == null) {
+                mapping = applicationContext.getBean("requestMappingHandlerMapping", HandlerMapping.class);
+                handlerMapping = mapping;
+            }
+            HandlerExecutionChain chain = mapping.getHandler(new DetachedAttributes(request));
+            return chain != null && chain.getHandler() instanceof HandlerMethod handlerMethod ? handlerMethod : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 解析路由模板，避免使用原始路径导致指标基数膨胀
+     */
+    private String resolveRoute(HttpServletRequest request, HandlerMethod handlerMethod) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) {
+            return pattern.toString();
+        }
+        return handlerMethod.getBeanType().getSimpleName() + "#" + handlerMethod.getMethod().getName();
+    }
+
+    private RouteMeters createMeters(String route) {
+        return new RouteMeters(
+            Counter.builder("ratelimit.decisions")
+                .description("限流判定次数")
+                .tag("route", route)
+                .tag("outcome", "allowed")
+                .register(meterRegistry),
+            Counter.builder("ratelimit.decisions")
+                .description("限流判定次数")
+                .tag("route", route)
+                .tag("outcome", "rejected")
+                .register(meterRegistry),
+            Timer.builder("ratelimit.redis.latency")
+                .description("限流 Redis 判定耗时")
+                .tag("route", route)
+                .register(meterRegistry)
+        );
     }
 
     /**
@@ -78,4 +230,30 @@ public class RateLimiter implements HandlerInterceptor {
 
         return "rl:" + DigestUtils.md5DigestAsHex(keyBuilder.toString().getBytes(StandardCharsets.UTF_8));
     }
+
+    /**
+     * 属性读写只作用于包装本身，读取时回退到原请求
+     */
+    private static final class DetachedAttributes extends HttpServletRequestWrapper {
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        DetachedAttributes(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return attributes.containsKey(name) ? attributes.get(name) : super.getAttribute(name);
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            attributes.put(name, value);
+        }
+
+        @Override
+        public void removeAttribute(String name) {
+            attributes.put(name, null);
+        }
+    }
 }
@@ -0,0 +1,196 @@
+package io.github.oljc.arcoserve.modules.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 验证码池环形缓冲在满、空边界上的行为
+ */
+class CaptchaPoolTest {
+
+    private final AtomicInteger renders = new AtomicInteger();
+    private CaptchaPool<Integer> pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 调整周期设为 1 小时，测试期间不会丢弃库存
+     */
+    private CaptchaPool<Integer> pool(int initial, int max) {
+        var sizing = new CaptchaPool.Sizing(initial, 1, max, 0.5, Duration.ofSeconds(10), Duration.ofHours(1));
+        pool = new CaptchaPool<>(sizing, 2, renders::incrementAndGet, new SimpleMeterRegistry());
+        return pool;
+    }
+
+    @Test
+    void capacityRoundsUpToPowerOfTwo() {
+        var ring = pool(1, 5);
+        int accepted = 0;
+        while (ring.enqueue(accepted)) {
+            accepted++;
+        }
+        assertEquals(8, accepted);
+        assertEquals(8, ring.size());
+    }
+
+    @Test
+    void fullRingRejectsUntilSlotIsFreed() {
+        var ring = pool(1, 8);
+        for (int i = 0; i < 8; i++) {
+            assertTrue(ring.enqueue(i));
+        }
+        assertFalse(ring.enqueue(8));
+        assertFalse(ring.enqueue(8));
+        assertEquals(8, ring.size());
+
+        assertEquals(0, ring.dequeue());
+        assertTrue(ring.enqueue(8));
+        assertFalse(ring.enqueue(9));
+
+        for (int i = 1; i <= 8; i++) {
+            assertEquals(i, ring.dequeue());
+        }
+        assertNull(ring.dequeue());
+    }
+
+    @Test
+    void emptyRingReturnsNull() {
+        var ring = pool(1, 4);
+        assertNull(ring.dequeue());
+        assertEquals(0, ring.size());
+
+        assertTrue(ring.enqueue(1));
+        assertEquals(1, ring.dequeue());
+        assertNull(ring.dequeue());
+        assertNull(ring.dequeue());
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    void wrapAroundKeepsFifoOrder() {
+        var ring = pool(1, 4);
+        int next = 0;
+        int expected = 0;
+        // 序号多次绕过容量，交替填满与取空
+        for (int round = 0; round < 10; round++) {
+            while (ring.enqueue(next)) {
+                next++;
+            }
+            assertEquals(4, ring.size());
+            for (int i = 0; i < 3; i++) {
+                assertEquals(expected++, ring.dequeue());
+            }
+        }
+        while (ring.size() > 0) {
+            assertEquals(expected++, ring.dequeue());
+        }
+        assertEquals(next, expected);
+        assertNull(ring.dequeue());
+    }
+
+    @Test
+    void concurrentProducersAndConsumersDeliverEachItemOnce() throws Exception {
+        var ring = pool(1, 8);
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 20_000;
+        int total = producers * perProducer;
+        var seen = new AtomicIntegerArray(total);
+        var consumed = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        try {
+            var tasks = new ArrayList<Future<?>>();
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        // 容量很小，生产者频繁遇到池满
+                        while (!ring.enqueue(base + i)) {
+                            if (Thread.currentThread().isInterrupted()) return;
+                            Thread.yield();
+                        }
+                    }
+                }));
+            }
+            for (int c = 0; c < consumers; c++) {
+                tasks.add(executor.submit(() -> {
+                    while (consumed.get() < total && !Thread.currentThread().isInterrupted()) {
+                        Integer item = ring.dequeue();
+                        if (item == null) {
+                            Thread.yield();
+                            continue;
+                        }
+                        seen.incrementAndGet(item);
+                        consumed.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(total, consumed.get());
+        for (int i = 0; i < total; i++) {
+            assertEquals(1, seen.get(i), "item " + i);
+        }
+        assertNull(ring.dequeue());
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    void pollOnEmptyPoolReturnsNullAndRefillsToTarget() throws InterruptedException {
+        var captchas = pool(4, 8);
+        assertNull(captchas.poll());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (captchas.size() < captchas.target() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(4, captchas.size());
+
+        List<Integer> taken = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Integer item = captchas.poll();
+            if (item != null) {
+                taken.add(item);
+            }
+        }
+        assertEquals(4, taken.size());
+    }
+
+    @Test
+    void pollAfterShutdownReturnsNullWithoutThrowing() {
+        var captchas = pool(4, 8);
+        captchas.shutdown();
+
+        // 补充任务被拒绝，计数扣回后再次触发同样被拒绝
+        assertNull(captchas.poll());
+        assertNull(captchas.poll());
+        assertEquals(0, renders.get());
+    }
+}
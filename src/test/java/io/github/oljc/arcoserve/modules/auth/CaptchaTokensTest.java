@@ -0,0 +1,113 @@
+package io.github.oljc.arcoserve.modules.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 无状态验证码令牌：往返、篡改与过期时间
+ */
+class CaptchaTokensTest {
+
+    private static final long EXPIRES_AT = 1_900_000_000L;
+
+    private final CaptchaTokens tokens = new CaptchaTokens("test-secret");
+
+    @Test
+    void roundTripMatchesAnswerIgnoringCaseAndWhitespace() {
+        String token = tokens.issue("aB3x", EXPIRES_AT);
+
+        var opened = tokens.open(token, "  Ab3X ");
+        assertNotNull(opened);
+        assertTrue(opened.answerMatches());
+        assertEquals(EXPIRES_AT, opened.expiresAt());
+    }
+
+    @Test
+    void wrongAnswerOpensWithoutMatching() {
+        String token = tokens.issue("ab3x", EXPIRES_AT);
+
+        var opened = tokens.open(token, "ab3y");
+        assertNotNull(opened);
+        assertFalse(opened.answerMatches());
+        assertEquals(EXPIRES_AT, opened.expiresAt());
+    }
+
+    @Test
+    void idIsStablePerTokenAndUniqueAcrossTokens() {
+        String first = tokens.issue("same", EXPIRES_AT);
+        String second = tokens.issue("same", EXPIRES_AT);
+        assertNotEquals(first, second);
+
+        String id = tokens.open(first, "same").id();
+        assertEquals(id, tokens.open(first, "other").id());
+        assertNotEquals(id, tokens.open(second, "same").id());
+        // 标识即令牌开头的 nonce
+        assertTrue(first.startsWith(id));
+    }
+
+    @Test
+    void everyTamperedByteIsRejected() {
+        String token = tokens.issue("ab3x", EXPIRES_AT);
+        byte[] raw = Base64.getUrlDecoder().decode(token);
+
+        for (int i = 0; i < raw.length; i++) {
+            byte[] tampered = raw.clone();
+            tampered[i] ^= 0x01;
+            String forged = Base64.getUrlEncoder().withoutPadding().encodeToString(tampered);
+            assertNull(tokens.open(forged, "ab3x"), "byte " + i);
+        }
+    }
+
+    @Test
+    void tokenFromAnotherSecretIsRejected() {
+        String token = new CaptchaTokens("other-secret").issue("ab3x", EXPIRES_AT);
+        assertNull(tokens.open(token, "ab3x"));
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        String token = tokens.issue("ab3x", EXPIRES_AT);
+        byte[] raw = Base64.getUrlDecoder().decode(token);
+        var encoder = Base64.getUrlEncoder().withoutPadding();
+
+        assertNull(tokens.open("", "ab3x"));
+        assertNull(tokens.open("not base64!", "ab3x"));
+        assertNull(tokens.open(encoder.encodeToString(Arrays.copyOf(raw, raw.length - 1)), "ab3x"));
+        assertNull(tokens.open(encoder.encodeToString(Arrays.copyOf(raw, raw.length + 1)), "ab3x"));
+    }
+
+    @Test
+    void expiryRoundTripsForCallerToEnforce() {
+        long now = System.currentTimeMillis() / 1000;
+
+        // 令牌本身不判断过期，由调用方比较 expiresAt；已过期的令牌仍能解开并带回原值
+        var expired = tokens.open(tokens.issue("ab3x", now - 1), "ab3x");
+        assertNotNull(expired);
+        assertEquals(now - 1, expired.expiresAt());
+        assertTrue(expired.expiresAt() < now);
+
+        var valid = tokens.open(tokens.issue("ab3x", now + 60), "ab3x");
+        assertEquals(now + 60, valid.expiresAt());
+    }
+
+    @Test
+    void expiryCannotBeExtendedWithoutTheKey() {
+        String token = tokens.issue("ab3x", 100);
+        byte[] raw = Base64.getUrlDecoder().decode(token);
+
+        // 过期时间是 nonce 之后的 8 字节，GCM 的密文按位翻转会同样翻转明文，这里把它推到很远的将来，只能靠认证标签拒绝
+        byte[] extended = raw.clone();
+        extended[12 + 3] ^= 0x01;
+        String forged = Base64.getUrlEncoder().withoutPadding().encodeToString(extended);
+        assertNull(tokens.open(forged, "ab3x"));
+    }
+}
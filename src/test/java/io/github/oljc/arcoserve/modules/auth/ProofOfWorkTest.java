@@ -0,0 +1,150 @@
+package io.github.oljc.arcoserve.modules.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 工作量证明：前导零位计数与挑战的 HMAC 校验
+ */
+class ProofOfWorkTest {
+
+    private static final long EXPIRES_AT = 1_900_000_000L;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ProofOfWork pow(String secret, int difficulty) {
+        return new ProofOfWork(secret, meterRegistry, difficulty, difficulty, 5, 10_000);
+    }
+
+    @Test
+    void leadingZeroBitsCountsAcrossBytes() {
+        assertEquals(0, ProofOfWork.leadingZeroBits(new byte[]{(byte) 0xFF}));
+        assertEquals(0, ProofOfWork.leadingZeroBits(new byte[]{(byte) 0x80, 0}));
+        assertEquals(1, ProofOfWork.leadingZeroBits(new byte[]{0x40}));
+        assertEquals(7, ProofOfWork.leadingZeroBits(new byte[]{0x01, (byte) 0xFF}));
+        assertEquals(8, ProofOfWork.leadingZeroBits(new byte[]{0, (byte) 0x80}));
+        assertEquals(15, ProofOfWork.leadingZeroBits(new byte[]{0, 0x01}));
+        assertEquals(20, ProofOfWork.leadingZeroBits(new byte[]{0, 0, 0x0F}));
+        assertEquals(256, ProofOfWork.leadingZeroBits(new byte[32]));
+        assertEquals(0, ProofOfWork.leadingZeroBits(new byte[0]));
+    }
+
+    @Test
+    void solvedChallengePassesAndCarriesItsExpiry() {
+        var pow = pow("secret", 8);
+        var challenge = pow.issue(EXPIRES_AT);
+        assertEquals(8, challenge.difficulty());
+        assertTrue(ProofOfWork.isChallenge(challenge.challenge()));
+
+        var checked = pow.check(challenge.challenge(), solve(challenge.challenge(), 8, true));
+        assertNotNull(checked);
+        assertTrue(checked.solved());
+        assertEquals(EXPIRES_AT, checked.expiresAt());
+        assertEquals(checked.id(), pow.check(challenge.challenge(), "0").id());
+    }
+
+    @Test
+    void insufficientWorkIsReportedButNotRejected() {
+        var pow = pow("secret", 8);
+        String challenge = pow.issue(EXPIRES_AT).challenge();
+
+        var checked = pow.check(challenge, solve(challenge, 8, false));
+        assertNotNull(checked);
+        assertFalse(checked.solved());
+    }
+
+    @Test
+    void loweredDifficultyFailsHmac() {
+        var pow = pow("secret", 20);
+        String challenge = pow.issue(EXPIRES_AT).challenge();
+        int dot = challenge.indexOf('.', ProofOfWork.PREFIX.length());
+        byte[] payload = Base64.getUrlDecoder().decode(challenge.substring(ProofOfWork.PREFIX.length(), dot));
+
+        // 难度是载荷最后一个字节，改成 0 后任何解答都满足，只能靠 HMAC 拒绝
+        payload[payload.length - 1] = 0;
+        String forged = ProofOfWork.PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(payload)
+            + challenge.substring(dot);
+        assertNull(pow.check(forged, "0"));
+
+        // 延长过期时间同理
+        payload = Base64.getUrlDecoder().decode(challenge.substring(ProofOfWork.PREFIX.length(), dot));
+        ByteBuffer.wrap(payload, 12, 8).putLong(Long.MAX_VALUE);
+        forged = ProofOfWork.PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(payload)
+            + challenge.substring(dot);
+        assertNull(pow.check(forged, "0"));
+    }
+
+    @Test
+    void challengeFromAnotherSecretFailsHmac() {
+        String challenge = pow("other", 8).issue(EXPIRES_AT).challenge();
+        assertNull(pow("secret", 8).check(challenge, solve(challenge, 8, true)));
+    }
+
+    @Test
+    void tamperedSignatureFailsHmac() {
+        var pow = pow("secret", 8);
+        String challenge = pow.issue(EXPIRES_AT).challenge();
+        // 末位字符只携带部分比特，改签名第一个字符才一定改变解码结果
+        int at = challenge.lastIndexOf('.') + 1;
+        char first = challenge.charAt(at);
+        String forged = challenge.substring(0, at) + (first == 'A' ? 'B' : 'A') + challenge.substring(at + 1);
+        assertNull(pow.check(forged, "0"));
+    }
+
+    @Test
+    void malformedInputIsRejected() {
+        var pow = pow("secret", 8);
+        String challenge = pow.issue(EXPIRES_AT).challenge();
+
+        assertNull(pow.check("captcha-id", "0"));
+        assertNull(pow.check(ProofOfWork.PREFIX + "no-signature", "0"));
+        assertNull(pow.check(ProofOfWork.PREFIX + "!!!.!!!", "0"));
+        assertNull(pow.check(challenge.substring(0, challenge.lastIndexOf('.') + 1), "0"));
+        assertNull(pow.check(challenge, "0".repeat(65)));
+    }
+
+    @Test
+    void difficultyRisesWithRateLimitRejections() throws InterruptedException {
+        var pow = new ProofOfWork("secret", meterRegistry, 4, 12, 5, 1);
+        assertEquals(4, pow.issue(EXPIRES_AT).difficulty());
+
+        Counter.builder("ratelimit.decisions").tag("outcome", "rejected").register(meterRegistry).increment(1000);
+        Thread.sleep(10);
+        int raised = pow.issue(EXPIRES_AT).difficulty();
+        assertTrue(raised > 4 && raised <= 12, "difficulty=" + raised);
+    }
+
+    /**
+     * 暴力寻找解答，wanted 为 false 时寻找不满足难度的解答
+     */
+    private static String solve(String challenge, int difficulty, boolean wanted) {
+        for (long i = 0; ; i++) {
+            String solution = Long.toString(i);
+            byte[] digest = sha256(challenge + ":" + solution);
+            if ((ProofOfWork.leadingZeroBits(digest) >= difficulty) == wanted) {
+                return solution;
+            }
+        }
+    }
+
+    private static byte[] sha256(String input) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(input.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
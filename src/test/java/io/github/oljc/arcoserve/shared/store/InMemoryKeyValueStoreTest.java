@@ -0,0 +1,21 @@
+package io.github.oljc.arcoserve.shared.store;
+
+/**
+ * 进程内实现的一致性测试
+ */
+class InMemoryKeyValueStoreTest extends KeyValueStoreConformanceTest {
+
+    private InMemoryKeyValueStore memoryStore;
+
+    @Override
+    protected KeyValueStore createStore() {
+        memoryStore = new InMemoryKeyValueStore(System::currentTimeMillis, 10);
+        memoryStore.afterPropertiesSet();
+        return memoryStore;
+    }
+
+    @Override
+    protected void destroyStore() {
+        memoryStore.destroy();
+    }
+}
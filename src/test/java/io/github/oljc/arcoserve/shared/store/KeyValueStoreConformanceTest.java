@@ -0,0 +1,491 @@
+package io.github.oljc.arcoserve.shared.store;
+
+import io.github.oljc.arcoserve.shared.store.KeyValueStore.DelayClaim;
+import io.github.oljc.arcoserve.shared.store.KeyValueStore.Increment;
+import io.github.oljc.arcoserve.shared.store.KeyValueStore.LockHold;
+import io.github.oljc.arcoserve.shared.util.RedisKeys;
+import io.github.oljc.arcoserve.shared.util.RedisUtils.CounterResult;
+import io.github.oljc.arcoserve.shared.util.RedisUtils.RateLimitResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link KeyValueStore} 一致性测试，各实现继承后运行同一组用例，保证进程内实现与 Redis 脚本语义一致
+ */
+abstract class KeyValueStoreConformanceTest {
+
+    protected KeyValueStore store;
+    protected String runId;
+
+    /**
+     * 创建待测实现，不可用时通过 assumption 跳过
+     */
+    protected abstract KeyValueStore createStore();
+
+    /**
+     * 释放资源并删除本次运行写入的键，键名均包含 runId
+     */
+    protected abstract void destroyStore() throws Exception;
+
+    @BeforeEach
+    void setUp() {
+        runId = UUID.randomUUID().toString();
+        store = createStore();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        destroyStore();
+    }
+
+    protected String key(String name) {
+        return "kvtest:" + runId + ":" + name;
+    }
+
+    // ===== 滑动窗口 =====
+
+    @Test
+    void slidingWindowCollapsesRequestsInSameMillisecond() {
+        String key = key("window");
+        long now = System.currentTimeMillis();
+
+        // 同一毫秒的放行写入同一个成员，计数不增长，均被放行
+        for (int i = 0; i < 5; i++) {
+            RateLimitResult result = store.slidingWindowLimit(key, 1, 3, now);
+            assertTrue(result.allowed());
+            assertEquals(i == 0 ? 2 : 1, result.remaining());
+            assertEquals(1000, result.resetMillis());
+        }
+
+        assertTrue(store.slidingWindowLimit(key, 1, 3, now + 1).allowed());
+        RateLimitResult last = store.slidingWindowLimit(key, 1, 3, now + 2);
+        assertTrue(last.allowed());
+        assertEquals(0, last.remaining());
+
+        RateLimitResult rejected = store.slidingWindowLimit(key, 1, 3, now + 3);
+        assertFalse(rejected.allowed());
+        assertEquals(0, rejected.remaining());
+        assertEquals(997, rejected.resetMillis());
+    }
+
+    @Test
+    void slidingWindowEvictsOldMembersAndSetsExpiry() {
+        String key = key("window-evict");
+        long now = System.currentTimeMillis();
+
+        assertTrue(store.slidingWindowLimit(key, 1, 1, now).allowed());
+        assertFalse(store.slidingWindowLimit(key, 1, 1, now + 999).allowed());
+        // 窗口左边界包含在内，恰好 1 秒后旧成员被移除
+        assertTrue(store.slidingWindowLimit(key, 1, 1, now + 1000).allowed());
+
+        long ttl = store.ttl(key);
+        assertTrue(ttl >= 1 && ttl <= 2, "ttl=" + ttl);
+    }
+
+    // ===== 计数 =====
+
+    @Test
+    void atomicCounterSetsExpiryOnEveryAcceptedIncrement() {
+        String key = key("counter");
+
+        CounterResult first = store.atomicCounter(key, 3, 100, 5);
+        assertTrue(first.success());
+        assertEquals(3, first.value());
+        assertTtlBetween(key, 99, 100);
+
+        CounterResult rejected = store.atomicCounter(key, 3, 10, 5);
+        assertFalse(rejected.success());
+        assertEquals(3, rejected.value());
+        // 超出上限时不写入，原过期时间保留
+        assertTtlBetween(key, 99, 100);
+
+        CounterResult second = store.atomicCounter(key, 2, 10, 5);
+        assertTrue(second.success());
+        assertEquals(5, second.value());
+        assertTtlBetween(key, 9, 10);
+
+        assertTrue(store.atomicCounter(key, 100, 10, 0).success());
+        assertEquals("105", store.get(key));
+    }
+
+    @Test
+    void atomicCounterRejectsNonPositiveExpiry() {
+        assertThrows(RuntimeException.class, () -> store.atomicCounter(key("counter-ttl"), 1, 0, 0));
+        assertFalse(store.exists(key("counter-ttl")));
+    }
+
+    @Test
+    void atomicCounterExpires() throws InterruptedException {
+        String key = key("counter-expire");
+        assertTrue(store.atomicCounter(key, 1, 1, 0).success());
+
+        Thread.sleep(1100);
+        assertNull(store.get(key));
+        assertEquals(1, store.atomicCounter(key, 1, 1, 0).value());
+    }
+
+    @Test
+    void incrementsKeepExpiryAndBatchRenewsIt() {
+        String key = key("incr");
+        store.set(key, "1", 100);
+        assertEquals(3, store.incrBy(key, 2));
+        assertTtlBetween(key, 99, 100);
+
+        String fresh = key("incr-fresh");
+        store.incrByAll(List.of(new Increment(key, 4, 0), new Increment(fresh, 5, 50)));
+        assertEquals("7", store.get(key));
+        assertTtlBetween(key, 99, 100);
+        assertEquals("5", store.get(fresh));
+        assertTtlBetween(fresh, 49, 50);
+    }
+
+    // ===== 分布式锁 =====
+
+    @Test
+    void namedLockCountsReentryAndReportsRemainingLease() {
+        String name = key("named");
+
+        assertEquals(-1, store.tryLock(name, "a", 5000));
+        assertEquals(-1, store.tryLock(name, "a", 5000));
+        long remaining = store.tryLock(name, "b", 5000);
+        assertTrue(remaining > 4000 && remaining <= 5000, "remaining=" + remaining);
+        assertTrue(store.isLocked(name));
+
+        assertEquals(-1, store.unlock(name, "b"));
+        assertEquals(1, store.unlock(name, "a"));
+        assertTrue(store.exists(RedisKeys.lock(name)));
+        assertEquals(0, store.unlock(name, "a"));
+        assertFalse(store.isLocked(name));
+        // 完全释放后删除锁键
+        assertFalse(store.exists(RedisKeys.lock(name)));
+        assertEquals(-1, store.unlock(name, "a"));
+
+        assertEquals(-1, store.tryLock(name, "b", 5000));
+    }
+
+    @Test
+    void namedLockLeaseExpires() throws InterruptedException {
+        String name = key("lease");
+
+        assertEquals(-1, store.tryLock(name, "a", 200));
+        assertTrue(store.tryLock(name, "b", 200) > 0);
+        Thread.sleep(300);
+        assertFalse(store.isLocked(name));
+        assertEquals(-1, store.tryLock(name, "b", 200));
+    }
+
+    @Test
+    void fairLockGrantsInRequestOrder() {
+        String name = key("fair");
+
+        assertEquals(-1, store.tryFairLock(name, "a", 5000, 10000));
+        assertTrue(store.tryFairLock(name, "b", 5000, 10000) > 0);
+        assertTrue(store.tryFairLock(name, "c", 5000, 10000) > 0);
+
+        assertEquals(0, store.unlock(name, "a"));
+        // 锁空闲，但队列头是 b
+        assertEquals(0, store.tryFairLock(name, "c", 5000, 10000));
+        assertEquals(-1, store.tryFairLock(name, "b", 5000, 10000));
+
+        store.leaveLockQueue(name, "c");
+        assertEquals(0, store.unlock(name, "b"));
+        assertEquals(-1, store.tryFairLock(name, "d", 5000, 10000));
+    }
+
+    @Test
+    void renewLocksReportsLostHolds() {
+        String held = key("renew-held");
+        String other = key("renew-other");
+        assertEquals(-1, store.tryLock(held, "a", 200));
+        assertEquals(-1, store.tryLock(other, "b", 200));
+
+        List<Boolean> renewed = store.renewLocks(
+            List.of(new LockHold(held, "a"), new LockHold(other, "a"), new LockHold(key("renew-missing"), "a")), 5000);
+        assertEquals(List.of(true, false, false), renewed);
+        assertTrue(store.tryLock(held, "b", 200) > 1000);
+    }
+
+    @Test
+    void unlockNotifiesReleaseListeners() throws InterruptedException {
+        String name = key("notify");
+        BlockingQueue<String> released = new LinkedBlockingQueue<>();
+        Consumer<String> listener = released::add;
+        store.addLockReleaseListener(listener);
+        try {
+            // Redis 订阅异步建立，重复加解锁直到收到通知
+            String received = null;
+            for (int i = 0; i < 50 && received == null; i++) {
+                assertEquals(-1, store.tryLock(name, "a", 5000));
+                assertEquals(0, store.unlock(name, "a"));
+                received = released.poll(100, TimeUnit.MILLISECONDS);
+            }
+            assertEquals(name, received);
+        } finally {
+            store.removeLockReleaseListener(listener);
+        }
+    }
+
+    // ===== 延时队列 =====
+
+    @Test
+    void claimReturnsDueItemsInDueOrder() {
+        String queue = key("queue");
+        long now = System.currentTimeMillis();
+        store.delayQueueOffer(queue, 0, "late", now - 1000);
+        store.delayQueueOffer(queue, 0, "early", now - 5000);
+        store.delayQueueOffer(queue, 0, "mid", now - 3000);
+        store.delayQueueOffer(queue, 0, "future", now + 60_000);
+        // 重复投递以最新到期时间为准
+        store.delayQueueOffer(queue, 0, "late", now - 2000);
+
+        assertEquals(List.of("early", "mid"), store.delayQueueClaim(queue, new int[]{2}, now, 30_000, 3).get(0).items());
+        assertEquals(List.of("late"), store.delayQueueClaim(queue, new int[]{10}, now, 30_000, 3).get(0).items());
+        DelayClaim empty = store.delayQueueClaim(queue, new int[]{10}, now, 30_000, 3).get(0);
+        assertEquals(List.of(), empty.items());
+        assertEquals(now + 60_000, empty.readyAt());
+    }
+
+    @Test
+    void ackOfLastItemRemovesShard() {
+        String queue = key("queue-empty");
+        long now = System.currentTimeMillis();
+        store.delayQueueOffer(queue, 0, "only", now - 1);
+
+        assertEquals(List.of("only"), store.delayQueueClaim(queue, new int[]{1}, now, 30_000, 3).get(0).items());
+        assertTrue(store.delayQueueAck(queue, 0, "only"));
+        assertFalse(store.exists(RedisKeys.delayShard(queue, 0)));
+    }
+
+    @Test
+    void claimOrdersTiesLexicographically() {
+        String queue = key("sharded");
+        long now = System.currentTimeMillis();
+        for (String item : List.of("c", "a", "b")) {
+            store.delayQueueOffer(queue, 0, item, now - 10);
+        }
+        store.delayQueueOffer(queue, 1, "later", now + 60_000);
+
+        List<DelayClaim> claims = store.delayQueueClaim(queue, new int[]{2, 2}, now, 30_000, 3);
+        assertEquals(List.of("a", "b"), claims.get(0).items());
+        assertEquals(now - 10, claims.get(0).readyAt());
+        assertEquals(now + 30_000, claims.get(0).inflightAt());
+        assertEquals(List.of(), claims.get(1).items());
+        assertEquals(now + 60_000, claims.get(1).readyAt());
+        assertEquals(-1, claims.get(1).inflightAt());
+
+        DelayClaim rest = store.delayQueueClaim(queue, new int[]{5}, now, 30_000, 3).get(0);
+        assertEquals(List.of("c"), rest.items());
+        assertEquals(-1, rest.readyAt());
+    }
+
+    @Test
+    void claimRedeliversExpiredItemsThenDeadLetters() {
+        String queue = key("redeliver");
+        long now = System.currentTimeMillis();
+        store.delayQueueOffer(queue, 0, "x", now - 1);
+
+        assertEquals(List.of("x"), store.delayQueueClaim(queue, new int[]{1}, now, 50, 2).get(0).items());
+
+        DelayClaim second = store.delayQueueClaim(queue, new int[]{1}, now + 100, 50, 2).get(0);
+        assertEquals(1, second.redelivered());
+        assertEquals(List.of("x"), second.items());
+
+        DelayClaim third = store.delayQueueClaim(queue, new int[]{1}, now + 200, 50, 2).get(0);
+        assertEquals(0, third.redelivered());
+        assertEquals(List.of(), third.items());
+        assertEquals(1, store.delayQueueDeadCount(queue, 1));
+        assertFalse(store.delayQueueAck(queue, 0, "x"));
+    }
+
+    @Test
+    void ackAndRetryAffectOnlyInflightItems() {
+        String queue = key("ack");
+        long now = System.currentTimeMillis();
+        store.delayQueueOffer(queue, 0, "done", now - 1);
+        store.delayQueueOffer(queue, 0, "failed", now - 1);
+        assertEquals(List.of("done", "failed"), store.delayQueueClaim(queue, new int[]{2}, now, 30_000, 3).get(0).items());
+
+        assertTrue(store.delayQueueAck(queue, 0, "done"));
+        assertFalse(store.delayQueueAck(queue, 0, "done"));
+
+        assertTrue(store.delayQueueRetry(queue, 0, "failed", now + 1000));
+        assertFalse(store.delayQueueRetry(queue, 0, "unknown", now + 1000));
+        DelayClaim early = store.delayQueueClaim(queue, new int[]{1}, now + 500, 30_000, 3).get(0);
+        assertEquals(List.of(), early.items());
+        assertEquals(now + 1000, early.inflightAt());
+
+        DelayClaim due = store.delayQueueClaim(queue, new int[]{1}, now + 1000, 30_000, 3).get(0);
+        assertEquals(1, due.redelivered());
+        assertEquals(List.of("failed"), due.items());
+        assertEquals(0, store.delayQueueDeadCount(queue, 1));
+    }
+
+    // ===== 过期时间 =====
+
+    @Test
+    void ttlDistinguishesMissingAndPersistentKeys() {
+        String set = key("persistent");
+        assertEquals(-2, store.ttl(set));
+        store.sadd(set, "a");
+        assertEquals(-1, store.ttl(set));
+        assertTrue(store.expire(set, 100));
+        assertTtlBetween(set, 99, 100);
+    }
+
+    @Test
+    void expireEdgeCases() {
+        String key = key("expire");
+        assertFalse(store.expire(key, 10));
+
+        store.set(key, "v", 100);
+        // 非正的过期时间立即删除
+        assertTrue(store.expire(key, 0));
+        assertFalse(store.exists(key));
+        assertEquals(-2, store.ttl(key));
+
+        store.set(key, "v", 100);
+        store.set(key, "w", 10);
+        assertTtlBetween(key, 9, 10);
+    }
+
+    @Test
+    void keysExpire() throws InterruptedException {
+        String key = key("short");
+        store.set(key, "v", 1);
+        assertTrue(store.setNx(key("nx"), "v", 1));
+        assertFalse(store.setNx(key("nx"), "w", 1));
+
+        Thread.sleep(1100);
+        assertNull(store.get(key));
+        assertFalse(store.exists(key));
+        assertEquals(-2, store.ttl(key));
+        assertTrue(store.setNx(key("nx"), "w", 1));
+    }
+
+    @Test
+    void setRejectsNonPositiveExpiry() {
+        assertThrows(RuntimeException.class, () -> store.set(key("zero"), "v", 0));
+        assertFalse(store.exists(key("zero")));
+    }
+
+    @Test
+    void renameKeepsExpiryAndRequiresSource() {
+        String source = key("{rename}:source");
+        String target = key("{rename}:target");
+        store.set(source, "v", 100);
+        store.set(target, "old", 10);
+
+        store.rename(source, target);
+        assertFalse(store.exists(source));
+        assertEquals("v", store.get(target));
+        assertTtlBetween(target, 99, 100);
+
+        assertThrows(RuntimeException.class, () -> store.rename(source, target));
+    }
+
+    // ===== 字符串、集合与位图 =====
+
+    @Test
+    void stringOperations() {
+        String key = key("string");
+        assertNull(store.get(key));
+
+        store.setAll(Map.of(key, "1", key("other"), "2"), 100);
+        assertEquals(List.of(true, true, false), store.existsAll(List.of(key, key("other"), key("missing"))));
+        assertTrue(store.existsAsync(key).join());
+
+        assertFalse(store.deleteIfEquals(key, "2"));
+        assertTrue(store.deleteIfEquals(key, "1"));
+        assertEquals("2", store.getAndDelete(key("other")));
+        assertNull(store.getAndDelete(key("other")));
+        assertEquals(0, store.delete(key, key("other")));
+    }
+
+    @Test
+    void emptySetIsDeleted() {
+        String key = key("set");
+        assertEquals(2, store.sadd(key, "a", "b"));
+        assertEquals(1L, store.saddAsync(key, "b", "c").join());
+        assertTrue(store.expireAsync(key, 100).join());
+        assertEquals(Set.of("a", "b", "c"), store.smembers(key));
+        assertTrue(store.sismember(key, "a"));
+
+        assertEquals(3, store.srem(key, "a", "b", "c", "d"));
+        assertEquals(0, store.scard(key));
+        assertFalse(store.exists(key));
+        assertEquals(Set.of(), store.smembers(key));
+    }
+
+    @Test
+    void saddExpireSetsMembershipAndExpiryTogether() {
+        String key = key("set-ttl");
+        assertEquals(2, store.saddExpire(key, 100, "a", "b"));
+        assertTtlBetween(key, 99, 100);
+
+        assertEquals(0, store.saddExpire(key, 50, "a"));
+        assertTtlBetween(key, 49, 50);
+        assertEquals(Set.of("a", "b"), store.smembers(key));
+    }
+
+    @Test
+    void setCommandsRejectRateLimitWindow() {
+        String key = key("window-type");
+        long now = System.currentTimeMillis();
+        assertTrue(store.slidingWindowLimit(key, 60, 10, now).allowed());
+
+        // 滑动窗口是有序集合，集合命令应报 WRONGTYPE 且不改动窗口
+        assertThrows(RuntimeException.class, () -> store.sadd(key, "a"));
+        assertThrows(RuntimeException.class, () -> store.srem(key, "a"));
+        assertTrue(store.slidingWindowLimit(key, 60, 10, now + 1).allowed());
+    }
+
+    @Test
+    void setBitsReportsPreviouslySetGroups() {
+        String key = key("bits");
+        List<long[]> groups = List.of(new long[]{1, 64, 1L << 20}, new long[]{1, 2});
+
+        assertEquals(List.of(false, false), store.testBits(key, groups));
+        assertEquals(List.of(false, false), store.setBits(key, groups));
+        assertEquals(List.of(true, true), store.setBits(key, groups));
+        assertEquals(List.of(true, false), store.testBits(key, List.of(new long[]{64, 2}, new long[]{3})));
+    }
+
+    @Test
+    void publishDeliversToSubscribers() throws InterruptedException {
+        String channel = key("channel");
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        Consumer<String> listener = received::add;
+        store.subscribe(channel, listener);
+        try {
+            String message = null;
+            for (int i = 0; i < 50 && message == null; i++) {
+                store.publish(channel, "hello");
+                message = received.poll(100, TimeUnit.MILLISECONDS);
+            }
+            assertEquals("hello", message);
+        } finally {
+            store.unsubscribe(channel, listener);
+        }
+    }
+
+    private void assertTtlBetween(String key, long min, long max) {
+        long ttl = store.ttl(key);
+        assertTrue(ttl >= min && ttl <= max, key + " ttl=" + ttl);
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.oljc.arcoserve.shared.store;
+
+import io.github.oljc.arcoserve.shared.util.AsyncRedisUtils;
+import io.github.oljc.arcoserve.shared.util.HotKeyDetector;
+import io.github.oljc.arcoserve.shared.util.RedisReadBatcher;
+import io.github.oljc.arcoserve.shared.util.RedisReadRouter;
+import io.github.oljc.arcoserve.shared.util.RedisUtils;
+import io.github.oljc.arcoserve.shared.util.TrackingNearCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Redis 实现的一致性测试，连接 -Dredis.host / -Dredis.port（默认 localhost:6379），不可达时跳过
+ */
+class RedisKeyValueStoreTest extends KeyValueStoreConformanceTest {
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redis;
+    private RedisReadBatcher readBatcher;
+    private AsyncRedisUtils asyncRedisUtils;
+    private RedisMessageListenerContainer listenerContainer;
+    private boolean available;
+
+    @Override
+    protected KeyValueStore createStore() {
+        String host = System.getProperty("redis.host", System.getenv().getOrDefault("REDIS_HOST", "localhost"));
+        int port = Integer.getInteger("redis.port", Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379")));
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redis = new StringRedisTemplate(connectionFactory);
+        available = reachable();
+        assumeTrue(available, "Redis 不可达：" + host + ":" + port);
+
+        var redisUtils = new RedisUtils(redis, HotKeyDetector.disabled(), TrackingNearCache.disabled(),
+            RedisReadRouter.disabled(redis));
+        readBatcher = new RedisReadBatcher(redisUtils, new SimpleMeterRegistry(), false,
+            Duration.ofNanos(200_000), 128, 4, Duration.ofSeconds(1));
+        readBatcher.afterPropertiesSet();
+        asyncRedisUtils = new AsyncRedisUtils(connectionFactory, TrackingNearCache.disabled(),
+            HotKeyDetector.disabled());
+
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+
+        return new RedisKeyValueStore(redisUtils, readBatcher, asyncRedisUtils, redis, listenerContainer);
+    }
+
+    @Override
+    protected void destroyStore() throws Exception {
+        try {
+            if (available) {
+                Set<String> keys = redis.keys("*" + runId + "*");
+                if (!keys.isEmpty()) {
+                    redis.delete(keys);
+                }
+            }
+        } finally {
+            if (listenerContainer != null) listenerContainer.destroy();
+            if (asyncRedisUtils != null) asyncRedisUtils.destroy();
+            if (readBatcher != null) readBatcher.destroy();
+            connectionFactory.destroy();
+        }
+    }
+
+    private boolean reachable() {
+        try {
+            return "PONG".equals(redis.execute(connection -> connection.ping(), true));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}